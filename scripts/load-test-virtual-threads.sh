@@ -0,0 +1,35 @@
+#!/usr/bin/env bash
+# Сравнение режимов выполнения запросов Tomcat: платформенные и виртуальные потоки.
+# Нагрузка на /orders и /dashboard; пул Hikari намеренно мал (POOL), чтобы узким местом
+# было число соединений с БД, а не потоки. Требуется JDK 21.
+# Результаты: target/loadtest/platform.json и target/loadtest/virtual.json
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+POOL=${POOL:-5}
+CLIENTS=${CLIENTS:-200}
+DURATION=${DURATION:-60}
+PORT=${PORT:-8081}
+
+mvn -B -q -Pjava21 -DskipTests package
+JAR=$(ls target/repair-service-portal-*.jar | head -n 1)
+mkdir -p target/loadtest
+
+for mode in platform virtual; do
+    virtual=false
+    if [ "$mode" = virtual ]; then virtual=true; fi
+    java -jar "$JAR" \
+        --server.port="$PORT" \
+        --spring.threads.virtual.enabled="$virtual" \
+        --spring.datasource.hikari.maximum-pool-size="$POOL" \
+        --logging.level.io.github.nimv1.repair=INFO \
+        > "target/loadtest/$mode-app.log" 2>&1 &
+    app=$!
+    until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do sleep 1; done
+
+    mvn -B -q -Pjava21,benchmark test-compile exec:exec@load-test \
+        -Dload.args="baseUrl=http://localhost:$PORT clients=$CLIENTS duration=$DURATION label=$mode out=target/loadtest/$mode.json"
+
+    kill "$app"
+    wait "$app" || true
+done
@@ -0,0 +1,227 @@
+package io.github.nimv1.repair.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Нагрузочный клиент для сравнения режимов выполнения запросов (платформенные и виртуальные потоки).
+ * Каждый из {@code clients} клиентов входит через форму и по кругу запрашивает {@code /orders} и
+ * {@code /dashboard}. После прогрева считаются пропускная способность и перцентили задержки,
+ * результат пишется в JSON.
+ * <p>
+ * Параметры (key=value): baseUrl, clients, duration и warmup (в секундах), seed (сколько заявок
+ * загрузить через API импорта перед стартом), user, password, label, out.
+ */
+public final class HttpLoadTest {
+
+    private static final List<String> PATHS = List.of("/orders", "/dashboard");
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"[^>]*value=\"([^\"]+)\"");
+
+    private HttpLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "baseUrl", "http://localhost:8080",
+                "clients", "200",
+                "duration", "60",
+                "warmup", "10",
+                "seed", "2000",
+                "user", "manager",
+                "password", "manager123",
+                "label", "run",
+                "out", "target/loadtest/result.json"));
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            options.put(kv[0], kv[1]);
+        }
+        String baseUrl = options.get("baseUrl");
+        int clients = Integer.parseInt(options.get("clients"));
+
+        seedOrders(baseUrl, Integer.parseInt(options.get("seed")));
+
+        long warmupEnd = System.nanoTime() + Duration.ofSeconds(Long.parseLong(options.get("warmup"))).toNanos();
+        long end = warmupEnd + Duration.ofSeconds(Long.parseLong(options.get("duration"))).toNanos();
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        List<Future<Samples>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            futures.add(executor.submit(() -> runClient(baseUrl, options.get("user"), options.get("password"),
+                    warmupEnd, end)));
+        }
+        Samples total = new Samples();
+        for (Future<Samples> future : futures) {
+            total.merge(future.get());
+        }
+        executor.shutdown();
+
+        double seconds = Double.parseDouble(options.get("duration"));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("label", options.get("label"));
+        result.put("clients", clients);
+        result.put("durationSeconds", seconds);
+        for (String path : PATHS) {
+            long[] latencies = total.latencies(path);
+            Arrays.sort(latencies);
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", latencies.length);
+            stats.put("errors", total.errors.getOrDefault(path, 0L));
+            stats.put("throughputPerSecond", latencies.length / seconds);
+            stats.put("p50Millis", percentile(latencies, 0.50));
+            stats.put("p99Millis", percentile(latencies, 0.99));
+            stats.put("maxMillis", latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1_000_000.0);
+            result.put(path, stats);
+            System.out.printf("%-10s %-12s %10.1f req/s  p50 %8.1f ms  p99 %8.1f ms  errors %d%n",
+                    options.get("label"), path, stats.get("throughputPerSecond"),
+                    stats.get("p50Millis"), stats.get("p99Millis"), stats.get("errors"));
+        }
+        File out = new File(options.get("out"));
+        out.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out, result);
+    }
+
+    private static Samples runClient(String baseUrl, String user, String password, long warmupEnd, long end)
+            throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        login(client, baseUrl, user, password);
+        Samples samples = new Samples();
+        while (System.nanoTime() < end) {
+            for (String path : PATHS) {
+                long start = System.nanoTime();
+                int status;
+                try {
+                    status = client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                            HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (java.io.IOException e) {
+                    status = -1;
+                }
+                long finish = System.nanoTime();
+                if (start >= warmupEnd && finish <= end) {
+                    samples.record(path, status == 200, finish - start);
+                }
+            }
+        }
+        return samples;
+    }
+
+    private static void login(HttpClient client, String baseUrl, String user, String password) throws Exception {
+        String page = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login")).GET().build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        Matcher csrf = CSRF.matcher(page);
+        if (!csrf.find()) {
+            throw new IllegalStateException("На странице входа нет CSRF-токена");
+        }
+        String form = "username=" + encode(user) + "&password=" + encode(password) + "&_csrf=" + encode(csrf.group(1));
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(form))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        String location = response.headers().firstValue("Location").orElse("");
+        if (location.contains("error")) {
+            throw new IllegalStateException("Не удалось войти как " + user);
+        }
+    }
+
+    /**
+     * Загружает заявки через API импорта (HTTP Basic, администратор по умолчанию).
+     */
+    private static void seedOrders(String baseUrl, int orders) throws Exception {
+        if (orders <= 0) {
+            return;
+        }
+        StringBuilder csv = new StringBuilder("clientName,clientPhone,applianceType,problemDescription\n");
+        for (int i = 0; i < orders; i++) {
+            csv.append("Клиент ").append(i).append(",+7 900 ").append(1_000_000 + i)
+                    .append(",Холодильник,Не охлаждает\n");
+        }
+        String credentials = Base64.getEncoder().encodeToString("admin:admin123".getBytes(StandardCharsets.UTF_8));
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/api/orders/import"))
+                        .header("Content-Type", "text/csv")
+                        .header("Authorization", "Basic " + credentials)
+                        .POST(HttpRequest.BodyPublishers.ofString(csv.toString()))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        System.out.println("Импорт тестовых заявок: " + response.statusCode() + " " + response.body());
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Задержки (нс) успешных запросов и число ошибок по пути.
+     */
+    private static final class Samples {
+
+        private final Map<String, long[]> latencies = new HashMap<>();
+        private final Map<String, Integer> sizes = new HashMap<>();
+        private final Map<String, Long> errors = new HashMap<>();
+
+        void record(String path, boolean ok, long nanos) {
+            if (!ok) {
+                errors.merge(path, 1L, Long::sum);
+                return;
+            }
+            long[] values = latencies.computeIfAbsent(path, p -> new long[1024]);
+            int size = sizes.getOrDefault(path, 0);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+                latencies.put(path, values);
+            }
+            values[size] = nanos;
+            sizes.put(path, size + 1);
+        }
+
+        long[] latencies(String path) {
+            return Arrays.copyOf(latencies.getOrDefault(path, new long[0]), sizes.getOrDefault(path, 0));
+        }
+
+        void merge(Samples other) {
+            for (String path : other.latencies.keySet()) {
+                long[] mine = latencies(path);
+                long[] theirs = other.latencies(path);
+                long[] merged = Arrays.copyOf(mine, mine.length + theirs.length);
+                System.arraycopy(theirs, 0, merged, mine.length, theirs.length);
+                latencies.put(path, merged);
+                sizes.put(path, merged.length);
+            }
+            other.errors.forEach((path, count) -> errors.merge(path, count, Long::sum));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.nimv1.repair.benchmark;
+
+import io.github.nimv1.repair.entity.OrderSearchKeys;
+import io.github.nimv1.repair.entity.RepairOrder;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Заполнение БД заявками пакетными INSERT в обход JPA: миллион строк
+ * загружается за секунды и не задерживает в памяти сущности.
+ * Данные детерминированы: заявка {@code i} имеет id {@code i + 1}
+ * и создана на {@code i} минут раньше первой.
+ */
+class OrderDataSeeder {
+
+    private static final int BATCH_SIZE = 5_000;
+    private static final RepairOrder.OrderStatus[] STATUSES = RepairOrder.OrderStatus.values();
+    private static final RepairOrder.Priority[] PRIORITIES = RepairOrder.Priority.values();
+
+    private static final String INSERT = """
+            INSERT INTO repair_orders (id, version, order_number, client_name, client_phone, appliance_type,
+                                       problem_description, status, priority, technician_id, manager_id,
+                                       created_at, assigned_at, serial_number, client_phone_key, serial_number_key)
+            VALUES (?, 0, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LocalDateTime newest = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    OrderDataSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    void seed(int orders, List<Long> technicianIds, Long managerId) {
+        for (int from = 0; from < orders; from += BATCH_SIZE) {
+            int start = from;
+            int size = Math.min(BATCH_SIZE, orders - from);
+            jdbcTemplate.batchUpdate(INSERT, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int offset) throws SQLException {
+                    int i = start + offset;
+                    RepairOrder.OrderStatus status = STATUSES[i % STATUSES.length];
+                    boolean assigned = status != RepairOrder.OrderStatus.NEW
+                            && status != RepairOrder.OrderStatus.ACCEPTED;
+                    Timestamp createdAt = Timestamp.valueOf(createdAt(i));
+                    ps.setLong(1, idOf(i));
+                    ps.setString(2, "BENCH-" + i);
+                    ps.setString(3, "Клиент " + i);
+                    String phone = phoneOf(i);
+                    String serialNumber = serialNumberOf(i);
+                    ps.setString(4, phone);
+                    ps.setString(5, "Холодильник");
+                    ps.setString(6, "Не охлаждает");
+                    ps.setString(7, status.name());
+                    ps.setString(8, PRIORITIES[i % PRIORITIES.length].name());
+                    ps.setObject(9, assigned ? technicianIds.get(i % technicianIds.size()) : null);
+                    ps.setObject(10, status == RepairOrder.OrderStatus.NEW ? null : managerId);
+                    ps.setTimestamp(11, createdAt);
+                    ps.setTimestamp(12, assigned ? createdAt : null);
+                    ps.setString(13, serialNumber);
+                    ps.setString(14, OrderSearchKeys.phoneKey(phone));
+                    ps.setString(15, OrderSearchKeys.serialKey(serialNumber));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            });
+        }
+        // Новые заявки из бенчмарка получают id после загруженных (с запасом на пул Hibernate)
+        jdbcTemplate.execute("ALTER SEQUENCE repair_orders_seq RESTART WITH " + (orders + 100));
+    }
+
+    static String phoneOf(int i) {
+        return "+7 900 " + String.format("%07d", i % 10_000_000);
+    }
+
+    static String serialNumberOf(int i) {
+        return String.format("SN-%08d", i);
+    }
+
+    Long firstOrderIdWithStatus(RepairOrder.OrderStatus status) {
+        return idOf(status.ordinal());
+    }
+
+    LocalDateTime createdAt(int i) {
+        return newest.minusMinutes(i);
+    }
+
+    static long idOf(int i) {
+        return i + 1L;
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.nimv1.repair.benchmark;
+
+import io.github.nimv1.repair.RepairServicePortalApplication;
+import io.github.nimv1.repair.dto.OrderCursor;
+import io.github.nimv1.repair.dto.OrderSearchCriteria;
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.entity.User;
+import io.github.nimv1.repair.repository.UserRepository;
+import io.github.nimv1.repair.service.OrderNumberGenerator;
+import io.github.nimv1.repair.service.RepairOrderService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Контекст приложения на встроенной H2, заполненной {@code orders} заявками.
+ * Поднимается один раз на прогон (trial) и общий для всех потоков бенчмарка.
+ */
+@State(Scope.Benchmark)
+public class OrderDataState {
+
+    /** Объём заявок в БД; переопределяется ключом JMH {@code -p orders=1000000}. */
+    @Param({"10000"})
+    public int orders;
+
+    ConfigurableApplicationContext context;
+    RepairOrderService orderService;
+    OrderNumberGenerator orderNumberGenerator;
+    List<User> technicians;
+    Long reassignedOrderId;
+    String middleCursor;
+    OrderSearchCriteria phoneSearch;
+    OrderSearchCriteria serialSearch;
+    OrderSearchCriteria statusAndDateSearch;
+
+    private int nextTechnician;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(RepairServicePortalApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "logging.level.root=WARN",
+                        "repair.dashboard.counters.reconcile-interval=PT1H")
+                .run();
+        orderService = context.getBean(RepairOrderService.class);
+        orderNumberGenerator = context.getBean(OrderNumberGenerator.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        technicians = userRepository.findByRole(User.Role.TECHNICIAN);
+        User manager = userRepository.findByUsername("manager").orElseThrow();
+
+        OrderDataSeeder seeder = new OrderDataSeeder(context.getBean(JdbcTemplate.class));
+        seeder.seed(orders, technicians.stream().map(User::getId).toList(), manager.getId());
+
+        reassignedOrderId = seeder.firstOrderIdWithStatus(RepairOrder.OrderStatus.ASSIGNED);
+        int middle = orders / 2;
+        middleCursor = new OrderCursor(seeder.createdAt(middle), OrderDataSeeder.idOf(middle)).encode();
+        String phone = OrderDataSeeder.phoneOf(middle);
+        phoneSearch = new OrderSearchCriteria(null, phone.substring(phone.length() - 7),
+                null, null, null, null, null, null);
+        serialSearch = new OrderSearchCriteria(null, null, OrderDataSeeder.serialNumberOf(middle),
+                null, null, null, null, null);
+        LocalDate day = seeder.createdAt(middle).toLocalDate();
+        statusAndDateSearch = new OrderSearchCriteria(null, null, null,
+                RepairOrder.OrderStatus.IN_PROGRESS, null, day, day, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    User nextTechnician() {
+        nextTechnician = (nextTechnician + 1) % technicians.size();
+        return technicians.get(nextTechnician);
+    }
+
+    static RepairOrder newOrder() {
+        return RepairOrder.builder()
+                .clientName("Клиент бенчмарка")
+                .clientPhone("+7 900 000-00-00")
+                .applianceType("Холодильник")
+                .problemDescription("Не охлаждает")
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.nimv1.repair.benchmark;
+
+import io.github.nimv1.repair.config.PasswordHashingProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость проверки пароля при входе. Бенчмарк однопоточный, поэтому результат
+ * (ops/s) — это число входов в секунду на одно ядро для заданного алгоритма и параметров.
+ * Параметры меняются ключами JMH, например {@code -p algorithm=argon2 -p bcryptStrength=12}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    private static final String PASSWORD = "tech123";
+
+    @Param({"bcrypt", "argon2", "pbkdf2"})
+    public String algorithm;
+
+    @Param({"10"})
+    public int bcryptStrength;
+
+    @Param({"310000"})
+    public int pbkdf2Iterations;
+
+    @Param({"19456"})
+    public int argon2MemoryKb;
+
+    @Param({"2"})
+    public int argon2Iterations;
+
+    private PasswordEncoder encoder;
+    private String encoded;
+
+    @Setup
+    public void setUp() {
+        encoder = new PasswordHashingProperties(algorithm, bcryptStrength, pbkdf2Iterations,
+                argon2MemoryKb, argon2Iterations, 1).createEncoder();
+        encoded = encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean login() {
+        return encoder.matches(PASSWORD, encoded);
+    }
+}
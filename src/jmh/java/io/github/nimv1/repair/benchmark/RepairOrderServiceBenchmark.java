@@ -0,0 +1,97 @@
+package io.github.nimv1.repair.benchmark;
+
+import io.github.nimv1.repair.dto.KeysetPage;
+import io.github.nimv1.repair.dto.OrderStatistics;
+import io.github.nimv1.repair.dto.OrderSummary;
+import io.github.nimv1.repair.entity.RepairOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Горячие пути сервиса заявок: создание, смена статуса, выборки для дашборда и списка.
+ * Запуск: {@code mvn -Pbenchmark test-compile exec:exec}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RepairOrderServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Benchmark
+    public RepairOrder createOrder(OrderDataState state) {
+        return state.orderService.createOrder(OrderDataState.newOrder());
+    }
+
+    @Benchmark
+    public String nextOrderNumber(OrderDataState state) {
+        return state.orderNumberGenerator.nextOrderNumber();
+    }
+
+    /** Переназначение техника (ASSIGNED -> ASSIGNED): условный UPDATE с проверкой версии. */
+    @Benchmark
+    public RepairOrder reassignTechnician(OrderDataState state) {
+        return state.orderService.assignTechnician(state.reassignedOrderId, state.nextTechnician());
+    }
+
+    @Benchmark
+    public List<OrderSummary> findActiveOrdersForTechnician(OrderDataState state) {
+        return state.orderService.findActiveOrdersForTechnician(state.technicians.get(0).getId());
+    }
+
+    @Benchmark
+    public Map<RepairOrder.OrderStatus, Long> countAllByStatus(OrderDataState state) {
+        return state.orderService.countAllByStatus();
+    }
+
+    @Benchmark
+    public OrderStatistics statistics(OrderDataState state) {
+        return state.orderService.getStatistics();
+    }
+
+    @Benchmark
+    public Page<OrderSummary> findAllFirstPage(OrderDataState state) {
+        return state.orderService.findAll(PageRequest.of(0, PAGE_SIZE, Sort.by("createdAt").descending()));
+    }
+
+    @Benchmark
+    public Page<OrderSummary> findAllMiddlePage(OrderDataState state) {
+        int page = state.orders / PAGE_SIZE / 2;
+        return state.orderService.findAll(PageRequest.of(page, PAGE_SIZE, Sort.by("createdAt").descending()));
+    }
+
+    @Benchmark
+    public KeysetPage<OrderSummary> findKeysetMiddlePage(OrderDataState state) {
+        return state.orderService.findPage(state.middleCursor, null, PAGE_SIZE);
+    }
+
+    /** Поиск по окончанию телефона: LIKE по префиксу нормализованного ключа. */
+    @Benchmark
+    public List<OrderSummary> searchByPhoneSuffix(OrderDataState state) {
+        return state.orderService.search(state.phoneSearch, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<OrderSummary> searchBySerialNumber(OrderDataState state) {
+        return state.orderService.search(state.serialSearch, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<OrderSummary> searchByStatusAndDate(OrderDataState state) {
+        return state.orderService.search(state.statusAndDateSearch, 0, PAGE_SIZE);
+    }
+}
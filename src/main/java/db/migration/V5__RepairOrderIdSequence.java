@@ -0,0 +1,31 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Последовательность для id заявок, чтобы Hibernate мог объединять INSERT в JDBC-пакеты
+ * (с IDENTITY пакетная вставка невозможна). Шаг совпадает с allocationSize сущности,
+ * начальное значение выбирается выше уже существующих id.
+ */
+public class V5__RepairOrderIdSequence extends BaseJavaMigration {
+
+    static final int ALLOCATION_SIZE = 50;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            long maxId;
+            try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM repair_orders")) {
+                rs.next();
+                maxId = rs.getLong(1);
+            }
+            // Пул Hibernate выдаёт id из диапазона (значение - шаг, значение]
+            statement.execute("CREATE SEQUENCE repair_orders_seq START WITH " + (maxId + ALLOCATION_SIZE)
+                    + " INCREMENT BY " + ALLOCATION_SIZE);
+        }
+    }
+}
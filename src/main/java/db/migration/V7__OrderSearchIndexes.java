@@ -0,0 +1,89 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * Индексы для поиска заявок: нормализованные ключи телефона и серийного номера
+ * (заполняются для существующих строк копией правил OrderSearchKeys на момент миграции:
+ * миграция не зависит от кода приложения, который может измениться),
+ * а на PostgreSQL — GIN-индекс полнотекстового поиска по клиенту, технике и описанию.
+ * Выражение индекса должно совпадать с функцией order_text_matches (OrderSearchFunctions).
+ */
+public class V7__OrderSearchIndexes extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int LOCAL_PHONE_LENGTH = 10;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean postgres = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE repair_orders ADD COLUMN client_phone_key VARCHAR(32)");
+            statement.execute("ALTER TABLE repair_orders ADD COLUMN serial_number_key VARCHAR(100)");
+            backfill(connection);
+            // LIKE 'префикс%' использует B-tree на PostgreSQL только с *_pattern_ops (если локаль не C)
+            String patternOps = postgres ? " varchar_pattern_ops" : "";
+            statement.execute("CREATE INDEX idx_repair_orders_phone_key ON repair_orders (client_phone_key"
+                    + patternOps + ")");
+            statement.execute("CREATE INDEX idx_repair_orders_serial_key ON repair_orders (serial_number_key"
+                    + patternOps + ")");
+            if (postgres) {
+                statement.execute("CREATE INDEX idx_repair_orders_fts ON repair_orders USING GIN ("
+                        + "to_tsvector('russian', coalesce(client_name, '') || ' ' || coalesce(client_address, '')"
+                        + " || ' ' || coalesce(appliance_brand, '') || ' ' || coalesce(appliance_model, '')"
+                        + " || ' ' || coalesce(problem_description, '')))");
+            }
+        }
+    }
+
+    private void backfill(Connection connection) throws Exception {
+        try (Statement select = connection.createStatement();
+             ResultSet rs = select.executeQuery("SELECT id, client_phone, serial_number FROM repair_orders");
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE repair_orders SET client_phone_key = ?, serial_number_key = ? WHERE id = ?")) {
+            int pending = 0;
+            while (rs.next()) {
+                update.setString(1, phoneKey(rs.getString(2)));
+                update.setString(2, serialKey(rs.getString(3)));
+                update.setLong(3, rs.getLong(1));
+                update.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    update.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                update.executeBatch();
+            }
+        }
+    }
+
+    // Цифры телефона в обратном порядке, без кода страны (+7/8 перед 10-значным номером)
+    private static String phoneKey(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        String digits = phone.replaceAll("\\D", "");
+        if (digits.length() == LOCAL_PHONE_LENGTH + 1 && (digits.charAt(0) == '7' || digits.charAt(0) == '8')) {
+            digits = digits.substring(1);
+        }
+        return digits.isEmpty() ? null : new StringBuilder(digits).reverse().toString();
+    }
+
+    // Серийный номер без разделителей, в верхнем регистре
+    private static String serialKey(String serialNumber) {
+        if (serialNumber == null) {
+            return null;
+        }
+        String key = serialNumber.replaceAll("[^\\p{L}\\p{N}]", "").toUpperCase(Locale.ROOT);
+        return key.isEmpty() ? null : key;
+    }
+}
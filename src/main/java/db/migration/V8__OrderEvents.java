@@ -0,0 +1,59 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Журнал заявок order_events (только дополняется). На PostgreSQL таблица секционирована
+ * по месяцам occurred_at: создаются секция по умолчанию и секции на ближайшие месяцы,
+ * дальше их заранее создаёт OrderEventPartitions. DDL секций скопирован сюда, чтобы миграция
+ * не зависела от кода приложения. Первичный ключ секционированной
+ * таблицы обязан включать ключ секционирования, поэтому он составной.
+ * Прошлые переходы не восстанавливаются: журнал ведётся с момента миграции.
+ */
+public class V8__OrderEvents extends BaseJavaMigration {
+
+    static final int ALLOCATION_SIZE = 50;
+    private static final int MONTHS_AHEAD = 3;
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean postgres = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        try (Statement statement = connection.createStatement()) {
+            // Пул Hibernate выдаёт id из диапазона (значение - шаг, значение]
+            statement.execute("CREATE SEQUENCE order_events_seq START WITH " + ALLOCATION_SIZE
+                    + " INCREMENT BY " + ALLOCATION_SIZE);
+            String columns = "id BIGINT NOT NULL, "
+                    + "order_id BIGINT NOT NULL, "
+                    + "previous_status VARCHAR(255), "
+                    + "new_status VARCHAR(255) NOT NULL, "
+                    + "priority VARCHAR(255), "
+                    + "technician_id BIGINT, "
+                    + "actor VARCHAR(255), "
+                    + "occurred_at TIMESTAMP(6) NOT NULL";
+            if (postgres) {
+                statement.execute("CREATE TABLE order_events (" + columns + ", PRIMARY KEY (id, occurred_at))"
+                        + " PARTITION BY RANGE (occurred_at)");
+                statement.execute("CREATE TABLE order_events_default PARTITION OF order_events DEFAULT");
+                YearMonth month = YearMonth.now();
+                for (int i = 0; i <= MONTHS_AHEAD; i++) {
+                    YearMonth partition = month.plusMonths(i);
+                    statement.execute("CREATE TABLE order_events_" + partition.format(SUFFIX)
+                            + " PARTITION OF order_events FOR VALUES FROM ('" + partition.atDay(1) + "') TO ('"
+                            + partition.plusMonths(1).atDay(1) + "')");
+                }
+            } else {
+                statement.execute("CREATE TABLE order_events (" + columns + ", PRIMARY KEY (id))");
+            }
+            // На секционированной таблице индекс создаётся в каждой секции
+            statement.execute("CREATE INDEX idx_order_events_order ON order_events (order_id, occurred_at)");
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package io.github.nimv1.repair.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Включает кэширование. Кэши и их ограничения задаются в application.yml (spring.cache.*).
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS_BY_ID = "usersById";
+    public static final String USERS_BY_USERNAME = "usersByUsername";
+    public static final String USERS_BY_ROLE = "usersByRole";
+}
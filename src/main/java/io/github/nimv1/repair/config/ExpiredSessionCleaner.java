@@ -0,0 +1,53 @@
+package io.github.nimv1.repair.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Очистка просроченных HTTP-сессий по расписанию {@code repair.session.cleanup.cron}.
+ * Запуск удаляет порции по {@code repair.session.cleanup.batch-size}, пока очередная порция
+ * не окажется неполной: каждая порция — отдельный короткий DELETE в автокоммите,
+ * поэтому накопившиеся сессии удаляются за один запуск без долгой блокировки таблицы.
+ */
+@Component
+@Slf4j
+public class ExpiredSessionCleaner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final String deleteBatch;
+
+    public ExpiredSessionCleaner(JdbcTemplate jdbcTemplate,
+                                 @Value("${spring.session.jdbc.table-name:SPRING_SESSION}") String tableName,
+                                 @Value("${repair.session.cleanup.batch-size:1000}") int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Размер порции очистки сессий должен быть положительным");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.deleteBatch = SessionConfig.deleteExpiredBatchQuery(tableName, batchSize);
+    }
+
+    /**
+     * Удаляет все сессии, просроченные к началу запуска.
+     *
+     * @return число удалённых сессий
+     */
+    @Scheduled(cron = "${repair.session.cleanup.cron:0 * * * * *}")
+    public int cleanUp() {
+        long now = System.currentTimeMillis();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(deleteBatch, now);
+            total += deleted;
+        } while (deleted == batchSize);
+        if (total > 0) {
+            log.debug("Удалено просроченных сессий: {}", total);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.nimv1.repair.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Параметры отправки уведомлений из outbox (repair.notifications.*).
+ *
+ * @param batchSize         сколько уведомлений отправитель забирает за одну транзакцию
+ * @param maxBatchesPerPoll сколько порций обрабатывается за один опрос; остаток — на следующем
+ * @param sendTimeout       сколько ждать ответа шлюза на одно уведомление
+ * @param maxAttempts       после стольких неудачных попыток уведомление помечается FAILED
+ * @param initialBackoff    пауза перед второй попыткой; дальше удваивается
+ * @param maxBackoff        предел паузы между попытками
+ * @param retention         сколько хранить отправленные уведомления
+ * @param file              файл, в который локальный отправитель дописывает уведомления;
+ *                          {@code null} — только в лог
+ */
+@ConfigurationProperties("repair.notifications")
+public record NotificationProperties(
+        @DefaultValue("50") int batchSize,
+        @DefaultValue("10") int maxBatchesPerPoll,
+        @DefaultValue("10s") Duration sendTimeout,
+        @DefaultValue("8") int maxAttempts,
+        @DefaultValue("30s") Duration initialBackoff,
+        @DefaultValue("1h") Duration maxBackoff,
+        @DefaultValue("30d") Duration retention,
+        Path file) {
+
+    public NotificationProperties {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("repair.notifications.batch-size должен быть положительным");
+        }
+        if (maxBatchesPerPoll < 1) {
+            throw new IllegalArgumentException("repair.notifications.max-batches-per-poll должен быть положительным");
+        }
+        if (sendTimeout.isNegative() || sendTimeout.isZero()) {
+            throw new IllegalArgumentException("repair.notifications.send-timeout должен быть положительным");
+        }
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("repair.notifications.max-attempts должен быть положительным");
+        }
+        if (initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0) {
+            throw new IllegalArgumentException("Некорректные паузы между попытками отправки уведомлений");
+        }
+    }
+
+    /**
+     * Пауза перед следующей попыткой после {@code attempts} неудачных.
+     */
+    public Duration backoff(int attempts) {
+        Duration delay = initialBackoff;
+        for (int i = 1; i < attempts && delay.compareTo(maxBackoff) < 0; i++) {
+            delay = delay.multipliedBy(2);
+        }
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
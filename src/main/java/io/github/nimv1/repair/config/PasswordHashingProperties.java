@@ -0,0 +1,52 @@
+package io.github.nimv1.repair.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Параметры хэширования паролей (repair.security.password.*).
+ *
+ * @param algorithm          алгоритм для новых хэшей: bcrypt, argon2 или pbkdf2
+ * @param bcryptStrength     cost bcrypt (log2 числа раундов)
+ * @param pbkdf2Iterations   число итераций PBKDF2-HMAC-SHA256
+ * @param argon2MemoryKb     память Argon2id, КБ
+ * @param argon2Iterations   число проходов Argon2id
+ * @param argon2Parallelism  параллелизм Argon2id
+ */
+@ConfigurationProperties("repair.security.password")
+public record PasswordHashingProperties(
+        @DefaultValue("bcrypt") String algorithm,
+        @DefaultValue("10") int bcryptStrength,
+        @DefaultValue("310000") int pbkdf2Iterations,
+        @DefaultValue("19456") int argon2MemoryKb,
+        @DefaultValue("2") int argon2Iterations,
+        @DefaultValue("1") int argon2Parallelism) {
+
+    /**
+     * Создаёт {@link DelegatingPasswordEncoder}: новые хэши получают префикс {@code {algorithm}},
+     * хэши без префикса (созданные прежним BCryptPasswordEncoder) проверяются как bcrypt.
+     * {@code upgradeEncoding} срабатывает при смене алгоритма и при усилении параметров
+     * bcrypt/argon2, что запускает перехэширование при входе.
+     */
+    public PasswordEncoder createEncoder() {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(bcryptStrength));
+        encoders.put("argon2", new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2MemoryKb, argon2Iterations));
+        encoders.put("pbkdf2", new Pbkdf2PasswordEncoder("", 16, pbkdf2Iterations,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalArgumentException("Неизвестный алгоритм хэширования паролей: " + algorithm);
+        }
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(encoders.get("bcrypt"));
+        return encoder;
+    }
+}
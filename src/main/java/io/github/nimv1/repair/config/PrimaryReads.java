@@ -0,0 +1,40 @@
+package io.github.nimv1.repair.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Чтение из основной БД в обход реплик (см. {@link ReadReplicaDataSourceConfig}).
+ * <p>
+ * Нужно для снимков, с которыми сверяются счётчики и индексы в памяти: отстающая
+ * реплика вернула бы устаревшие данные, и сверка закрепила бы их. Запрос выполняется
+ * в read-write транзакции, которую маршрутизатор направляет в основную БД; read-only
+ * методы сервисов внутри неё присоединяются к ней и читают оттуда же. Транзакция
+ * всегда откатывается — через неё ничего не записывается.
+ */
+@Component
+public class PrimaryReads {
+
+    private final TransactionOperations transaction;
+
+    @Autowired
+    public PrimaryReads(PlatformTransactionManager transactionManager) {
+        this(new TransactionTemplate(transactionManager));
+    }
+
+    public PrimaryReads(TransactionOperations transaction) {
+        this.transaction = transaction;
+    }
+
+    public <T> T read(Supplier<T> query) {
+        return transaction.execute(status -> {
+            status.setRollbackOnly();
+            return query.get();
+        });
+    }
+}
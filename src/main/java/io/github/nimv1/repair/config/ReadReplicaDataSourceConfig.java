@@ -0,0 +1,66 @@
+package io.github.nimv1.repair.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Маршрутизация чтения на реплики. Включается, если задана хотя бы одна реплика
+ * (repair.datasource.replicas[0].url); иначе используется обычный DataSource Spring Boot.
+ * Транзакции {@code @Transactional(readOnly = true)} читают из реплик, остальные
+ * запросы (включая миграции Flyway) идут в основную БД.
+ * <p>
+ * Реплика может отставать. Чтение, которому нужны закоммиченные данные (снимки для
+ * сверки счётчиков и индексов в памяти), оборачивается в {@link PrimaryReads}:
+ * read-write транзакция закрепляет за собой основную БД, и вложенные read-only
+ * методы сервисов читают оттуда же.
+ */
+@Configuration
+@ConditionalOnProperty("repair.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ReadReplicaProperties properties,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.replicas().size(); i++) {
+            ReadReplicaProperties.Replica replica = properties.replicas().get(i);
+            HikariDataSource pool = new HikariDataSource();
+            primaryDataSource.copyStateTo(pool);
+            pool.setJdbcUrl(replica.url());
+            pool.setUsername(replica.username());
+            pool.setPassword(replica.password());
+            pool.setPoolName("replica-" + (i + 1));
+            // Недоступная при старте реплика не мешает запуску: чтение уйдёт в основную БД
+            pool.setInitializationFailTimeout(-1);
+            meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(pool);
+        }
+        return new LazyConnectionDataSourceProxy(
+                new ReadReplicaRoutingDataSource(primaryDataSource, replicas, properties.retryAfter()));
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.nimv1.repair.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Реплики БД для чтения (repair.datasource.*).
+ *
+ * @param replicas   реплики; пул каждой наследует настройки spring.datasource.hikari
+ * @param retryAfter сколько не обращаться к реплике после ошибки подключения
+ */
+@ConfigurationProperties("repair.datasource")
+public record ReadReplicaProperties(
+        @DefaultValue List<Replica> replicas,
+        @DefaultValue("30s") Duration retryAfter) {
+
+    public record Replica(String url, String username, String password) {
+    }
+}
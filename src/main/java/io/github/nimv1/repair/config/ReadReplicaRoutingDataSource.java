@@ -0,0 +1,65 @@
+package io.github.nimv1.repair.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Источник соединений, направляющий read-only транзакции на реплики (по кругу),
+ * а всё остальное — на основную БД.
+ * <p>
+ * Реплика, к которой не удалось подключиться, пропускается в течение {@code retryAfter};
+ * если доступных реплик нет, чтение идёт в основную БД. Флаг read-only выставляется
+ * после начала транзакции, поэтому источник нужно оборачивать в
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final long retryAfterNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLongArray unavailableUntil;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration retryAfter) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.retryAfterNanos = retryAfter.toNanos();
+        this.unavailableUntil = new AtomicLongArray(replicas.size());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primary.getConnection();
+        }
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            int index = Math.floorMod(next.getAndIncrement(), replicas.size());
+            long now = System.nanoTime();
+            if (unavailableUntil.get(index) - now > 0) {
+                continue;
+            }
+            try {
+                return replicas.get(index).getConnection();
+            } catch (SQLException e) {
+                unavailableUntil.set(index, now + retryAfterNanos);
+                log.warn("Реплика {} недоступна, чтение переключено на другие источники: {}", index + 1, e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+}
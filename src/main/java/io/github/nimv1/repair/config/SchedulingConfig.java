@@ -0,0 +1,14 @@
+package io.github.nimv1.repair.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Включение фоновых задач по расписанию, параметры расписания визитов и отправки уведомлений.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties({VisitScheduleProperties.class, NotificationProperties.class})
+public class SchedulingConfig {
+}
@@ -1,15 +1,16 @@
 package io.github.nimv1.repair.config;
 
 import io.github.nimv1.repair.service.CustomUserDetailsService;
-import lombok.RequiredArgsConstructor;
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
@@ -19,17 +20,23 @@ import org.springframework.security.web.SecurityFilterChain;
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
-@RequiredArgsConstructor
+@EnableConfigurationProperties(PasswordHashingProperties.class)
 public class SecurityConfig {
 
-    private final CustomUserDetailsService userDetailsService;
-
+    // CustomUserDetailsService передаётся в метод, а не в конструктор: он зависит от UserService,
+    // которому нужен PasswordEncoder из этой же конфигурации
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   CustomUserDetailsService userDetailsService) throws Exception {
         http
             .authorizeHttpRequests(auth -> auth
+                // Лента заявок (SSE) проверяется при подключении; асинхронные диспетчеризации
+                // того же запроса при отправке и закрытии повторно не авторизуются
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/css/**", "/js/**", "/images/**", "/webjars/**").permitAll()
                 .requestMatchers("/login", "/error").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers("/admin/**").hasRole("ADMIN")
                 .requestMatchers("/manager/**").hasAnyRole("ADMIN", "MANAGER")
                 .requestMatchers("/technician/**").hasAnyRole("ADMIN", "TECHNICIAN")
@@ -45,14 +52,22 @@ public class SecurityConfig {
                 .logoutSuccessUrl("/login?logout")
                 .permitAll()
             )
+            // Импорт вызывают системы партнёров по HTTP Basic. Тела text/csv и application/json
+            // браузер не отправит на чужой домен без CORS preflight, поэтому CSRF-токен не нужен
+            .httpBasic(Customizer.withDefaults())
+            .csrf(csrf -> csrf.ignoringRequestMatchers("/api/orders/import"))
             .userDetailsService(userDetailsService);
 
         return http.build();
     }
 
+    /**
+     * Кодировщик паролей с настраиваемым алгоритмом; устаревшие хэши
+     * перехэшируются при входе через {@link CustomUserDetailsService#updatePassword}.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties properties) {
+        return properties.createEncoder();
     }
 
     @Bean
@@ -0,0 +1,84 @@
+package io.github.nimv1.repair.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+import org.springframework.session.config.SessionRepositoryCustomizer;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ObjectStreamConstants;
+
+/**
+ * Хранение HTTP-сессий в БД (Spring Session JDBC), чтобы экземпляры приложения
+ * за балансировщиком не держали сессии в памяти.
+ * <p>
+ * Контекст безопасности сериализуется в JSON (модули Jackson Spring Security с белым списком
+ * типов) — это компактнее стандартной Java-сериализации. Остальные атрибуты сессии
+ * (flash-атрибуты, CSRF-токен) сохраняются Java-сериализацией; формат определяется при чтении
+ * по сигнатуре потока, поэтому ранее сохранённые сессии читаются без миграции.
+ */
+@Configuration
+public class SessionConfig {
+
+    private static final short JAVA_STREAM_MAGIC = ObjectStreamConstants.STREAM_MAGIC;
+
+    @Bean("springSessionConversionService")
+    public GenericConversionService springSessionConversionService(ObjectMapper objectMapper) {
+        ObjectMapper json = objectMapper.copy();
+        json.registerModules(SecurityJackson2Modules.getModules(getClass().getClassLoader()));
+        DefaultSerializer javaSerializer = new DefaultSerializer();
+        DefaultDeserializer javaDeserializer = new DefaultDeserializer(getClass().getClassLoader());
+
+        GenericConversionService conversionService = new GenericConversionService();
+        conversionService.addConverter(Object.class, byte[].class, new SerializingConverter((value, out) -> {
+            if (value instanceof SecurityContext) {
+                json.writeValue(out, value);
+            } else {
+                javaSerializer.serialize(value, out);
+            }
+        }));
+        conversionService.addConverter(byte[].class, Object.class, new DeserializingConverter(in -> {
+            byte[] bytes = in.readAllBytes();
+            if (isJavaSerialized(bytes)) {
+                return javaDeserializer.deserialize(new ByteArrayInputStream(bytes));
+            }
+            return json.readValue(bytes, Object.class);
+        }));
+        return conversionService;
+    }
+
+    /**
+     * Удаление просроченных сессий порциями: один вызов {@code cleanUpExpiredSessions}
+     * удаляет не больше {@code batchSize} строк, чтобы не держать долгую блокировку таблицы.
+     * Встроенная очистка Spring Session отключена (spring.session.jdbc.cleanup-cron: "-"),
+     * по расписанию порции удаляет {@link ExpiredSessionCleaner}.
+     */
+    @Bean
+    public SessionRepositoryCustomizer<JdbcIndexedSessionRepository> sessionCleanupBatching(
+            @Value("${repair.session.cleanup.batch-size:1000}") int batchSize) {
+        String query = deleteExpiredBatchQuery("%TABLE_NAME%", batchSize);
+        return repository -> repository.setDeleteSessionsByExpiryTimeQuery(query);
+    }
+
+    /**
+     * DELETE не больше {@code batchSize} самых старых просроченных сессий; параметр — текущее время в мс.
+     */
+    static String deleteExpiredBatchQuery(String tableName, int batchSize) {
+        return "DELETE FROM " + tableName + " WHERE PRIMARY_ID IN ("
+                + "SELECT PRIMARY_ID FROM " + tableName + " WHERE EXPIRY_TIME < ? "
+                + "ORDER BY EXPIRY_TIME FETCH FIRST " + batchSize + " ROWS ONLY)";
+    }
+
+    private static boolean isJavaSerialized(byte[] bytes) {
+        return bytes.length >= 2 && (short) (((bytes[0] & 0xFF) << 8) | (bytes[1] & 0xFF)) == JAVA_STREAM_MAGIC;
+    }
+}
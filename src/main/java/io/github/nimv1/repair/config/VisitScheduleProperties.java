@@ -0,0 +1,32 @@
+package io.github.nimv1.repair.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.time.LocalTime;
+
+/**
+ * Параметры расписания визитов техников (repair.schedule.*).
+ *
+ * @param visitDuration длительность визита; визиты одного техника не должны пересекаться
+ * @param workStart     начало рабочего дня
+ * @param workEnd       конец рабочего дня; визит должен закончиться не позже
+ * @param horizon       насколько вперёд искать свободное окно
+ */
+@ConfigurationProperties("repair.schedule")
+public record VisitScheduleProperties(
+        @DefaultValue("2h") Duration visitDuration,
+        @DefaultValue("09:00") LocalTime workStart,
+        @DefaultValue("18:00") LocalTime workEnd,
+        @DefaultValue("30d") Duration horizon) {
+
+    public VisitScheduleProperties {
+        if (visitDuration.isNegative() || visitDuration.isZero()) {
+            throw new IllegalArgumentException("Длительность визита должна быть положительной");
+        }
+        if (Duration.between(workStart, workEnd).compareTo(visitDuration) < 0) {
+            throw new IllegalArgumentException("Визит не помещается в рабочий день");
+        }
+    }
+}
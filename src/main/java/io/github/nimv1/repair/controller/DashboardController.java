@@ -2,6 +2,7 @@ package io.github.nimv1.repair.controller;
 
 import io.github.nimv1.repair.entity.RepairOrder;
 import io.github.nimv1.repair.entity.User;
+import io.github.nimv1.repair.service.OrderStatusCounters;
 import io.github.nimv1.repair.service.RepairOrderService;
 import io.github.nimv1.repair.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +21,7 @@ public class DashboardController {
 
     private final RepairOrderService orderService;
     private final UserService userService;
+    private final OrderStatusCounters statusCounters;
 
     @GetMapping("/")
     public String home() {
@@ -32,9 +34,9 @@ public class DashboardController {
                 .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
 
         model.addAttribute("user", user);
-        model.addAttribute("newOrdersCount", orderService.countByStatus(RepairOrder.OrderStatus.NEW));
-        model.addAttribute("inProgressCount", orderService.countByStatus(RepairOrder.OrderStatus.IN_PROGRESS));
-        model.addAttribute("completedCount", orderService.countByStatus(RepairOrder.OrderStatus.COMPLETED));
+        model.addAttribute("newOrdersCount", statusCounters.get(RepairOrder.OrderStatus.NEW));
+        model.addAttribute("inProgressCount", statusCounters.get(RepairOrder.OrderStatus.IN_PROGRESS));
+        model.addAttribute("completedCount", statusCounters.get(RepairOrder.OrderStatus.COMPLETED));
 
         // Для техника показываем его активные заявки
         if (user.getRole() == User.Role.TECHNICIAN) {
@@ -0,0 +1,65 @@
+package io.github.nimv1.repair.controller;
+
+import io.github.nimv1.repair.dto.KpiReport;
+import io.github.nimv1.repair.service.KpiReportService;
+import io.github.nimv1.repair.service.KpiRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import java.time.LocalDate;
+
+/**
+ * Отчёты KPI по заявкам: страница {@code /reports/kpi} и JSON API {@code /api/reports/kpi},
+ * например {@code /api/reports/kpi?from=2024-03-01&to=2024-03-31&groupBy=WEEK}.
+ * По умолчанию — последние 30 дней в разрезе техников.
+ */
+@Controller
+@PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+@RequiredArgsConstructor
+public class KpiReportController {
+
+    private static final int DEFAULT_PERIOD_DAYS = 30;
+
+    private final KpiReportService reportService;
+    private final KpiRollupService rollupService;
+
+    @GetMapping("/reports/kpi")
+    public String reportPage(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                             @RequestParam(defaultValue = "TECHNICIAN") KpiReport.Grouping groupBy,
+                             Model model) {
+        model.addAttribute("report", report(from, to, groupBy));
+        model.addAttribute("groupings", KpiReport.Grouping.values());
+        return "reports/kpi";
+    }
+
+    @GetMapping("/api/reports/kpi")
+    @ResponseBody
+    public KpiReport reportApi(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                               @RequestParam(defaultValue = "TECHNICIAN") KpiReport.Grouping groupBy) {
+        return report(from, to, groupBy);
+    }
+
+    @PostMapping("/reports/kpi/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public String rebuild(RedirectAttributes redirectAttributes) {
+        int orders = rollupService.rebuild();
+        redirectAttributes.addFlashAttribute("success", "Сводки перестроены, заявок: " + orders);
+        return "redirect:/reports/kpi";
+    }
+
+    private KpiReport report(LocalDate from, LocalDate to, KpiReport.Grouping groupBy) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_PERIOD_DAYS - 1);
+        return reportService.report(start, end, groupBy);
+    }
+}
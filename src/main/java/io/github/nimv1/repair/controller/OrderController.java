@@ -1,10 +1,20 @@
 package io.github.nimv1.repair.controller;
 
+import io.github.nimv1.repair.dto.BulkOperationResult;
+import io.github.nimv1.repair.dto.KeysetPage;
+import io.github.nimv1.repair.dto.OrderSearchCriteria;
+import io.github.nimv1.repair.dto.OrderSummary;
+import io.github.nimv1.repair.dto.TechnicianWorkload;
 import io.github.nimv1.repair.entity.RepairOrder;
 import io.github.nimv1.repair.entity.User;
+import io.github.nimv1.repair.service.AutoAssignmentService;
 import io.github.nimv1.repair.service.RepairOrderService;
+import io.github.nimv1.repair.service.TechnicianWorkloadIndex;
 import io.github.nimv1.repair.service.UserService;
+import io.github.nimv1.repair.service.VisitCalendar;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -15,11 +25,19 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.servlet.support.RequestContextUtils;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Контроллер для работы с заявками на ремонт.
@@ -31,15 +49,49 @@ public class OrderController {
 
     private final RepairOrderService orderService;
     private final UserService userService;
+    private final TechnicianWorkloadIndex workloadIndex;
+    private final AutoAssignmentService autoAssignmentService;
+    private final VisitCalendar visitCalendar;
 
+    /** Режим пагинации списка по умолчанию: keyset или offset. */
+    @Value("${repair.orders.pagination:keyset}")
+    private String paginationMode;
+
+    /**
+     * Список заявок. По умолчанию используется keyset-пагинация по курсорам
+     * {@code after}/{@code before}; явный параметр {@code page} включает
+     * классическую постраничную навигацию с OFFSET. Заданные фильтры поиска
+     * заменяют список первой страницей результатов.
+     */
     @GetMapping
     public String listOrders(
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String before,
+            @ModelAttribute("search") OrderSearchCriteria search,
             Model model) {
-        Page<RepairOrder> orders = orderService.findAll(
-                PageRequest.of(page, size, Sort.by("createdAt").descending()));
-        model.addAttribute("orders", orders);
+        boolean keyset = page == null && "keyset".equalsIgnoreCase(paginationMode);
+        if (!search.isEmpty()) {
+            // Результаты поиска — одна страница без навигации
+            keyset = true;
+            model.addAttribute("orders", new KeysetPage<>(orderService.search(search, 0, size), null, null));
+        } else if (keyset) {
+            KeysetPage<OrderSummary> orders;
+            try {
+                orders = orderService.findPage(after, before, size);
+            } catch (IllegalArgumentException e) {
+                orders = orderService.findPage(null, null, size);
+            }
+            model.addAttribute("orders", orders);
+        } else {
+            Page<OrderSummary> orders = orderService.findAll(
+                    PageRequest.of(page == null ? 0 : page, size, Sort.by("createdAt").descending()));
+            model.addAttribute("orders", orders);
+        }
+        model.addAttribute("keyset", keyset);
+        model.addAttribute("size", size);
+        model.addAttribute("technicians", userService.findAllTechnicians());
         return "orders/list";
     }
 
@@ -68,18 +120,36 @@ public class OrderController {
         RepairOrder order = orderService.findById(id)
                 .orElseThrow(() -> new RuntimeException("Заявка не найдена"));
         model.addAttribute("order", order);
-        model.addAttribute("technicians", userService.findAllTechnicians());
+        // Техники от наименее загруженного; первый — рекомендуемый.
+        // Созданные после последней перестройки индекса идут в конце списка
+        Map<Long, TechnicianWorkload> workloads = new LinkedHashMap<>();
+        workloadIndex.availableWorkloads().forEach(w -> workloads.put(w.technicianId(), w));
+        Map<Long, Integer> rank = new HashMap<>();
+        workloads.keySet().forEach(technicianId -> rank.put(technicianId, rank.size()));
+        model.addAttribute("technicians", userService.findAllTechnicians().stream()
+                .filter(User::isEnabled)
+                .sorted(Comparator.comparingInt(t -> rank.getOrDefault(t.getId(), Integer.MAX_VALUE)))
+                .toList());
+        model.addAttribute("workloads", workloads);
+        model.addAttribute("suggestedTechnicianId", workloads.keySet().stream().findFirst().orElse(null));
+        // Ближайшее свободное окно назначенного техника для формы планирования визита
+        if (order.getTechnician() != null && (order.getStatus() == RepairOrder.OrderStatus.ASSIGNED
+                || order.getStatus() == RepairOrder.OrderStatus.SCHEDULED)) {
+            visitCalendar.firstFreeSlot(order.getTechnician().getId(), LocalDateTime.now())
+                    .ifPresent(slot -> model.addAttribute("suggestedVisit", slot));
+        }
         return "orders/view";
     }
 
     @PostMapping("/{id}/accept")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
     public String acceptOrder(@PathVariable Long id,
+                              @RequestParam(required = false) Long version,
                               @AuthenticationPrincipal UserDetails userDetails,
                               RedirectAttributes redirectAttributes) {
         User manager = userService.findByUsername(userDetails.getUsername())
                 .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
-        orderService.acceptOrder(id, manager);
+        orderService.acceptOrder(id, version, manager);
         redirectAttributes.addFlashAttribute("success", "Заявка принята");
         return "redirect:/orders/" + id;
     }
@@ -88,28 +158,44 @@ public class OrderController {
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'DISPATCHER')")
     public String assignTechnician(@PathVariable Long id,
                                    @RequestParam Long technicianId,
+                                   @RequestParam(required = false) Long version,
                                    RedirectAttributes redirectAttributes) {
         User technician = userService.findById(technicianId)
                 .orElseThrow(() -> new RuntimeException("Техник не найден"));
-        orderService.assignTechnician(id, technician);
+        orderService.assignTechnician(id, version, technician);
         redirectAttributes.addFlashAttribute("success", "Техник назначен");
         return "redirect:/orders/" + id;
     }
 
+    @PostMapping("/{id}/auto-assign")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'DISPATCHER')")
+    public String autoAssignTechnician(@PathVariable Long id,
+                                       @AuthenticationPrincipal UserDetails userDetails,
+                                       RedirectAttributes redirectAttributes) {
+        User manager = userService.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
+        RepairOrder order = autoAssignmentService.autoAssign(id, manager);
+        redirectAttributes.addFlashAttribute("success", "Назначен техник " + order.getTechnician().getFullName());
+        return "redirect:/orders/" + id;
+    }
+
     @PostMapping("/{id}/schedule")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'DISPATCHER', 'TECHNICIAN')")
     public String scheduleVisit(@PathVariable Long id,
                                 @RequestParam String scheduledAt,
+                                @RequestParam(required = false) Long version,
                                 RedirectAttributes redirectAttributes) {
-        orderService.scheduleVisit(id, LocalDateTime.parse(scheduledAt));
+        orderService.scheduleVisit(id, version, LocalDateTime.parse(scheduledAt));
         redirectAttributes.addFlashAttribute("success", "Визит запланирован");
         return "redirect:/orders/" + id;
     }
 
     @PostMapping("/{id}/start")
     @PreAuthorize("hasAnyRole('ADMIN', 'TECHNICIAN')")
-    public String startRepair(@PathVariable Long id, RedirectAttributes redirectAttributes) {
-        orderService.startRepair(id);
+    public String startRepair(@PathVariable Long id,
+                              @RequestParam(required = false) Long version,
+                              RedirectAttributes redirectAttributes) {
+        orderService.startRepair(id, version);
         redirectAttributes.addFlashAttribute("success", "Ремонт начат");
         return "redirect:/orders/" + id;
     }
@@ -120,25 +206,86 @@ public class OrderController {
                                  @RequestParam String repairNotes,
                                  @RequestParam(required = false) String partsUsed,
                                  @RequestParam BigDecimal finalCost,
+                                 @RequestParam(required = false) Long version,
                                  RedirectAttributes redirectAttributes) {
-        orderService.completeRepair(id, repairNotes, partsUsed, finalCost);
+        orderService.completeRepair(id, version, repairNotes, partsUsed, finalCost);
         redirectAttributes.addFlashAttribute("success", "Ремонт завершён");
         return "redirect:/orders/" + id;
     }
 
     @PostMapping("/{id}/cancel")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public String cancelOrder(@PathVariable Long id, RedirectAttributes redirectAttributes) {
-        orderService.cancelOrder(id);
+    public String cancelOrder(@PathVariable Long id,
+                              @RequestParam(required = false) Long version,
+                              RedirectAttributes redirectAttributes) {
+        orderService.cancelOrder(id, version);
         redirectAttributes.addFlashAttribute("success", "Заявка отменена");
         return "redirect:/orders/" + id;
     }
 
     @PostMapping("/{id}/waiting-parts")
     @PreAuthorize("hasAnyRole('ADMIN', 'TECHNICIAN')")
-    public String setWaitingParts(@PathVariable Long id, RedirectAttributes redirectAttributes) {
-        orderService.setWaitingParts(id);
+    public String setWaitingParts(@PathVariable Long id,
+                                  @RequestParam(required = false) Long version,
+                                  RedirectAttributes redirectAttributes) {
+        orderService.setWaitingParts(id, version);
         redirectAttributes.addFlashAttribute("success", "Статус изменён на 'Ожидание запчастей'");
         return "redirect:/orders/" + id;
     }
+
+    @PostMapping("/batch/assign")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'DISPATCHER')")
+    public String assignTechnicianBatch(@RequestParam(name = "ids", required = false) List<Long> ids,
+                                        @RequestParam Long technicianId,
+                                        RedirectAttributes redirectAttributes) {
+        User technician = userService.findById(technicianId)
+                .orElseThrow(() -> new RuntimeException("Техник не найден"));
+        BulkOperationResult result = orderService.assignTechnician(ids == null ? List.of() : ids, technician);
+        addBulkMessages(result, "Техник назначен на заявок: ", redirectAttributes);
+        return "redirect:/orders";
+    }
+
+    @PostMapping("/batch/auto-assign")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public String autoAssignBacklog(@AuthenticationPrincipal UserDetails userDetails,
+                                    RedirectAttributes redirectAttributes) {
+        User manager = userService.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
+        BulkOperationResult result = autoAssignmentService.assignBacklog(manager);
+        addBulkMessages(result, "Распределено заявок: ", redirectAttributes);
+        return "redirect:/orders";
+    }
+
+    @PostMapping("/batch/cancel")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public String cancelOrdersBatch(@RequestParam(name = "ids", required = false) List<Long> ids,
+                                    RedirectAttributes redirectAttributes) {
+        BulkOperationResult result = orderService.cancelOrders(ids == null ? List.of() : ids);
+        addBulkMessages(result, "Отменено заявок: ", redirectAttributes);
+        return "redirect:/orders";
+    }
+
+    private void addBulkMessages(BulkOperationResult result, String successPrefix,
+                                 RedirectAttributes redirectAttributes) {
+        redirectAttributes.addFlashAttribute("success", successPrefix + result.updated().size());
+        if (!result.rejected().isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "Пропущено заявок: " + result.rejected().size()
+                    + " (" + String.join("; ", result.rejected().entrySet().stream()
+                    .map(e -> "#" + e.getKey() + " — " + e.getValue()).toList()) + ")");
+        }
+    }
+
+    /**
+     * Недопустимый переход статуса или параллельное изменение заявки:
+     * возвращаем пользователя на карточку заявки с сообщением об ошибке.
+     */
+    @ExceptionHandler({IllegalStateException.class, OptimisticLockingFailureException.class})
+    public String handleTransitionConflict(RuntimeException e, HttpServletRequest request) {
+        RequestContextUtils.getOutputFlashMap(request).put("error", e.getMessage());
+        @SuppressWarnings("unchecked")
+        Map<String, String> pathVariables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String id = pathVariables != null ? pathVariables.get("id") : null;
+        return id != null ? "redirect:/orders/" + id : "redirect:/orders";
+    }
 }
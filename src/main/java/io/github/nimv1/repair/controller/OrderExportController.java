@@ -0,0 +1,51 @@
+package io.github.nimv1.repair.controller;
+
+import io.github.nimv1.repair.dto.OrderSearchCriteria;
+import io.github.nimv1.repair.service.OrderExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Выгрузка заявок для отчётности. Фильтры те же, что у поиска
+ * ({@link OrderSearchCriteria}: статус, период, техник и т.д.); файл пишется
+ * прямо в ответ, без буферизации в памяти.
+ */
+@RestController
+@RequestMapping("/api/orders/export")
+@PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+@RequiredArgsConstructor
+public class OrderExportController {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmm");
+
+    private final OrderExportService exportService;
+
+    @GetMapping("/csv")
+    public void exportCsv(OrderSearchCriteria criteria, HttpServletResponse response) throws IOException {
+        prepare(response, "text/csv;charset=UTF-8", "csv");
+        exportService.exportCsv(criteria, response.getOutputStream());
+    }
+
+    @GetMapping("/xlsx")
+    public void exportXlsx(OrderSearchCriteria criteria, HttpServletResponse response) throws IOException {
+        prepare(response, "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+        exportService.exportXlsx(criteria, response.getOutputStream());
+    }
+
+    private static void prepare(HttpServletResponse response, String contentType, String extension) {
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("orders-" + LocalDateTime.now().format(FILE_TIMESTAMP) + "." + extension)
+                .build().toString());
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.nimv1.repair.controller;
+
+import io.github.nimv1.repair.entity.User;
+import io.github.nimv1.repair.service.OrderFeed;
+import io.github.nimv1.repair.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Подписка на живую ленту заявок (Server-Sent Events): события {@code created},
+ * {@code status} и {@code resync}. Техник получает только свои заявки.
+ */
+@RestController
+@RequestMapping("/api/orders/feed")
+@RequiredArgsConstructor
+public class OrderFeedController {
+
+    private final OrderFeed orderFeed;
+    private final UserService userService;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@AuthenticationPrincipal UserDetails userDetails) {
+        User user = userService.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
+        return orderFeed.subscribe(user.getRole() == User.Role.TECHNICIAN ? user.getId() : null);
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.nimv1.repair.controller;
+
+import io.github.nimv1.repair.dto.OrderHistory;
+import io.github.nimv1.repair.service.OrderEventLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * История заявки из журнала переходов: кто и когда менял статус,
+ * сколько заявка провела в каждом статусе.
+ */
+@RestController
+@RequestMapping("/api/orders/{id}/history")
+@RequiredArgsConstructor
+public class OrderHistoryController {
+
+    private final OrderEventLog eventLog;
+
+    @GetMapping
+    public OrderHistory history(@PathVariable Long id) {
+        return eventLog.history(id);
+    }
+}
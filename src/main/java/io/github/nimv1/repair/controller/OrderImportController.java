@@ -0,0 +1,36 @@
+package io.github.nimv1.repair.controller;
+
+import io.github.nimv1.repair.dto.ImportResult;
+import io.github.nimv1.repair.service.OrderImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * API массового импорта заявок от партнёрских колл-центров.
+ * Тело запроса читается потоком, без буферизации файла в памяти.
+ */
+@RestController
+@RequestMapping("/api/orders/import")
+@PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+@RequiredArgsConstructor
+public class OrderImportController {
+
+    private final OrderImportService importService;
+
+    @PostMapping(consumes = "text/csv")
+    public ImportResult importCsv(InputStream body) throws IOException {
+        return importService.importCsv(body);
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ImportResult importJson(InputStream body) throws IOException {
+        return importService.importJson(body);
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.nimv1.repair.controller;
+
+import io.github.nimv1.repair.dto.OrderSearchCriteria;
+import io.github.nimv1.repair.dto.OrderSummary;
+import io.github.nimv1.repair.service.RepairOrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * API поиска заявок для колл-центра: фильтры из {@link OrderSearchCriteria}
+ * передаются параметрами запроса, например {@code ?phone=4567&status=NEW}.
+ */
+@RestController
+@RequestMapping("/api/orders/search")
+@RequiredArgsConstructor
+public class OrderSearchController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final RepairOrderService orderService;
+
+    @GetMapping
+    public List<OrderSummary> search(OrderSearchCriteria criteria,
+                                     @RequestParam(defaultValue = "0") int page,
+                                     @RequestParam(defaultValue = "20") int size) {
+        return orderService.search(criteria, Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.nimv1.repair.controller;
+
+import io.github.nimv1.repair.dto.OrderStatistics;
+import io.github.nimv1.repair.service.RepairOrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * JSON API статистики по заявкам для отчётов и внешнего мониторинга.
+ */
+@RestController
+@RequestMapping("/api/orders/stats")
+@RequiredArgsConstructor
+public class OrderStatisticsController {
+
+    private final RepairOrderService orderService;
+
+    @GetMapping
+    public OrderStatistics statistics() {
+        return orderService.getStatistics();
+    }
+}
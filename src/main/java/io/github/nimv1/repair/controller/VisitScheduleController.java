@@ -0,0 +1,45 @@
+package io.github.nimv1.repair.controller;
+
+import io.github.nimv1.repair.dto.VisitSlot;
+import io.github.nimv1.repair.service.VisitCalendar;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * API календаря визитов: занятые окна техника и ближайшее свободное окно,
+ * например {@code /api/schedule/free-slot?technicianId=3&from=2024-03-01T09:00}.
+ * Без {@code technicianId} ищется самое раннее окно среди всех техников.
+ */
+@RestController
+@RequestMapping("/api/schedule")
+@RequiredArgsConstructor
+public class VisitScheduleController {
+
+    private final VisitCalendar visitCalendar;
+
+    @GetMapping("/free-slot")
+    public ResponseEntity<VisitSlot> firstFreeSlot(
+            @RequestParam(required = false) Long technicianId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from) {
+        LocalDateTime start = from != null ? from : LocalDateTime.now();
+        return ResponseEntity.of(technicianId != null
+                ? visitCalendar.firstFreeSlot(technicianId, start)
+                : visitCalendar.firstFreeSlot(start));
+    }
+
+    @GetMapping("/technicians/{technicianId}/visits")
+    public List<VisitSlot> visits(@PathVariable Long technicianId,
+                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day) {
+        return visitCalendar.visitsOn(technicianId, day);
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.nimv1.repair.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Результат массовой операции над заявками.
+ *
+ * @param updated  id заявок, к которым операция применена
+ * @param rejected id пропущенных заявок с причиной
+ */
+public record BulkOperationResult(List<Long> updated, Map<Long, String> rejected) {
+}
@@ -0,0 +1,13 @@
+package io.github.nimv1.repair.dto;
+
+/**
+ * Строка результата агрегирующего запроса: значение группы и количество заявок.
+ *
+ * @param <K> тип ключа группировки
+ */
+public interface GroupCount<K> {
+
+    K getGroupKey();
+
+    long getTotal();
+}
@@ -0,0 +1,13 @@
+package io.github.nimv1.repair.dto;
+
+import java.util.List;
+
+/**
+ * Отчёт об импорте заявок.
+ *
+ * @param imported количество созданных заявок
+ * @param rejected количество отклонённых строк
+ * @param errors   описания ошибок (не больше заданного лимита)
+ */
+public record ImportResult(long imported, long rejected, List<String> errors) {
+}
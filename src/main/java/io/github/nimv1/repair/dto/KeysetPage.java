@@ -0,0 +1,25 @@
+package io.github.nimv1.repair.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Страница keyset-пагинации без подсчёта общего количества строк.
+ * Курсор равен {@code null}, если в этом направлении записей больше нет.
+ */
+@Value
+public class KeysetPage<T> {
+
+    List<T> content;
+    String prevCursor;
+    String nextCursor;
+
+    public boolean hasPrevious() {
+        return prevCursor != null;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
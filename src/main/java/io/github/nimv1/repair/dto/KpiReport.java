@@ -0,0 +1,56 @@
+package io.github.nimv1.repair.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Отчёт KPI по заявкам, созданным в периоде {@code [from, to]}, из сводок order_kpi_daily.
+ *
+ * @param total итог по всему периоду
+ */
+public record KpiReport(
+        LocalDate from,
+        LocalDate to,
+        Grouping groupBy,
+        List<Row> rows,
+        Row total) {
+
+    public enum Grouping {
+        DAY("День"),
+        WEEK("Неделя"),
+        TECHNICIAN("Техник"),
+        APPLIANCE_TYPE("Тип техники"),
+        BRAND("Бренд");
+
+        private final String label;
+
+        Grouping(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * Средние — в часах от создания заявки; {@code null}, если этап не прошла ни одна заявка.
+     *
+     * @param completionRate  доля выполненных заявок от созданных, %
+     * @param estimatedCost   предварительная стоимость выполненных заявок
+     * @param finalCost       итоговая стоимость (выручка) выполненных заявок
+     */
+    public record Row(
+            String group,
+            long created,
+            long completed,
+            long cancelled,
+            Double completionRate,
+            Double avgHoursToAssign,
+            Double avgHoursToStart,
+            Double avgHoursToComplete,
+            BigDecimal estimatedCost,
+            BigDecimal finalCost) {
+    }
+}
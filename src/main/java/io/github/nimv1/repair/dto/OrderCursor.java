@@ -0,0 +1,45 @@
+package io.github.nimv1.repair.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в списке заявок для keyset-пагинации: пара (createdAt, id).
+ * Передаётся клиенту как непрозрачный токен.
+ *
+ * @param createdAt дата создания граничной заявки
+ * @param id        id граничной заявки (разрешает совпадения createdAt)
+ */
+public record OrderCursor(LocalDateTime createdAt, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static OrderCursor of(OrderSummary order) {
+        return new OrderCursor(order.createdAt(), order.id());
+    }
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException если токен повреждён
+     */
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Некорректный курсор: " + token);
+            }
+            return new OrderCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.nimv1.repair.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import io.github.nimv1.repair.entity.RepairOrder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Строка выгрузки заявок для отчётности. Порядок компонентов задаёт порядок колонок.
+ */
+@JsonPropertyOrder({"orderNumber", "createdAt", "status", "priority", "clientName", "clientPhone",
+        "clientAddress", "applianceType", "applianceBrand", "applianceModel", "serialNumber",
+        "technician", "estimatedCost", "finalCost", "completedAt"})
+public record OrderExportRow(
+        String orderNumber,
+        LocalDateTime createdAt,
+        RepairOrder.OrderStatus status,
+        RepairOrder.Priority priority,
+        String clientName,
+        String clientPhone,
+        String clientAddress,
+        String applianceType,
+        String applianceBrand,
+        String applianceModel,
+        String serialNumber,
+        String technician,
+        BigDecimal estimatedCost,
+        BigDecimal finalCost,
+        LocalDateTime completedAt) {
+}
@@ -0,0 +1,32 @@
+package io.github.nimv1.repair.dto;
+
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.event.OrderStatusChangedEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сообщение живой ленты заявок.
+ *
+ * @param previousStatus {@code null} для новой заявки
+ */
+public record OrderFeedEvent(
+        Long orderId,
+        RepairOrder.OrderStatus previousStatus,
+        RepairOrder.OrderStatus status,
+        RepairOrder.Priority priority,
+        Long technicianId,
+        LocalDateTime occurredAt) {
+
+    public static OrderFeedEvent of(OrderStatusChangedEvent event) {
+        return new OrderFeedEvent(event.orderId(), event.previousStatus(), event.newStatus(), event.priority(),
+                event.technicianId(), event.occurredAt());
+    }
+
+    /**
+     * Имя SSE-события: {@code created} для новой заявки, {@code status} для смены статуса.
+     */
+    public String type() {
+        return previousStatus == null ? "created" : "status";
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.nimv1.repair.dto;
+
+import io.github.nimv1.repair.entity.RepairOrder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * История заявки по журналу order_events.
+ *
+ * @param secondsInStatus сколько секунд заявка провела в каждом статусе;
+ *                        для текущего незавершённого статуса — по настоящий момент
+ */
+public record OrderHistory(
+        List<Entry> events,
+        Map<RepairOrder.OrderStatus, Long> secondsInStatus) {
+
+    /**
+     * @param previousStatus {@code null} — заявка создана
+     * @param actor          пользователь, выполнивший переход; {@code null} — система
+     */
+    public record Entry(
+            RepairOrder.OrderStatus previousStatus,
+            RepairOrder.OrderStatus status,
+            String actor,
+            Long technicianId,
+            LocalDateTime occurredAt) {
+    }
+}
@@ -0,0 +1,38 @@
+package io.github.nimv1.repair.dto;
+
+import io.github.nimv1.repair.entity.RepairOrder;
+
+import java.math.BigDecimal;
+
+/**
+ * Строка импорта заявки от партнёрского колл-центра (CSV с заголовком или элемент JSON-массива).
+ */
+public record OrderImportRow(
+        String clientName,
+        String clientPhone,
+        String clientEmail,
+        String clientAddress,
+        String applianceType,
+        String applianceBrand,
+        String applianceModel,
+        String serialNumber,
+        String problemDescription,
+        RepairOrder.Priority priority,
+        BigDecimal estimatedCost) {
+
+    public RepairOrder toOrder() {
+        return RepairOrder.builder()
+                .clientName(clientName)
+                .clientPhone(clientPhone)
+                .clientEmail(clientEmail)
+                .clientAddress(clientAddress)
+                .applianceType(applianceType)
+                .applianceBrand(applianceBrand)
+                .applianceModel(applianceModel)
+                .serialNumber(serialNumber)
+                .problemDescription(problemDescription)
+                .priority(priority)
+                .estimatedCost(estimatedCost)
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+package io.github.nimv1.repair.dto;
+
+import io.github.nimv1.repair.entity.RepairOrder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Поля заявки, из которых считается её вклад в сводки KPI.
+ */
+public record OrderKpiFacts(
+        Long orderId,
+        RepairOrder.OrderStatus status,
+        Long technicianId,
+        String applianceType,
+        String applianceBrand,
+        LocalDateTime createdAt,
+        LocalDateTime assignedAt,
+        LocalDateTime startedAt,
+        LocalDateTime completedAt,
+        BigDecimal estimatedCost,
+        BigDecimal finalCost) {
+}
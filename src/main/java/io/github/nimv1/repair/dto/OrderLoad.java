@@ -0,0 +1,18 @@
+package io.github.nimv1.repair.dto;
+
+import io.github.nimv1.repair.entity.RepairOrder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Вклад открытой заявки в загрузку техника.
+ *
+ * @param scheduledAt запланированный визит или {@code null}
+ */
+public record OrderLoad(
+        Long orderId,
+        Long technicianId,
+        RepairOrder.OrderStatus status,
+        RepairOrder.Priority priority,
+        LocalDateTime scheduledAt) {
+}
@@ -0,0 +1,35 @@
+package io.github.nimv1.repair.dto;
+
+import io.github.nimv1.repair.entity.RepairOrder;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Фильтры поиска заявок; пустые поля не учитываются, заданные объединяются через И.
+ *
+ * @param text         слова из имени клиента, адреса, бренда, модели или описания проблемы
+ * @param phone        телефон клиента целиком или его окончание, в любом формате
+ * @param serialNumber серийный номер целиком или его начало, разделители игнорируются
+ * @param createdFrom  дата создания, от (включительно)
+ * @param createdTo    дата создания, до (включительно)
+ */
+public record OrderSearchCriteria(
+        String text,
+        String phone,
+        String serialNumber,
+        RepairOrder.OrderStatus status,
+        RepairOrder.Priority priority,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo,
+        Long technicianId) {
+
+    public boolean isEmpty() {
+        return isBlank(text) && isBlank(phone) && isBlank(serialNumber) && status == null && priority == null
+                && createdFrom == null && createdTo == null && technicianId == null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.nimv1.repair.dto;
+
+import io.github.nimv1.repair.entity.RepairOrder;
+
+import java.util.Map;
+
+/**
+ * Сводная статистика по заявкам.
+ *
+ * @param byStatus            количество заявок по статусам
+ * @param byPriority          количество заявок по приоритетам
+ * @param activeByTechnician  количество активных заявок по id техника
+ * @param total               общее количество заявок
+ */
+public record OrderStatistics(
+        Map<RepairOrder.OrderStatus, Long> byStatus,
+        Map<RepairOrder.Priority, Long> byPriority,
+        Map<Long, Long> activeByTechnician,
+        long total) {
+}
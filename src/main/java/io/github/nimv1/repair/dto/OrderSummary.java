@@ -0,0 +1,22 @@
+package io.github.nimv1.repair.dto;
+
+import io.github.nimv1.repair.entity.RepairOrder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка списка заявок: только колонки, которые показываются в таблицах
+ * (список заявок, дашборд). Заполняется конструктором в JPQL, поэтому
+ * не попадает в контекст персистентности и не тянет длинные текстовые поля.
+ */
+public record OrderSummary(
+        Long id,
+        String orderNumber,
+        String clientName,
+        String clientPhone,
+        String clientAddress,
+        String applianceType,
+        RepairOrder.OrderStatus status,
+        RepairOrder.Priority priority,
+        LocalDateTime createdAt) {
+}
@@ -0,0 +1,31 @@
+package io.github.nimv1.repair.dto;
+
+import io.github.nimv1.repair.entity.RepairOrder;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Снимок загрузки техника.
+ *
+ * @param score       взвешенная по приоритетам сумма открытых заявок; меньше — свободнее
+ * @param byStatus    открытые заявки по статусам
+ * @param byPriority  открытые заявки по приоритетам
+ * @param visitsByDay запланированные визиты по дням
+ */
+public record TechnicianWorkload(
+        Long technicianId,
+        int score,
+        Map<RepairOrder.OrderStatus, Integer> byStatus,
+        Map<RepairOrder.Priority, Integer> byPriority,
+        SortedMap<LocalDate, Integer> visitsByDay) {
+
+    public int activeOrders() {
+        return byStatus.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public int visitsOn(LocalDate day) {
+        return visitsByDay.getOrDefault(day, 0);
+    }
+}
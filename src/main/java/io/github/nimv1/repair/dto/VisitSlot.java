@@ -0,0 +1,15 @@
+package io.github.nimv1.repair.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Окно визита техника: занятое заявкой или свободное.
+ *
+ * @param orderId заявка, занимающая окно, или {@code null} для свободного окна
+ */
+public record VisitSlot(
+        Long technicianId,
+        Long orderId,
+        LocalDateTime start,
+        LocalDateTime end) {
+}
@@ -0,0 +1,32 @@
+package io.github.nimv1.repair.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Отметка свёртки KPI: журнал {@code order_events} учтён в сводках до {@code watermark}.
+ * Единственная строка (id = 1) блокируется на время свёртки, чтобы на нескольких
+ * экземплярах приложения сводки не дополнялись одновременно.
+ */
+@Entity
+@Table(name = "kpi_rollup_state")
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class KpiRollupState {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    // null — сводки ещё не построены, нужна полная перестройка
+    private LocalDateTime watermark;
+}
@@ -0,0 +1,58 @@
+package io.github.nimv1.repair.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись журнала заявки: переход статуса, кто и когда его выполнил.
+ * Журнал только дополняется (append-only); на PostgreSQL таблица секционирована
+ * по месяцам {@code occurred_at} (миграция V8, {@code OrderEventPartitions}).
+ */
+@Entity
+@Immutable
+@Table(name = "order_events", indexes = {
+        @Index(name = "idx_order_events_order", columnList = "order_id, occurred_at"),
+        @Index(name = "idx_order_events_occurred_at", columnList = "occurred_at")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Builder
+public class OrderEvent {
+
+    // Последовательность с шагом 50: записи журнала уходят в БД пакетными INSERT
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_events_seq")
+    @SequenceGenerator(name = "order_events_seq", sequenceName = "order_events_seq", allocationSize = 50)
+    private Long id;
+
+    // Без внешнего ключа на заявку: запись журнала не должна блокировать и проверять строку заявки
+    @Column(nullable = false)
+    private Long orderId;
+
+    // null — заявка создана
+    @Enumerated(EnumType.STRING)
+    private RepairOrder.OrderStatus previousStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RepairOrder.OrderStatus newStatus;
+
+    @Enumerated(EnumType.STRING)
+    private RepairOrder.Priority priority;
+
+    private Long technicianId;
+
+    // Имя пользователя, выполнившего переход; null — система (расписание, импорт без входа)
+    private String actor;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,67 @@
+package io.github.nimv1.repair.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Вклад заявки в сводку {@link OrderKpiDaily}, каким он был при последней свёртке.
+ * При изменении заявки старый вклад вычитается из сводки, новый добавляется,
+ * поэтому повторная свёртка той же заявки сводку не искажает.
+ */
+@Entity
+@Table(name = "order_kpi_contributions")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderKpiContribution {
+
+    @Id
+    private Long orderId;
+
+    @Embedded
+    private OrderKpiDaily.Key key;
+
+    private boolean completed;
+
+    private boolean cancelled;
+
+    // Секунды от создания заявки; null — этап ещё не пройден
+    private Long assignSeconds;
+
+    private Long startSeconds;
+
+    private Long completeSeconds;
+
+    private BigDecimal estimatedCost;
+
+    private BigDecimal finalCost;
+
+    public OrderKpiContribution(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    /**
+     * Пересчитывает вклад по текущему состоянию заявки.
+     */
+    public void update(RepairOrder.OrderStatus status, Long technicianId, String applianceType, String applianceBrand,
+                       LocalDateTime createdAt, LocalDateTime assignedAt, LocalDateTime startedAt,
+                       LocalDateTime completedAt, BigDecimal estimatedCost, BigDecimal finalCost) {
+        this.key = new OrderKpiDaily.Key(createdAt.toLocalDate(), technicianId, applianceType, applianceBrand);
+        this.completed = status == RepairOrder.OrderStatus.COMPLETED;
+        this.cancelled = status == RepairOrder.OrderStatus.CANCELLED;
+        this.assignSeconds = secondsBetween(createdAt, assignedAt);
+        this.startSeconds = secondsBetween(createdAt, startedAt);
+        this.completeSeconds = completed ? secondsBetween(createdAt, completedAt) : null;
+        this.estimatedCost = estimatedCost;
+        this.finalCost = finalCost;
+    }
+
+    private static Long secondsBetween(LocalDateTime from, LocalDateTime to) {
+        return to == null ? null : Math.max(0, Duration.between(from, to).toSeconds());
+    }
+}
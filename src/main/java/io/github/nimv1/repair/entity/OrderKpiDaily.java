@@ -0,0 +1,137 @@
+package io.github.nimv1.repair.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Сводка KPI: заявки, созданные за день, в разрезе техника, типа и бренда техники.
+ * Хранит суммы и счётчики, средние считаются при построении отчёта.
+ * Поддерживается {@code KpiRollupService}.
+ */
+@Entity
+@Table(name = "order_kpi_daily")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderKpiDaily {
+
+    /** Техник не назначен. */
+    public static final long NO_TECHNICIAN = 0L;
+
+    /** Бренд не указан. */
+    public static final String NO_BRAND = "";
+
+    @EmbeddedId
+    private Key key;
+
+    private long ordersCreated;
+
+    private long ordersCompleted;
+
+    private long ordersCancelled;
+
+    private long ordersAssigned;
+
+    private long assignSeconds;
+
+    private long ordersStarted;
+
+    private long startSeconds;
+
+    private long completeSeconds;
+
+    @Column(nullable = false)
+    private BigDecimal estimatedCost = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private BigDecimal finalCost = BigDecimal.ZERO;
+
+    public OrderKpiDaily(Key key) {
+        this.key = key;
+    }
+
+    /**
+     * Добавляет ({@code sign = 1}) или вычитает ({@code sign = -1}) вклад заявки.
+     * Выручка учитывается только по выполненным заявкам: предварительная и итоговая
+     * стоимость сравниваются на одном наборе заявок.
+     */
+    public void apply(OrderKpiContribution contribution, int sign) {
+        ordersCreated += sign;
+        if (contribution.isCancelled()) {
+            ordersCancelled += sign;
+        }
+        if (contribution.getAssignSeconds() != null) {
+            ordersAssigned += sign;
+            assignSeconds += sign * contribution.getAssignSeconds();
+        }
+        if (contribution.getStartSeconds() != null) {
+            ordersStarted += sign;
+            startSeconds += sign * contribution.getStartSeconds();
+        }
+        if (contribution.isCompleted()) {
+            ordersCompleted += sign;
+            if (contribution.getCompleteSeconds() != null) {
+                completeSeconds += sign * contribution.getCompleteSeconds();
+            }
+            estimatedCost = add(estimatedCost, contribution.getEstimatedCost(), sign);
+            finalCost = add(finalCost, contribution.getFinalCost(), sign);
+        }
+    }
+
+    /** Ни одной заявки не осталось — строку можно удалить. */
+    public boolean isEmpty() {
+        return ordersCreated == 0;
+    }
+
+    private static BigDecimal add(BigDecimal total, BigDecimal value, int sign) {
+        return value == null ? total : total.add(sign > 0 ? value : value.negate());
+    }
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    public static class Key implements Serializable {
+
+        @Column(name = "order_day", nullable = false)
+        private LocalDate day;
+
+        @Column(nullable = false)
+        private long technicianId;
+
+        @Column(nullable = false)
+        private String applianceType;
+
+        @Column(nullable = false)
+        private String applianceBrand;
+
+        public Key(LocalDate day, Long technicianId, String applianceType, String applianceBrand) {
+            this.day = day;
+            this.technicianId = technicianId == null ? NO_TECHNICIAN : technicianId;
+            this.applianceType = applianceType;
+            this.applianceBrand = applianceBrand == null || applianceBrand.isBlank() ? NO_BRAND : applianceBrand.trim();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return technicianId == other.technicianId && day.equals(other.day)
+                    && applianceType.equals(other.applianceType) && applianceBrand.equals(other.applianceBrand);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(day, technicianId, applianceType, applianceBrand);
+        }
+    }
+}
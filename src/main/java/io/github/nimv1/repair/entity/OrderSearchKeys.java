@@ -0,0 +1,46 @@
+package io.github.nimv1.repair.entity;
+
+import java.util.Locale;
+
+/**
+ * Нормализация телефона и серийного номера для индексируемого поиска.
+ * Одни и те же правила применяются при записи заявки и к строке запроса.
+ */
+public final class OrderSearchKeys {
+
+    private static final int LOCAL_PHONE_LENGTH = 10;
+
+    private OrderSearchKeys() {
+    }
+
+    /**
+     * Цифры телефона в обратном порядке, без кода страны (+7/8 перед 10-значным номером).
+     * Поиск по окончанию номера превращается в поиск по префиксу ключа, который
+     * обслуживается обычным B-tree индексом.
+     *
+     * @return ключ или {@code null}, если в строке нет цифр
+     */
+    public static String phoneKey(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        String digits = phone.replaceAll("\\D", "");
+        if (digits.length() == LOCAL_PHONE_LENGTH + 1 && (digits.charAt(0) == '7' || digits.charAt(0) == '8')) {
+            digits = digits.substring(1);
+        }
+        return digits.isEmpty() ? null : new StringBuilder(digits).reverse().toString();
+    }
+
+    /**
+     * Серийный номер без пробелов, дефисов и прочих разделителей, в верхнем регистре.
+     *
+     * @return ключ или {@code null}, если в строке нет букв и цифр
+     */
+    public static String serialKey(String serialNumber) {
+        if (serialNumber == null) {
+            return null;
+        }
+        String key = serialNumber.replaceAll("[^\\p{L}\\p{N}]", "").toUpperCase(Locale.ROOT);
+        return key.isEmpty() ? null : key;
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.nimv1.repair.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Уведомление в outbox: записывается в транзакции перехода заявки и отправляется
+ * позже {@code NotificationDispatcher}, поэтому задержка SMS/email-шлюза не попадает в запрос,
+ * а откат перехода не оставляет уведомления.
+ */
+@Entity
+@Table(name = "notification_outbox", indexes = {
+        @Index(name = "idx_notification_outbox_due", columnList = "status, next_attempt_at")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OutboxNotification {
+
+    // Последовательность с шагом 50: уведомления массовых операций уходят пакетными INSERT
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_outbox_seq")
+    @SequenceGenerator(name = "notification_outbox_seq", sequenceName = "notification_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Channel channel;
+
+    // Телефон для SMS, адрес для email
+    @Column(nullable = false)
+    private String recipient;
+
+    // Тема письма; для SMS не используется
+    private String subject;
+
+    @Column(nullable = false, length = 2000)
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    public OutboxNotification(Long orderId, Channel channel, String recipient, String subject, String body) {
+        this.orderId = orderId;
+        this.channel = channel;
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.status = Status.PENDING;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = createdAt;
+    }
+
+    public void markSent(LocalDateTime now) {
+        status = Status.SENT;
+        attempts++;
+        sentAt = now;
+        lastError = null;
+    }
+
+    /**
+     * Неудачная попытка: следующая — в {@code retryAt}, а если {@code retryAt == null} — попыток больше не будет.
+     */
+    public void markFailed(String error, LocalDateTime retryAt) {
+        attempts++;
+        lastError = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+        if (retryAt == null) {
+            status = Status.FAILED;
+        } else {
+            nextAttemptAt = retryAt;
+        }
+    }
+
+    public enum Channel {
+        SMS,
+        EMAIL
+    }
+
+    public enum Status {
+        PENDING,
+        SENT,
+        FAILED
+    }
+}
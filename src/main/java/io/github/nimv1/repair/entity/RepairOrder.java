@@ -8,22 +8,41 @@ import lombok.Builder;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Заявка на ремонт бытовой техники.
  */
 @Entity
-@Table(name = "repair_orders")
+@Table(name = "repair_orders", indexes = {
+        @Index(name = "idx_repair_orders_status_created", columnList = "status, created_at"),
+        @Index(name = "idx_repair_orders_technician_status", columnList = "technician_id, status"),
+        @Index(name = "idx_repair_orders_manager", columnList = "manager_id"),
+        @Index(name = "idx_repair_orders_scheduled_at", columnList = "scheduled_at"),
+        @Index(name = "idx_repair_orders_client_phone_created", columnList = "client_phone, created_at"),
+        @Index(name = "idx_repair_orders_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_repair_orders_phone_key", columnList = "client_phone_key"),
+        @Index(name = "idx_repair_orders_serial_key", columnList = "serial_number_key")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class RepairOrder {
 
+    // Последовательность с шагом 50: id выдаются пулом, что позволяет пакетную вставку
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "repair_orders_seq")
+    @SequenceGenerator(name = "repair_orders_seq", sequenceName = "repair_orders_seq", allocationSize = 50)
     private Long id;
 
+    // Версия для оптимистичной блокировки
+    @Version
+    private Long version;
+
     @Column(nullable = false, unique = true)
     private String orderNumber;
 
@@ -48,6 +67,13 @@ public class RepairOrder {
 
     private String serialNumber;    // Серийный номер
 
+    // Нормализованные ключи поиска (см. OrderSearchKeys), пересчитываются при каждой записи
+    @Column(length = 32)
+    private String clientPhoneKey;
+
+    @Column(length = 100)
+    private String serialNumberKey;
+
     // Описание проблемы
     @Column(length = 2000)
     private String problemDescription;
@@ -57,6 +83,10 @@ public class RepairOrder {
     @Column(nullable = false)
     private OrderStatus status;
 
+    // Статус до последнего перехода
+    @Enumerated(EnumType.STRING)
+    private OrderStatus previousStatus;
+
     // Приоритет
     @Enumerated(EnumType.STRING)
     private Priority priority;
@@ -103,6 +133,13 @@ public class RepairOrder {
         if (priority == null) {
             priority = Priority.NORMAL;
         }
+        updateSearchKeys();
+    }
+
+    @PreUpdate
+    protected void updateSearchKeys() {
+        clientPhoneKey = OrderSearchKeys.phoneKey(clientPhone);
+        serialNumberKey = OrderSearchKeys.serialKey(serialNumber);
     }
 
     public enum OrderStatus {
@@ -113,7 +150,41 @@ public class RepairOrder {
         IN_PROGRESS,    // В работе
         WAITING_PARTS,  // Ожидание запчастей
         COMPLETED,      // Завершена
-        CANCELLED       // Отменена
+        CANCELLED;      // Отменена
+
+        private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+        static {
+            TRANSITIONS.put(NEW, EnumSet.of(ACCEPTED, CANCELLED));
+            TRANSITIONS.put(ACCEPTED, EnumSet.of(ASSIGNED, CANCELLED));
+            TRANSITIONS.put(ASSIGNED, EnumSet.of(ASSIGNED, SCHEDULED, IN_PROGRESS, CANCELLED));
+            TRANSITIONS.put(SCHEDULED, EnumSet.of(ASSIGNED, SCHEDULED, IN_PROGRESS, CANCELLED));
+            TRANSITIONS.put(IN_PROGRESS, EnumSet.of(WAITING_PARTS, COMPLETED, CANCELLED));
+            TRANSITIONS.put(WAITING_PARTS, EnumSet.of(IN_PROGRESS, CANCELLED));
+            TRANSITIONS.put(COMPLETED, EnumSet.noneOf(OrderStatus.class));
+            TRANSITIONS.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+        }
+
+        /**
+         * Допустим ли переход из текущего статуса в указанный.
+         * Переход в тот же статус разрешён только для переназначения техника и переноса визита.
+         */
+        public boolean canTransitionTo(OrderStatus target) {
+            return TRANSITIONS.get(this).contains(target);
+        }
+
+        /**
+         * Статусы, из которых допустим переход в указанный.
+         */
+        public static Set<OrderStatus> sourcesOf(OrderStatus target) {
+            Set<OrderStatus> sources = EnumSet.noneOf(OrderStatus.class);
+            TRANSITIONS.forEach((source, targets) -> {
+                if (targets.contains(target)) {
+                    sources.add(source);
+                }
+            });
+            return sources;
+        }
     }
 
     public enum Priority {
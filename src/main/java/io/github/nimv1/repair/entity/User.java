@@ -13,7 +13,7 @@ import java.util.Set;
  * Сущность пользователя системы.
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_role", columnList = "role"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
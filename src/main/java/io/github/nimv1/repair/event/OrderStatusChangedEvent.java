@@ -0,0 +1,50 @@
+package io.github.nimv1.repair.event;
+
+import io.github.nimv1.repair.entity.RepairOrder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие смены статуса заявки.
+ * Для только что созданной заявки {@code previousStatus} равен {@code null}.
+ * Снимок {@link Timeline} позволяет считать длительность этапов без обращения к БД.
+ */
+public record OrderStatusChangedEvent(
+        Long orderId,
+        RepairOrder.OrderStatus previousStatus,
+        RepairOrder.OrderStatus newStatus,
+        LocalDateTime occurredAt,
+        Long technicianId,
+        RepairOrder.Priority priority,
+        Timeline timeline) {
+
+    public static OrderStatusChangedEvent created(RepairOrder order) {
+        return of(order, null);
+    }
+
+    public static OrderStatusChangedEvent changed(RepairOrder order, RepairOrder.OrderStatus previousStatus) {
+        return of(order, previousStatus);
+    }
+
+    private static OrderStatusChangedEvent of(RepairOrder order, RepairOrder.OrderStatus previousStatus) {
+        Long technicianId = order.getTechnician() != null ? order.getTechnician().getId() : null;
+        return new OrderStatusChangedEvent(order.getId(), previousStatus, order.getStatus(), LocalDateTime.now(),
+                technicianId, order.getPriority(), Timeline.of(order));
+    }
+
+    /**
+     * Даты этапов заявки на момент события.
+     */
+    public record Timeline(
+            LocalDateTime createdAt,
+            LocalDateTime assignedAt,
+            LocalDateTime scheduledAt,
+            LocalDateTime startedAt,
+            LocalDateTime completedAt) {
+
+        public static Timeline of(RepairOrder order) {
+            return new Timeline(order.getCreatedAt(), order.getAssignedAt(), order.getScheduledAt(),
+                    order.getStartedAt(), order.getCompletedAt());
+        }
+    }
+}
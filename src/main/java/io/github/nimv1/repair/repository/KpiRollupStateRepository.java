@@ -0,0 +1,19 @@
+package io.github.nimv1.repair.repository;
+
+import io.github.nimv1.repair.entity.KpiRollupState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface KpiRollupStateRepository extends JpaRepository<KpiRollupState, Integer> {
+
+    // SELECT ... FOR UPDATE: свёртку выполняет один экземпляр, остальные ждут и видят новую отметку
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM KpiRollupState s WHERE s.id = " + KpiRollupState.ID)
+    Optional<KpiRollupState> lock();
+}
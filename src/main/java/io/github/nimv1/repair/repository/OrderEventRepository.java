@@ -0,0 +1,21 @@
+package io.github.nimv1.repair.repository;
+
+import io.github.nimv1.repair.entity.OrderEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
+
+    // Индекс idx_order_events_order (order_id, occurred_at)
+    List<OrderEvent> findByOrderIdOrderByOccurredAtAscIdAsc(Long orderId);
+
+    // Индекс idx_order_events_occurred_at; на PostgreSQL читаются только последние секции
+    @Query("SELECT DISTINCT e.orderId FROM OrderEvent e WHERE e.occurredAt > :since")
+    List<Long> findOrderIdsChangedSince(@Param("since") LocalDateTime since);
+}
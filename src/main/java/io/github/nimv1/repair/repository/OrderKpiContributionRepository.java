@@ -0,0 +1,15 @@
+package io.github.nimv1.repair.repository;
+
+import io.github.nimv1.repair.entity.OrderKpiContribution;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderKpiContributionRepository extends JpaRepository<OrderKpiContribution, Long> {
+
+    @Modifying
+    @Query("DELETE FROM OrderKpiContribution c")
+    int deleteAllInBulk();
+}
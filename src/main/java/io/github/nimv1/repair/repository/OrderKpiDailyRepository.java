@@ -0,0 +1,27 @@
+package io.github.nimv1.repair.repository;
+
+import io.github.nimv1.repair.entity.OrderKpiDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderKpiDailyRepository extends JpaRepository<OrderKpiDaily, OrderKpiDaily.Key> {
+
+    // Число строк зависит от периода и числа техников/типов, а не от числа заявок
+    @Query("SELECT k FROM OrderKpiDaily k WHERE k.key.day BETWEEN :from AND :to")
+    List<OrderKpiDaily> findByDayBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT k FROM OrderKpiDaily k WHERE k.key.day IN :days")
+    List<OrderKpiDaily> findByDayIn(@Param("days") Collection<LocalDate> days);
+
+    @Modifying
+    @Query("DELETE FROM OrderKpiDaily k")
+    int deleteAllInBulk();
+}
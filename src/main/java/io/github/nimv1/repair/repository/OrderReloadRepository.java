@@ -0,0 +1,17 @@
+package io.github.nimv1.repair.repository;
+
+import io.github.nimv1.repair.entity.RepairOrder;
+
+import java.util.Optional;
+
+/**
+ * Перечитывание заявки после условного UPDATE (фрагмент {@link RepairOrderRepository}).
+ */
+public interface OrderReloadRepository {
+
+    /**
+     * Заявка в состоянии из БД одним SELECT по первичному ключу. Если заявка уже есть
+     * в контексте персистентности, обновляется только она; остальные сущности не затрагиваются.
+     */
+    Optional<RepairOrder> reload(Long id);
+}
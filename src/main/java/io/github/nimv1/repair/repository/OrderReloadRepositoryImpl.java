@@ -0,0 +1,32 @@
+package io.github.nimv1.repair.repository;
+
+import io.github.nimv1.repair.entity.RepairOrder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
+
+import java.util.Optional;
+
+class OrderReloadRepositoryImpl implements OrderReloadRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<RepairOrder> reload(Long id) {
+        // getReference не обращается к БД: по прокси видно, загружена ли заявка в контекст
+        RepairOrder reference = entityManager.getReference(RepairOrder.class, id);
+        if (Hibernate.isInitialized(reference)) {
+            try {
+                entityManager.refresh(reference);
+                return Optional.of(reference);
+            } catch (EntityNotFoundException e) {
+                entityManager.detach(reference);
+                return Optional.empty();
+            }
+        }
+        entityManager.detach(reference);
+        return Optional.ofNullable(entityManager.find(RepairOrder.class, id));
+    }
+}
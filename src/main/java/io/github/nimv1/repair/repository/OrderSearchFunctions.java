@@ -0,0 +1,34 @@
+package io.github.nimv1.repair.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * HQL-функция {@code order_text_matches(clientName, clientAddress, brand, model, description, query)}.
+ * На PostgreSQL — полнотекстовый поиск, совпадающий с выражением индекса idx_repair_orders_fts
+ * (миграция V7); на остальных БД (H2 для разработки) — поиск подстроки без учёта регистра.
+ * Регистрируется через META-INF/services.
+ */
+public class OrderSearchFunctions implements FunctionContributor {
+
+    public static final String TEXT_MATCHES = "order_text_matches";
+
+    private static final String POSTGRES_PATTERN = "(to_tsvector('russian', coalesce(?1, '') || ' ' || "
+            + "coalesce(?2, '') || ' ' || coalesce(?3, '') || ' ' || coalesce(?4, '') || ' ' || coalesce(?5, ''))"
+            + " @@ plainto_tsquery('russian', ?6))";
+
+    private static final String GENERIC_PATTERN = "(lower(concat(coalesce(?1, ''), ' ', coalesce(?2, ''), ' ', "
+            + "coalesce(?3, ''), ' ', coalesce(?4, ''), ' ', coalesce(?5, ''))) like concat('%', lower(?6), '%'))";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicType<Boolean> booleanType = functionContributions.getTypeConfiguration()
+                .getBasicTypeRegistry().resolve(StandardBasicTypes.BOOLEAN);
+        String pattern = functionContributions.getDialect() instanceof PostgreSQLDialect
+                ? POSTGRES_PATTERN : GENERIC_PATTERN;
+        functionContributions.getFunctionRegistry().registerPattern(TEXT_MATCHES, pattern, booleanType);
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.nimv1.repair.repository;
+
+import io.github.nimv1.repair.dto.OrderExportRow;
+import io.github.nimv1.repair.dto.OrderSearchCriteria;
+import io.github.nimv1.repair.dto.OrderSummary;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Поиск и выгрузка заявок по набору фильтров (фрагмент {@link RepairOrderRepository}).
+ */
+public interface OrderSearchRepository {
+
+    /**
+     * Заявки, подходящие под все заданные фильтры, новые сверху.
+     *
+     * @param offset сколько первых результатов пропустить
+     * @param limit  максимальное число результатов
+     */
+    List<OrderSummary> search(OrderSearchCriteria criteria, int offset, int limit);
+
+    /**
+     * Потоковое чтение заявок для выгрузки (по возрастанию даты создания).
+     * Строки читаются с сервера порциями по {@code fetchSize} и не попадают
+     * в контекст персистентности; поток нужно закрыть, транзакция должна быть открыта.
+     */
+    Stream<OrderExportRow> streamForExport(OrderSearchCriteria criteria, int fetchSize);
+}
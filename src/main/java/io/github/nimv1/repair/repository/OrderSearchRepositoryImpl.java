@@ -0,0 +1,129 @@
+package io.github.nimv1.repair.repository;
+
+import io.github.nimv1.repair.dto.OrderExportRow;
+import io.github.nimv1.repair.dto.OrderSearchCriteria;
+import io.github.nimv1.repair.dto.OrderSummary;
+import io.github.nimv1.repair.entity.OrderSearchKeys;
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.ParameterExpression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Реализация поиска на Criteria API. Каждый фильтр опирается на индекс:
+ * телефон и серийный номер — на нормализованные ключи (LIKE по префиксу),
+ * текст — на полнотекстовый индекс PostgreSQL, остальные — на индексы по статусу,
+ * технику и дате создания.
+ */
+class OrderSearchRepositoryImpl implements OrderSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OrderSummary> search(OrderSearchCriteria criteria, int offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderSummary> query = cb.createQuery(OrderSummary.class);
+        Root<RepairOrder> r = query.from(RepairOrder.class);
+        Map<String, Object> parameters = new LinkedHashMap<>();
+
+        query.select(cb.construct(OrderSummary.class,
+                        r.get("id"), r.get("orderNumber"), r.get("clientName"), r.get("clientPhone"),
+                        r.get("clientAddress"), r.get("applianceType"), r.get("status"), r.get("priority"),
+                        r.get("createdAt")))
+                .where(predicates(cb, r, criteria, parameters))
+                .orderBy(cb.desc(r.get("createdAt")), cb.desc(r.get("id")));
+
+        TypedQuery<OrderSummary> typedQuery = entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(limit);
+        parameters.forEach(typedQuery::setParameter);
+        return typedQuery.getResultList();
+    }
+
+    @Override
+    public Stream<OrderExportRow> streamForExport(OrderSearchCriteria criteria, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderExportRow> query = cb.createQuery(OrderExportRow.class);
+        Root<RepairOrder> r = query.from(RepairOrder.class);
+        Join<RepairOrder, User> technician = r.join("technician", JoinType.LEFT);
+        Map<String, Object> parameters = new LinkedHashMap<>();
+
+        query.select(cb.construct(OrderExportRow.class,
+                        r.get("orderNumber"), r.get("createdAt"), r.get("status"), r.get("priority"),
+                        r.get("clientName"), r.get("clientPhone"), r.get("clientAddress"),
+                        r.get("applianceType"), r.get("applianceBrand"), r.get("applianceModel"),
+                        r.get("serialNumber"), technician.get("fullName"), r.get("estimatedCost"),
+                        r.get("finalCost"), r.get("completedAt")))
+                .where(predicates(cb, r, criteria, parameters))
+                .orderBy(cb.asc(r.get("createdAt")), cb.asc(r.get("id")));
+
+        TypedQuery<OrderExportRow> typedQuery = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        parameters.forEach(typedQuery::setParameter);
+        return typedQuery.getResultStream();
+    }
+
+    private static Predicate[] predicates(CriteriaBuilder cb, Root<RepairOrder> r,
+                                          OrderSearchCriteria criteria, Map<String, Object> parameters) {
+        List<Predicate> predicates = new ArrayList<>();
+
+        String text = trimToNull(criteria.text());
+        if (text != null) {
+            predicates.add(cb.isTrue(cb.function(OrderSearchFunctions.TEXT_MATCHES, Boolean.class,
+                    r.get("clientName"), r.get("clientAddress"), r.get("applianceBrand"),
+                    r.get("applianceModel"), r.get("problemDescription"),
+                    parameter(cb, parameters, "text", text))));
+        }
+        String phoneKey = OrderSearchKeys.phoneKey(criteria.phone());
+        if (phoneKey != null) {
+            predicates.add(cb.like(r.get("clientPhoneKey"), parameter(cb, parameters, "phoneKey", phoneKey + "%")));
+        }
+        String serialKey = OrderSearchKeys.serialKey(criteria.serialNumber());
+        if (serialKey != null) {
+            predicates.add(cb.like(r.get("serialNumberKey"), parameter(cb, parameters, "serialKey", serialKey + "%")));
+        }
+        if (criteria.status() != null) {
+            predicates.add(cb.equal(r.get("status"), criteria.status()));
+        }
+        if (criteria.priority() != null) {
+            predicates.add(cb.equal(r.get("priority"), criteria.priority()));
+        }
+        if (criteria.technicianId() != null) {
+            predicates.add(cb.equal(r.get("technician").get("id"), criteria.technicianId()));
+        }
+        if (criteria.createdFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(r.get("createdAt"), criteria.createdFrom().atStartOfDay()));
+        }
+        if (criteria.createdTo() != null) {
+            predicates.add(cb.lessThan(r.get("createdAt"), criteria.createdTo().plusDays(1).atStartOfDay()));
+        }
+        return predicates.toArray(Predicate[]::new);
+    }
+
+    private static ParameterExpression<String> parameter(
+            CriteriaBuilder cb, Map<String, Object> parameters, String name, String value) {
+        parameters.put(name, value);
+        return cb.parameter(String.class, name);
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -0,0 +1,38 @@
+package io.github.nimv1.repair.repository;
+
+import io.github.nimv1.repair.entity.OutboxNotification;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxNotificationRepository extends JpaRepository<OutboxNotification, Long> {
+
+    /**
+     * Очередная порция к отправке: SELECT ... FOR UPDATE SKIP LOCKED (тайм-аут блокировки -2).
+     * Строки, которые уже отправляет другой экземпляр приложения, пропускаются, а не ждут.
+     * На H2 Hibernate строит обычный FOR UPDATE — там достаточно одного экземпляра.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT n FROM OutboxNotification n " +
+           "WHERE n.status = io.github.nimv1.repair.entity.OutboxNotification$Status.PENDING " +
+           "AND n.nextAttemptAt <= :now ORDER BY n.nextAttemptAt")
+    List<OutboxNotification> lockDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM OutboxNotification n " +
+           "WHERE n.status = io.github.nimv1.repair.entity.OutboxNotification$Status.SENT AND n.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
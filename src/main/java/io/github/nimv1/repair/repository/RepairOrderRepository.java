@@ -1,15 +1,24 @@
 package io.github.nimv1.repair.repository;
 
+import io.github.nimv1.repair.dto.GroupCount;
+import io.github.nimv1.repair.dto.OrderKpiFacts;
+import io.github.nimv1.repair.dto.OrderLoad;
+import io.github.nimv1.repair.dto.OrderSummary;
 import io.github.nimv1.repair.entity.RepairOrder;
 import io.github.nimv1.repair.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,10 +26,19 @@ import java.util.Optional;
  * Репозиторий для работы с заявками на ремонт.
  */
 @Repository
-public interface RepairOrderRepository extends JpaRepository<RepairOrder, Long> {
+public interface RepairOrderRepository extends JpaRepository<RepairOrder, Long>, OrderSearchRepository,
+        OrderReloadRepository {
 
     Optional<RepairOrder> findByOrderNumber(String orderNumber);
 
+    // Варианты запросов для страниц: техник и менеджер загружаются тем же SELECT (без N+1)
+    @EntityGraph(attributePaths = {"technician", "manager"})
+    Optional<RepairOrder> findWithUsersById(Long id);
+
+    @EntityGraph(attributePaths = {"technician", "manager"})
+    @Query("SELECT r FROM RepairOrder r WHERE r.status = :status")
+    List<RepairOrder> findWithUsersByStatus(@Param("status") RepairOrder.OrderStatus status);
+
     List<RepairOrder> findByStatus(RepairOrder.OrderStatus status);
 
     List<RepairOrder> findByTechnician(User technician);
@@ -31,6 +49,44 @@ public interface RepairOrderRepository extends JpaRepository<RepairOrder, Long>
 
     Page<RepairOrder> findByManagerId(Long managerId, Pageable pageable);
 
+    // Строки для списков (OrderSummary): только отображаемые колонки, без техника и менеджера
+    // и без длинных текстов; результат не попадает в контекст персистентности.
+
+    String SUMMARY = "SELECT new io.github.nimv1.repair.dto.OrderSummary(r.id, r.orderNumber, r.clientName, " +
+                     "r.clientPhone, r.clientAddress, r.applianceType, r.status, r.priority, r.createdAt) " +
+                     "FROM RepairOrder r ";
+
+    @Query(value = SUMMARY, countQuery = "SELECT COUNT(r) FROM RepairOrder r")
+    Page<OrderSummary> findSummaries(Pageable pageable);
+
+    @Query(SUMMARY + "WHERE r.status = :status ORDER BY r.createdAt DESC, r.id DESC")
+    List<OrderSummary> findSummariesByStatus(@Param("status") RepairOrder.OrderStatus status);
+
+    @Query(SUMMARY + "WHERE r.technician.id = :technicianId AND r.status IN :statuses " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<OrderSummary> findSummariesByTechnicianIdAndStatusIn(
+            @Param("technicianId") Long technicianId,
+            @Param("statuses") List<RepairOrder.OrderStatus> statuses);
+
+    // Keyset-пагинация по (createdAt, id): без OFFSET и без COUNT(*).
+    // Условие записано так, чтобы первая часть давала диапазон по idx_repair_orders_created_id
+    @Query(SUMMARY + "ORDER BY r.createdAt DESC, r.id DESC")
+    Slice<OrderSummary> findLatest(Pageable pageable);
+
+    @Query(SUMMARY +
+           "WHERE r.createdAt <= :createdAt AND (r.createdAt < :createdAt OR r.id < :id) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    Slice<OrderSummary> findOlderThan(@Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    @Query(SUMMARY +
+           "WHERE r.createdAt >= :createdAt AND (r.createdAt > :createdAt OR r.id > :id) " +
+           "ORDER BY r.createdAt ASC, r.id ASC")
+    Slice<OrderSummary> findNewerThan(@Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
     @Query("SELECT r FROM RepairOrder r WHERE r.status IN :statuses")
     List<RepairOrder> findByStatusIn(@Param("statuses") List<RepairOrder.OrderStatus> statuses);
 
@@ -42,6 +98,33 @@ public interface RepairOrderRepository extends JpaRepository<RepairOrder, Long>
     @Query("SELECT COUNT(r) FROM RepairOrder r WHERE r.status = :status")
     long countByStatus(@Param("status") RepairOrder.OrderStatus status);
 
+    @Query("SELECT r.status AS groupKey, COUNT(r) AS total FROM RepairOrder r GROUP BY r.status")
+    List<GroupCount<RepairOrder.OrderStatus>> countGroupedByStatus();
+
+    @Query("SELECT r.priority AS groupKey, COUNT(r) AS total FROM RepairOrder r GROUP BY r.priority")
+    List<GroupCount<RepairOrder.Priority>> countGroupedByPriority();
+
+    @Query("SELECT r.technician.id AS groupKey, COUNT(r) AS total FROM RepairOrder r " +
+           "WHERE r.technician IS NOT NULL AND r.status IN :statuses GROUP BY r.technician.id")
+    List<GroupCount<Long>> countGroupedByTechnician(@Param("statuses") List<RepairOrder.OrderStatus> statuses);
+
+    @Query("SELECT new io.github.nimv1.repair.dto.OrderLoad(r.id, r.technician.id, r.status, r.priority, r.scheduledAt) " +
+           "FROM RepairOrder r WHERE r.technician IS NOT NULL AND r.status IN :statuses")
+    List<OrderLoad> findLoads(@Param("statuses") List<RepairOrder.OrderStatus> statuses);
+
+    @Query("SELECT new io.github.nimv1.repair.dto.OrderLoad(r.id, r.technician.id, r.status, r.priority, r.scheduledAt) " +
+           "FROM RepairOrder r WHERE r.id = :id AND r.technician IS NOT NULL")
+    Optional<OrderLoad> findLoadById(@Param("id") Long id);
+
+    @Query("SELECT new io.github.nimv1.repair.dto.OrderKpiFacts(r.id, r.status, r.technician.id, r.applianceType, " +
+           "r.applianceBrand, r.createdAt, r.assignedAt, r.startedAt, r.completedAt, r.estimatedCost, r.finalCost) " +
+           "FROM RepairOrder r WHERE r.id IN :ids")
+    List<OrderKpiFacts> findKpiFacts(@Param("ids") Collection<Long> ids);
+
+    // Обход всех заявок порциями по первичному ключу (полная перестройка сводок)
+    @Query("SELECT r.id FROM RepairOrder r WHERE r.id > :afterId ORDER BY r.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
     @Query("SELECT COUNT(r) FROM RepairOrder r WHERE r.technician.id = :technicianId AND r.status = :status")
     long countByTechnicianIdAndStatus(
             @Param("technicianId") Long technicianId,
@@ -51,4 +134,79 @@ public interface RepairOrderRepository extends JpaRepository<RepairOrder, Long>
 
     @Query("SELECT r FROM RepairOrder r WHERE r.clientPhone = :phone ORDER BY r.createdAt DESC")
     List<RepairOrder> findByClientPhone(@Param("phone") String phone);
+
+    // Переходы статуса: один условный UPDATE по id, допустимым исходным статусам
+    // (RepairOrder.OrderStatus#sourcesOf) и, если задана, версии, которую видел пользователь.
+    // Прежний статус сохраняется в previous_status. Возвращают число изменённых строк:
+    // 0 — заявки нет, переход недопустим или версия устарела. Контекст персистентности
+    // не очищается: изменённую заявку перечитывает OrderReloadRepository#reload.
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RepairOrder r SET r.previousStatus = r.status, r.status = :newStatus, r.version = r.version + 1 " +
+           "WHERE r.id = :id AND r.status IN :allowedSources " +
+           "AND (:expectedVersion IS NULL OR r.version = :expectedVersion)")
+    int transitionStatus(@Param("id") Long id,
+                         @Param("allowedSources") Collection<RepairOrder.OrderStatus> allowedSources,
+                         @Param("expectedVersion") Long expectedVersion,
+                         @Param("newStatus") RepairOrder.OrderStatus newStatus);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RepairOrder r SET r.previousStatus = r.status, r.status = :newStatus, r.manager = :manager, " +
+           "r.version = r.version + 1 " +
+           "WHERE r.id = :id AND r.status IN :allowedSources " +
+           "AND (:expectedVersion IS NULL OR r.version = :expectedVersion)")
+    int transitionWithManager(@Param("id") Long id,
+                              @Param("allowedSources") Collection<RepairOrder.OrderStatus> allowedSources,
+                              @Param("expectedVersion") Long expectedVersion,
+                              @Param("newStatus") RepairOrder.OrderStatus newStatus,
+                              @Param("manager") User manager);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RepairOrder r SET r.previousStatus = r.status, r.status = :newStatus, r.technician = :technician, " +
+           "r.assignedAt = :assignedAt, r.version = r.version + 1 " +
+           "WHERE r.id = :id AND r.status IN :allowedSources " +
+           "AND (:expectedVersion IS NULL OR r.version = :expectedVersion)")
+    int transitionWithTechnician(@Param("id") Long id,
+                                 @Param("allowedSources") Collection<RepairOrder.OrderStatus> allowedSources,
+                                 @Param("expectedVersion") Long expectedVersion,
+                                 @Param("newStatus") RepairOrder.OrderStatus newStatus,
+                                 @Param("technician") User technician,
+                                 @Param("assignedAt") LocalDateTime assignedAt);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RepairOrder r SET r.previousStatus = r.status, r.status = :newStatus, r.scheduledAt = :scheduledAt, " +
+           "r.version = r.version + 1 " +
+           "WHERE r.id = :id AND r.status IN :allowedSources " +
+           "AND (:expectedVersion IS NULL OR r.version = :expectedVersion)")
+    int transitionWithSchedule(@Param("id") Long id,
+                               @Param("allowedSources") Collection<RepairOrder.OrderStatus> allowedSources,
+                               @Param("expectedVersion") Long expectedVersion,
+                               @Param("newStatus") RepairOrder.OrderStatus newStatus,
+                               @Param("scheduledAt") LocalDateTime scheduledAt);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RepairOrder r SET r.previousStatus = r.status, r.status = :newStatus, r.startedAt = COALESCE(r.startedAt, :startedAt), " +
+           "r.version = r.version + 1 " +
+           "WHERE r.id = :id AND r.status IN :allowedSources " +
+           "AND (:expectedVersion IS NULL OR r.version = :expectedVersion)")
+    int transitionWithStart(@Param("id") Long id,
+                            @Param("allowedSources") Collection<RepairOrder.OrderStatus> allowedSources,
+                            @Param("expectedVersion") Long expectedVersion,
+                            @Param("newStatus") RepairOrder.OrderStatus newStatus,
+                            @Param("startedAt") LocalDateTime startedAt);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RepairOrder r SET r.previousStatus = r.status, r.status = :newStatus, r.completedAt = :completedAt, " +
+           "r.repairNotes = :repairNotes, r.partsUsed = :partsUsed, r.finalCost = :finalCost, " +
+           "r.version = r.version + 1 " +
+           "WHERE r.id = :id AND r.status IN :allowedSources " +
+           "AND (:expectedVersion IS NULL OR r.version = :expectedVersion)")
+    int transitionWithCompletion(@Param("id") Long id,
+                                 @Param("allowedSources") Collection<RepairOrder.OrderStatus> allowedSources,
+                                 @Param("expectedVersion") Long expectedVersion,
+                                 @Param("newStatus") RepairOrder.OrderStatus newStatus,
+                                 @Param("completedAt") LocalDateTime completedAt,
+                                 @Param("repairNotes") String repairNotes,
+                                 @Param("partsUsed") String partsUsed,
+                                 @Param("finalCost") BigDecimal finalCost);
 }
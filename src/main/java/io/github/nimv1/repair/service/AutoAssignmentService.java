@@ -0,0 +1,128 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.dto.BulkOperationResult;
+import io.github.nimv1.repair.dto.OrderSummary;
+import io.github.nimv1.repair.dto.TechnicianWorkload;
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.entity.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * Автоматическое назначение техников по индексу загрузки {@link TechnicianWorkloadIndex}:
+ * заявка достаётся наименее загруженному технику.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AutoAssignmentService {
+
+    private static final Comparator<OrderSummary> BACKLOG_ORDER = Comparator
+            .comparing(OrderSummary::priority, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(OrderSummary::createdAt, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final RepairOrderService orderService;
+    private final UserService userService;
+    private final TechnicianWorkloadIndex workloadIndex;
+
+    /**
+     * Техник, которому стоит назначить следующую заявку.
+     */
+    public Optional<User> proposeTechnician() {
+        return workloadIndex.leastLoadedTechnician().flatMap(userService::findById);
+    }
+
+    /**
+     * Назначает заявку наименее загруженному технику. Новая заявка
+     * предварительно принимается от имени {@code manager}.
+     *
+     * @throws IllegalStateException если заявка уже назначена или нет доступных техников
+     */
+    @Transactional
+    public RepairOrder autoAssign(Long orderId, User manager) {
+        RepairOrder order = orderService.findById(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("Заявка не найдена"));
+        if (order.getStatus() != RepairOrder.OrderStatus.NEW && order.getStatus() != RepairOrder.OrderStatus.ACCEPTED) {
+            throw new IllegalStateException("Автоназначение возможно только для новых и принятых заявок");
+        }
+        User technician = proposeTechnician()
+                .orElseThrow(() -> new IllegalStateException("Нет доступных техников"));
+        if (order.getStatus() == RepairOrder.OrderStatus.NEW) {
+            orderService.acceptOrder(orderId, manager);
+        }
+        return orderService.assignTechnician(orderId, technician);
+    }
+
+    /**
+     * Распределяет все новые и принятые заявки одной транзакцией. Сначала срочные,
+     * внутри приоритета — старые; каждая заявка достаётся технику с наименьшей
+     * оценкой с учётом уже распределённых в этом проходе (очередь с приоритетом,
+     * O(log n) на решение). Новые заявки принимаются от имени {@code manager}.
+     *
+     * @throws IllegalStateException если нет доступных техников
+     */
+    @Transactional
+    public BulkOperationResult assignBacklog(User manager) {
+        List<OrderSummary> backlog = new ArrayList<>(orderService.findUnassignedOrders());
+        if (backlog.isEmpty()) {
+            return new BulkOperationResult(List.of(), Map.of());
+        }
+        backlog.sort(BACKLOG_ORDER);
+
+        PriorityQueue<PlannedLoad> technicians = new PriorityQueue<>();
+        for (TechnicianWorkload workload : workloadIndex.availableWorkloads()) {
+            technicians.add(new PlannedLoad(workload.technicianId(), workload.score()));
+        }
+        if (technicians.isEmpty()) {
+            throw new IllegalStateException("Нет доступных техников");
+        }
+        Map<Long, List<Long>> plan = new LinkedHashMap<>();
+        for (OrderSummary order : backlog) {
+            PlannedLoad least = technicians.poll();
+            plan.computeIfAbsent(least.technicianId(), id -> new ArrayList<>()).add(order.id());
+            technicians.add(least.plus(TechnicianWorkloadIndex.weight(order.priority())));
+        }
+
+        Map<Long, String> rejected = new LinkedHashMap<>();
+        List<Long> newOrders = backlog.stream()
+                .filter(order -> order.status() == RepairOrder.OrderStatus.NEW)
+                .map(OrderSummary::id)
+                .toList();
+        rejected.putAll(orderService.acceptOrders(newOrders, manager).rejected());
+
+        List<Long> updated = new ArrayList<>();
+        plan.forEach((technicianId, orderIds) -> {
+            User technician = userService.findById(technicianId)
+                    .orElseThrow(() -> new IllegalStateException("Техник не найден: " + technicianId));
+            List<Long> assignable = orderIds.stream().filter(id -> !rejected.containsKey(id)).toList();
+            BulkOperationResult result = orderService.assignTechnician(assignable, technician);
+            updated.addAll(result.updated());
+            rejected.putAll(result.rejected());
+        });
+        log.info("Автоназначение: распределено {}, пропущено {}", updated.size(), rejected.size());
+        return new BulkOperationResult(updated, rejected);
+    }
+
+    private record PlannedLoad(Long technicianId, int score) implements Comparable<PlannedLoad> {
+
+        PlannedLoad plus(int weight) {
+            return new PlannedLoad(technicianId, score + weight);
+        }
+
+        @Override
+        public int compareTo(PlannedLoad other) {
+            int byScore = Integer.compare(score, other.score);
+            return byScore != 0 ? byScore : technicianId.compareTo(other.technicianId);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package io.github.nimv1.repair.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Генератор номеров вида {@code REP-yyyyMMdd-NNNNN} с нумерацией, сбрасываемой каждый день.
+ * <p>
+ * Номера резервируются в БД блоками (hi/lo): узел обращается к таблице
+ * {@code order_number_blocks} один раз на {@code blockSize} заявок, поэтому несколько
+ * экземпляров приложения никогда не выдают одинаковых номеров. Внутри блока номер
+ * выдаётся без блокировок. Резервирование идёт в отдельной транзакции
+ * (REQUIRES_NEW), чтобы откат заявки не возвращал уже выданный блок.
+ * Поэтому номер берут до открытия транзакции заявки: иначе пополнение блока ждёт
+ * второго соединения из пула, пока вызывающий держит первое.
+ * Неиспользованный остаток блока при перезапуске пропадает — номера могут идти с пропусками.
+ */
+@Component
+@Slf4j
+public class BlockOrderNumberGenerator implements OrderNumberGenerator {
+
+    private static final String PREFIX = "REP-";
+    private static final int MIN_DIGITS = 5;
+    private static final int MAX_ALLOCATION_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate allocationTransaction;
+    private final int blockSize;
+    private final Clock clock;
+
+    // ReentrantLock вместо synchronized: резервирование идёт в БД, а блокировка монитора
+    // на Java 21 закрепляет виртуальный поток за платформенным на время запроса
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private volatile Block current;
+
+    @Autowired
+    public BlockOrderNumberGenerator(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${repair.orders.number.block-size:100}") int blockSize) {
+        this(jdbcTemplate, transactionManager, blockSize, Clock.systemDefaultZone());
+    }
+
+    BlockOrderNumberGenerator(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              int blockSize,
+                              Clock clock) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Размер блока номеров должен быть положительным");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.allocationTransaction = new TransactionTemplate(transactionManager);
+        this.allocationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+        this.clock = clock;
+    }
+
+    @Override
+    public String nextOrderNumber() {
+        LocalDate today = LocalDate.now(clock);
+        while (true) {
+            Block block = current;
+            if (block != null && block.date.equals(today)) {
+                long value = block.next.getAndIncrement();
+                if (value <= block.last) {
+                    return block.format(value);
+                }
+            }
+            refill(block, today);
+        }
+    }
+
+    private void refill(Block exhausted, LocalDate today) {
+        refillLock.lock();
+        try {
+            if (current != exhausted) {
+                return; // блок уже заменён другим потоком
+            }
+            long last = allocate(today);
+            current = new Block(today, last - blockSize + 1, last);
+            log.debug("Зарезервирован блок номеров заявок {}: {}..{}", today, last - blockSize + 1, last);
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    /**
+     * Резервирует следующий блок на дату и возвращает его верхнюю границу.
+     */
+    private long allocate(LocalDate date) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Long last = allocationTransaction.execute(status -> {
+                    int updated = jdbcTemplate.update(
+                            "UPDATE order_number_blocks SET allocated_until = allocated_until + ? WHERE order_date = ?",
+                            blockSize, date);
+                    if (updated == 0) {
+                        jdbcTemplate.update(
+                                "INSERT INTO order_number_blocks (order_date, allocated_until) VALUES (?, ?)",
+                                date, blockSize);
+                        return (long) blockSize;
+                    }
+                    return jdbcTemplate.queryForObject(
+                            "SELECT allocated_until FROM order_number_blocks WHERE order_date = ?", Long.class, date);
+                });
+                return last;
+            } catch (DuplicateKeyException e) {
+                // Первую строку за день одновременно вставил другой узел — повторяем через UPDATE
+                if (attempt >= MAX_ALLOCATION_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Диапазон номеров [next..last] на одну дату с заранее подготовленным префиксом.
+     */
+    private static final class Block {
+
+        private final LocalDate date;
+        private final AtomicLong next;
+        private final long last;
+        private final char[] prefix;
+
+        private Block(LocalDate date, long first, long last) {
+            this.date = date;
+            this.next = new AtomicLong(first);
+            this.last = last;
+            this.prefix = (PREFIX + datePart(date) + "-").toCharArray();
+        }
+
+        private String format(long value) {
+            int digits = Math.max(MIN_DIGITS, digitCount(value));
+            char[] buffer = new char[prefix.length + digits];
+            System.arraycopy(prefix, 0, buffer, 0, prefix.length);
+            for (int i = buffer.length - 1; i >= prefix.length; i--) {
+                buffer[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+            return new String(buffer);
+        }
+
+        private static String datePart(LocalDate date) {
+            int yyyymmdd = date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+            return Integer.toString(yyyymmdd);
+        }
+
+        private static int digitCount(long value) {
+            int digits = 1;
+            while (value >= 10) {
+                value /= 10;
+                digits++;
+            }
+            return digits;
+        }
+    }
+}
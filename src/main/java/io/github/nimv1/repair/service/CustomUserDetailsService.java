@@ -1,10 +1,10 @@
 package io.github.nimv1.repair.service;
 
 import io.github.nimv1.repair.entity.User;
-import io.github.nimv1.repair.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -13,16 +13,18 @@ import java.util.Collections;
 
 /**
  * Сервис для загрузки пользователей в Spring Security.
+ * Пользователь читается через кэш {@link UserService}, а не из БД на каждый запрос.
+ * После успешного входа с устаревшим хэшем Spring Security вызывает {@link #updatePassword}.
  */
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
-    private final UserRepository userRepository;
+    private final UserService userService;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        User user = userService.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден: " + username));
 
         return new org.springframework.security.core.userdetails.User(
@@ -33,4 +35,12 @@ public class CustomUserDetailsService implements UserDetailsService {
                 Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
         );
     }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userService.updatePasswordHash(user.getUsername(), newPassword);
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
 }
@@ -0,0 +1,23 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.config.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Сбрасывает все кэши пользователей после изменения пользователя.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Caching(evict = {
+        @CacheEvict(cacheNames = CacheConfig.USERS_BY_ID, allEntries = true),
+        @CacheEvict(cacheNames = CacheConfig.USERS_BY_USERNAME, allEntries = true),
+        @CacheEvict(cacheNames = CacheConfig.USERS_BY_ROLE, allEntries = true)
+})
+@interface EvictUserCaches {
+}
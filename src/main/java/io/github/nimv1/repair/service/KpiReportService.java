@@ -0,0 +1,113 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.dto.KpiReport;
+import io.github.nimv1.repair.entity.OrderKpiDaily;
+import io.github.nimv1.repair.entity.User;
+import io.github.nimv1.repair.repository.OrderKpiDailyRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Отчёты KPI из сводок {@link OrderKpiDaily}: время от создания заявки до назначения,
+ * начала и завершения ремонта, доля выполненных заявок, итоговая стоимость против
+ * предварительной. Заявки в БД не читаются: объём работы зависит от длины периода
+ * и числа разрезов, а не от числа заявок. Сводки отстают не больше чем на интервал свёртки
+ * ({@link KpiRollupService}).
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class KpiReportService {
+
+    private static final double SECONDS_PER_HOUR = 3600.0;
+
+    private final OrderKpiDailyRepository dailyRepository;
+    private final UserService userService;
+
+    public KpiReport report(LocalDate from, LocalDate to, KpiReport.Grouping groupBy) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Начало периода позже окончания");
+        }
+        Function<OrderKpiDaily.Key, String> group = grouping(groupBy);
+        // TreeMap: дни и недели в формате ISO сортируются по времени
+        Map<String, Totals> groups = new TreeMap<>();
+        Totals total = new Totals();
+        for (OrderKpiDaily rollup : dailyRepository.findByDayBetween(from, to)) {
+            groups.computeIfAbsent(group.apply(rollup.getKey()), k -> new Totals()).add(rollup);
+            total.add(rollup);
+        }
+        List<KpiReport.Row> rows = new ArrayList<>(groups.size());
+        groups.forEach((name, totals) -> rows.add(totals.toRow(name)));
+        return new KpiReport(from, to, groupBy, rows, total.toRow("Итого"));
+    }
+
+    private Function<OrderKpiDaily.Key, String> grouping(KpiReport.Grouping groupBy) {
+        return switch (groupBy) {
+            case DAY -> key -> key.getDay().toString();
+            case WEEK -> key -> String.format("%d-W%02d",
+                    key.getDay().get(IsoFields.WEEK_BASED_YEAR), key.getDay().get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case TECHNICIAN -> key -> technicianName(key.getTechnicianId());
+            case APPLIANCE_TYPE -> OrderKpiDaily.Key::getApplianceType;
+            case BRAND -> key -> key.getApplianceBrand().isEmpty() ? "Не указан" : key.getApplianceBrand();
+        };
+    }
+
+    private String technicianName(long technicianId) {
+        if (technicianId == OrderKpiDaily.NO_TECHNICIAN) {
+            return "Не назначен";
+        }
+        return userService.findById(technicianId)
+                .map(User::getFullName)
+                .orElse("Техник #" + technicianId);
+    }
+
+    private static final class Totals {
+
+        private long created;
+        private long completed;
+        private long cancelled;
+        private long assigned;
+        private long assignSeconds;
+        private long started;
+        private long startSeconds;
+        private long completeSeconds;
+        private BigDecimal estimatedCost = BigDecimal.ZERO;
+        private BigDecimal finalCost = BigDecimal.ZERO;
+
+        private void add(OrderKpiDaily rollup) {
+            created += rollup.getOrdersCreated();
+            completed += rollup.getOrdersCompleted();
+            cancelled += rollup.getOrdersCancelled();
+            assigned += rollup.getOrdersAssigned();
+            assignSeconds += rollup.getAssignSeconds();
+            started += rollup.getOrdersStarted();
+            startSeconds += rollup.getStartSeconds();
+            completeSeconds += rollup.getCompleteSeconds();
+            estimatedCost = estimatedCost.add(rollup.getEstimatedCost());
+            finalCost = finalCost.add(rollup.getFinalCost());
+        }
+
+        private KpiReport.Row toRow(String group) {
+            return new KpiReport.Row(group, created, completed, cancelled,
+                    created == 0 ? null : 100.0 * completed / created,
+                    hours(assignSeconds, assigned),
+                    hours(startSeconds, started),
+                    hours(completeSeconds, completed),
+                    estimatedCost, finalCost);
+        }
+
+        private static Double hours(long seconds, long count) {
+            return count == 0 ? null : seconds / SECONDS_PER_HOUR / count;
+        }
+    }
+}
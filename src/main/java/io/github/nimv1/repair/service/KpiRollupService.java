@@ -0,0 +1,193 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.dto.OrderKpiFacts;
+import io.github.nimv1.repair.entity.KpiRollupState;
+import io.github.nimv1.repair.entity.OrderKpiContribution;
+import io.github.nimv1.repair.entity.OrderKpiDaily;
+import io.github.nimv1.repair.repository.KpiRollupStateRepository;
+import io.github.nimv1.repair.repository.OrderEventRepository;
+import io.github.nimv1.repair.repository.OrderKpiContributionRepository;
+import io.github.nimv1.repair.repository.OrderKpiDailyRepository;
+import io.github.nimv1.repair.repository.RepairOrderRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Инкрементальная свёртка заявок в сводки KPI {@link OrderKpiDaily}.
+ * <p>
+ * Раз в {@code repair.reports.kpi.fold-interval} по журналу {@code order_events} выбираются
+ * заявки, изменённые после отметки, и только их вклад пересчитывается: старый вклад
+ * ({@link OrderKpiContribution}) вычитается из сводки, новый добавляется. Отметка берётся
+ * с запасом {@code repair.reports.kpi.watermark-lag} на транзакции, закоммиченные позже
+ * записи в журнал; повторная свёртка той же заявки сводку не меняет.
+ * <p>
+ * Если сводки ещё не построены, они строятся заново по всем заявкам: заявки, созданные
+ * до появления журнала, в нём не отражены.
+ */
+@Service
+@Transactional(readOnly = true)
+@Slf4j
+public class KpiRollupService {
+
+    private final KpiRollupStateRepository stateRepository;
+    private final OrderEventRepository eventRepository;
+    private final RepairOrderRepository orderRepository;
+    private final OrderKpiContributionRepository contributionRepository;
+    private final OrderKpiDailyRepository dailyRepository;
+    private final EntityManager entityManager;
+    private final Duration watermarkLag;
+    private final int chunkSize;
+
+    public KpiRollupService(KpiRollupStateRepository stateRepository,
+                            OrderEventRepository eventRepository,
+                            RepairOrderRepository orderRepository,
+                            OrderKpiContributionRepository contributionRepository,
+                            OrderKpiDailyRepository dailyRepository,
+                            EntityManager entityManager,
+                            @Value("${repair.reports.kpi.watermark-lag:PT5M}") Duration watermarkLag,
+                            @Value("${repair.reports.kpi.chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("repair.reports.kpi.chunk-size должен быть положительным");
+        }
+        this.stateRepository = stateRepository;
+        this.eventRepository = eventRepository;
+        this.orderRepository = orderRepository;
+        this.contributionRepository = contributionRepository;
+        this.dailyRepository = dailyRepository;
+        this.entityManager = entityManager;
+        this.watermarkLag = watermarkLag;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Дополняет сводки заявками, изменёнными после отметки.
+     *
+     * @return число пересчитанных заявок
+     */
+    @Scheduled(initialDelayString = "${repair.reports.kpi.fold-interval:PT5M}",
+            fixedDelayString = "${repair.reports.kpi.fold-interval:PT5M}")
+    @Transactional
+    public int fold() {
+        KpiRollupState state = lockState();
+        if (state.getWatermark() == null) {
+            return rebuildLocked();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> changed = eventRepository.findOrderIdsChangedSince(state.getWatermark().minus(watermarkLag));
+        for (int from = 0; from < changed.size(); from += chunkSize) {
+            foldOrders(changed.subList(from, Math.min(from + chunkSize, changed.size())));
+        }
+        stateRepository.findById(KpiRollupState.ID).orElseThrow().setWatermark(now);
+        if (!changed.isEmpty()) {
+            log.debug("Сводки KPI: пересчитано заявок {}", changed.size());
+        }
+        return changed.size();
+    }
+
+    /**
+     * Строит сводки заново по всем заявкам.
+     *
+     * @return число учтённых заявок
+     */
+    @Transactional
+    public int rebuild() {
+        lockState();
+        return rebuildLocked();
+    }
+
+    private int rebuildLocked() {
+        LocalDateTime now = LocalDateTime.now();
+        dailyRepository.deleteAllInBulk();
+        contributionRepository.deleteAllInBulk();
+        int total = 0;
+        Long afterId = 0L;
+        List<Long> ids;
+        while (!(ids = orderRepository.findIdsAfter(afterId, PageRequest.ofSize(chunkSize))).isEmpty()) {
+            foldOrders(ids);
+            total += ids.size();
+            afterId = ids.get(ids.size() - 1);
+        }
+        stateRepository.findById(KpiRollupState.ID).orElseThrow().setWatermark(now);
+        log.info("Сводки KPI перестроены: заявок {}", total);
+        return total;
+    }
+
+    private KpiRollupState lockState() {
+        return stateRepository.lock()
+                .orElseThrow(() -> new IllegalStateException("Нет строки kpi_rollup_state (миграция V9)"));
+    }
+
+    /**
+     * Пересчитывает вклад порции заявок. Вклады, заявки и сводки затронутых дней читаются тремя запросами,
+     * изменения уходят пакетами; после порции контекст очищается.
+     */
+    private void foldOrders(List<Long> orderIds) {
+        Map<Long, OrderKpiContribution> contributions = contributionRepository.findAllById(orderIds).stream()
+                .collect(Collectors.toMap(OrderKpiContribution::getOrderId, Function.identity()));
+        List<OrderKpiFacts> facts = orderRepository.findKpiFacts(orderIds);
+
+        // Сводки всех затронутых дней одним запросом (findAllById по составному ключу читает строки по одной)
+        Set<LocalDate> days = new HashSet<>();
+        contributions.values().forEach(c -> days.add(c.getKey().getDay()));
+        facts.stream().filter(f -> f.createdAt() != null).forEach(f -> days.add(f.createdAt().toLocalDate()));
+        Map<OrderKpiDaily.Key, OrderKpiDaily> rollups = new HashMap<>();
+        if (!days.isEmpty()) {
+            dailyRepository.findByDayIn(days).forEach(r -> rollups.put(r.getKey(), r));
+        }
+
+        for (OrderKpiContribution previous : contributions.values()) {
+            rollups.get(previous.getKey()).apply(previous, -1);
+        }
+        for (OrderKpiFacts order : facts) {
+            if (order.createdAt() == null) {
+                continue;
+            }
+            OrderKpiContribution contribution = contributions.remove(order.orderId());
+            boolean created = contribution == null;
+            if (created) {
+                contribution = new OrderKpiContribution(order.orderId());
+            }
+            contribution.update(order.status(), order.technicianId(), order.applianceType(),
+                    order.applianceBrand(), order.createdAt(), order.assignedAt(), order.startedAt(),
+                    order.completedAt(), order.estimatedCost(), order.finalCost());
+            if (created) {
+                entityManager.persist(contribution);
+            }
+            rollup(rollups, contribution.getKey()).apply(contribution, 1);
+        }
+        // Заявки, которых больше нет
+        contributions.values().forEach(entityManager::remove);
+
+        for (OrderKpiDaily rollup : rollups.values()) {
+            if (rollup.isEmpty() && entityManager.contains(rollup)) {
+                entityManager.remove(rollup);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private OrderKpiDaily rollup(Map<OrderKpiDaily.Key, OrderKpiDaily> rollups, OrderKpiDaily.Key key) {
+        return rollups.computeIfAbsent(key, k -> {
+            OrderKpiDaily created = new OrderKpiDaily(k);
+            entityManager.persist(created);
+            return created;
+        });
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.nimv1.repair.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Отложенная запись времени последнего входа.
+ * <p>
+ * Входы накапливаются в памяти (по одной записи на пользователя — повторные входы
+ * только сдвигают время) и раз в несколько секунд сбрасываются одним пакетным UPDATE.
+ * При остановке приложения буфер сбрасывается; при аварийном завершении теряется
+ * лишь отметка о входе за последний интервал.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LastLoginRecorder {
+
+    private static final String UPDATE_SQL =
+            "UPDATE users SET last_login_at = ? WHERE username = ? AND (last_login_at IS NULL OR last_login_at < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public void record(String username, LocalDateTime loginAt) {
+        pending.merge(username, loginAt, (current, next) -> next.isAfter(current) ? next : current);
+    }
+
+    @EventListener
+    public void onAuthenticationSuccess(AuthenticationSuccessEvent event) {
+        record(event.getAuthentication().getName(), LocalDateTime.now());
+    }
+
+    @Scheduled(initialDelayString = "${repair.users.last-login.flush-interval:PT5S}",
+            fixedDelayString = "${repair.users.last-login.flush-interval:PT5S}")
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        for (String username : pending.keySet()) {
+            LocalDateTime loginAt = pending.get(username);
+            // Удаляем, только если за это время не пришёл более поздний вход
+            if (loginAt != null && pending.remove(username, loginAt)) {
+                Timestamp timestamp = Timestamp.valueOf(loginAt);
+                batch.add(new Object[]{timestamp, username, timestamp});
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+            log.debug("Записано время входа для {} пользователей", batch.size());
+        } catch (RuntimeException e) {
+            // Возвращаем в буфер, чтобы повторить при следующем сбросе
+            for (Object[] row : batch) {
+                record((String) row[1], ((Timestamp) row[0]).toLocalDateTime());
+            }
+            log.warn("Не удалось записать время входа, повтор при следующем сбросе", e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+}
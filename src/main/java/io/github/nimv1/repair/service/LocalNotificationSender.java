@@ -0,0 +1,50 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.config.NotificationProperties;
+import io.github.nimv1.repair.entity.OutboxNotification;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+
+/**
+ * Отправитель для разработки и тестов: пишет уведомление в лог и, если задан
+ * {@code repair.notifications.file}, дописывает строку в файл. Во внешние шлюзы ничего не уходит.
+ */
+@Component
+@ConditionalOnProperty(name = "repair.notifications.sender", havingValue = "local", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class LocalNotificationSender implements NotificationSender {
+
+    private final NotificationProperties properties;
+
+    @Override
+    public void send(OutboxNotification notification) {
+        log.info("Уведомление {} -> {} (заявка {}): {}", notification.getChannel(), notification.getRecipient(),
+                notification.getOrderId(), notification.getBody());
+        Path file = properties.file();
+        if (file == null) {
+            return;
+        }
+        String line = String.join("\t", LocalDateTime.now().toString(), notification.getChannel().name(),
+                notification.getRecipient(), String.valueOf(notification.getOrderId()),
+                notification.getBody().replace('\n', ' ')) + System.lineSeparator();
+        try {
+            synchronized (this) {
+                Files.writeString(file, line, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать уведомление в " + file, e);
+        }
+    }
+}
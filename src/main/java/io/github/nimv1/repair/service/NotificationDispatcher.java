@@ -0,0 +1,173 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.config.NotificationProperties;
+import io.github.nimv1.repair.entity.OutboxNotification;
+import io.github.nimv1.repair.repository.OutboxNotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Фоновая отправка уведомлений из outbox через {@link NotificationSender}.
+ * <p>
+ * Раз в {@code repair.notifications.poll-interval} уведомления забираются порциями
+ * {@code SELECT ... FOR UPDATE SKIP LOCKED}: каждая порция отправляется в своей транзакции,
+ * и несколько экземпляров приложения не отправляют одно уведомление дважды. За один опрос
+ * обрабатывается не больше {@code max-batches-per-poll} порций, чтобы задача не занимала
+ * поток планировщика, общий с другими фоновыми задачами, на весь разбор большого хвоста.
+ * <p>
+ * Вызов шлюза идёт на собственном пуле из {@value #SEND_THREADS} потоков и ограничен
+ * {@code repair.notifications.send-timeout}: зависший шлюз задерживает порцию (и её блокировки)
+ * не дольше {@code batch-size × send-timeout}. Пока потоки пула заняты зависшими вызовами,
+ * новые попытки сразу считаются неудачными. Неудачная
+ * попытка откладывает уведомление с удваивающейся паузой; после {@code max-attempts}
+ * попыток оно помечается FAILED и остаётся в таблице для разбора.
+ * <p>
+ * Метрика: {@code repair.notifications.dispatched} с тегом {@code outcome} (sent, retry, failed).
+ */
+@Component
+@Slf4j
+public class NotificationDispatcher {
+
+    // Отправка последовательная; запасной поток — на случай, если прерванный вызов ещё не завершился
+    static final int SEND_THREADS = 2;
+
+    private final OutboxNotificationRepository outboxRepository;
+    private final NotificationSender sender;
+    private final NotificationProperties properties;
+    private final TransactionTemplate batchTransaction;
+    private final ThreadPoolTaskExecutor sendPool;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+
+    public NotificationDispatcher(OutboxNotificationRepository outboxRepository,
+                                  NotificationSender sender,
+                                  NotificationProperties properties,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry registry) {
+        this.outboxRepository = outboxRepository;
+        this.sender = sender;
+        this.properties = properties;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.sendPool = sendPool();
+        this.sent = outcomeCounter(registry, "sent");
+        this.retried = outcomeCounter(registry, "retry");
+        this.failed = outcomeCounter(registry, "failed");
+    }
+
+    private static ThreadPoolTaskExecutor sendPool() {
+        ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+        pool.setCorePoolSize(SEND_THREADS);
+        pool.setMaxPoolSize(SEND_THREADS);
+        pool.setQueueCapacity(0);
+        pool.setThreadNamePrefix("notification-send-");
+        pool.initialize();
+        return pool;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sendPool.shutdown();
+    }
+
+    private static Counter outcomeCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("repair.notifications.dispatched")
+                .description("Попытки отправки уведомлений из outbox")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * Отправляет уведомления, срок которых наступил, — не больше {@code max-batches-per-poll} порций.
+     *
+     * @return число обработанных уведомлений
+     */
+    @Scheduled(initialDelayString = "${repair.notifications.poll-interval:PT5S}",
+            fixedDelayString = "${repair.notifications.poll-interval:PT5S}")
+    public int dispatch() {
+        int total = 0;
+        int batches = 0;
+        int processed;
+        do {
+            processed = dispatchBatch();
+            total += processed;
+            batches++;
+        } while (processed == properties.batchSize() && batches < properties.maxBatchesPerPoll());
+        return total;
+    }
+
+    private int dispatchBatch() {
+        Integer processed = batchTransaction.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxNotification> due = outboxRepository.lockDue(now, PageRequest.ofSize(properties.batchSize()));
+            due.forEach(notification -> deliver(notification, now));
+            return due.size();
+        });
+        return processed != null ? processed : 0;
+    }
+
+    private void deliver(OutboxNotification notification, LocalDateTime now) {
+        try {
+            send(notification);
+            notification.markSent(LocalDateTime.now());
+            sent.increment();
+        } catch (RuntimeException e) {
+            int attempt = notification.getAttempts() + 1;
+            if (attempt >= properties.maxAttempts()) {
+                notification.markFailed(e.getMessage(), null);
+                failed.increment();
+                log.warn("Уведомление {} по заявке {} не отправлено после {} попыток: {}",
+                        notification.getId(), notification.getOrderId(), attempt, e.getMessage());
+            } else {
+                notification.markFailed(e.getMessage(), now.plus(properties.backoff(attempt)));
+                retried.increment();
+                log.debug("Попытка {} отправки уведомления {} не удалась: {}",
+                        attempt, notification.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private void send(OutboxNotification notification) {
+        Future<?> delivery = sendPool.submit(() -> sender.send(notification));
+        try {
+            delivery.get(properties.sendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            delivery.cancel(true);
+            log.warn("Шлюз не ответил за {} на уведомление {}", properties.sendTimeout(), notification.getId());
+            throw new IllegalStateException("Шлюз не ответил за " + properties.sendTimeout());
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            delivery.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Отправка уведомления прервана", e);
+        }
+    }
+
+    /**
+     * Удаляет отправленные уведомления старше {@code repair.notifications.retention}.
+     */
+    @Scheduled(cron = "${repair.notifications.purge-cron:0 30 3 * * *}")
+    public void purgeSent() {
+        Integer deleted = batchTransaction.execute(status ->
+                outboxRepository.deleteSentBefore(LocalDateTime.now().minus(properties.retention())));
+        if (deleted != null && deleted > 0) {
+            log.info("Удалено отправленных уведомлений: {}", deleted);
+        }
+    }
+}
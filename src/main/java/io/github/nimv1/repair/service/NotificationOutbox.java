@@ -0,0 +1,95 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.entity.OutboxNotification;
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.entity.User;
+import io.github.nimv1.repair.event.OrderStatusChangedEvent;
+import io.github.nimv1.repair.repository.OutboxNotificationRepository;
+import io.github.nimv1.repair.repository.RepairOrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Запись уведомлений клиенту и технику в outbox при назначении техника, планировании
+ * визита и завершении ремонта. Как и журнал {@link OrderEventLog}, слушатель обычный:
+ * уведомления сохраняются в транзакции перехода и уходят в БД вместе с ним.
+ * Отправку выполняет {@link NotificationDispatcher}.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationOutbox {
+
+    private static final DateTimeFormatter VISIT_TIME = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+
+    private final RepairOrderRepository orderRepository;
+    private final UserService userService;
+    private final OutboxNotificationRepository outboxRepository;
+
+    @EventListener
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (event.previousStatus() == null || !isNotified(event.newStatus())) {
+            return;
+        }
+        // Заявка уже прочитана переходом; после условного UPDATE — один SELECT по первичному ключу
+        RepairOrder order = orderRepository.findById(event.orderId()).orElse(null);
+        if (order == null) {
+            return;
+        }
+        User technician = event.technicianId() != null
+                ? userService.findById(event.technicianId()).orElse(null)
+                : null;
+        String subject = "Заявка " + order.getOrderNumber();
+
+        enqueue(order.getId(), order.getClientPhone(), order.getClientEmail(), subject,
+                clientMessage(event, order, technician));
+        if (technician != null && event.newStatus() != RepairOrder.OrderStatus.COMPLETED) {
+            enqueue(order.getId(), technician.getPhone(), technician.getEmail(), subject,
+                    technicianMessage(event, order));
+        }
+    }
+
+    private static boolean isNotified(RepairOrder.OrderStatus status) {
+        return status == RepairOrder.OrderStatus.ASSIGNED
+                || status == RepairOrder.OrderStatus.SCHEDULED
+                || status == RepairOrder.OrderStatus.COMPLETED;
+    }
+
+    private void enqueue(Long orderId, String phone, String email, String subject, String body) {
+        if (phone != null && !phone.isBlank()) {
+            outboxRepository.save(new OutboxNotification(orderId, OutboxNotification.Channel.SMS,
+                    phone.trim(), null, body));
+        }
+        if (email != null && !email.isBlank()) {
+            outboxRepository.save(new OutboxNotification(orderId, OutboxNotification.Channel.EMAIL,
+                    email.trim(), subject, body));
+        }
+    }
+
+    private static String clientMessage(OrderStatusChangedEvent event, RepairOrder order, User technician) {
+        String number = order.getOrderNumber();
+        String master = technician != null ? technician.getFullName() : "мастер";
+        return switch (event.newStatus()) {
+            case ASSIGNED -> "Заявка " + number + ": назначен мастер " + master
+                    + ". Мы свяжемся с вами, чтобы согласовать время визита.";
+            case SCHEDULED -> "Заявка " + number + ": визит мастера " + master + " запланирован на "
+                    + order.getScheduledAt().format(VISIT_TIME) + ".";
+            default -> order.getFinalCost() != null
+                    ? "Заявка " + number + ": ремонт завершён. Итоговая стоимость: " + order.getFinalCost() + " ₽."
+                    : "Заявка " + number + ": ремонт завершён.";
+        };
+    }
+
+    private static String technicianMessage(OrderStatusChangedEvent event, RepairOrder order) {
+        String address = order.getClientAddress() != null ? order.getClientAddress() : "адрес не указан";
+        return switch (event.newStatus()) {
+            case SCHEDULED -> "Заявка " + order.getOrderNumber() + ": визит "
+                    + order.getScheduledAt().format(VISIT_TIME) + ", " + address + ", " + order.getClientName()
+                    + ", " + order.getClientPhone() + ".";
+            default -> "Вам назначена заявка " + order.getOrderNumber() + ": " + order.getApplianceType()
+                    + ", " + address + ", " + order.getClientName() + ", " + order.getClientPhone() + ".";
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.entity.OutboxNotification;
+
+/**
+ * Доставка уведомления через SMS- или email-шлюз. Вызывается {@link NotificationDispatcher}
+ * вне транзакции перехода заявки; исключение означает неудачную попытку, и уведомление
+ * будет отправлено повторно с нарастающей паузой.
+ * <p>
+ * Вызов должен укладываться в {@code repair.notifications.send-timeout}: таймауты соединения
+ * и чтения шлюза задаются не больше него. Диспетчер ждёт ответа не дольше этого срока,
+ * после чего прерывает поток отправки и считает попытку неудачной, поэтому реализация
+ * должна реагировать на прерывание.
+ * <p>
+ * Реализация выбирается свойством {@code repair.notifications.sender};
+ * по умолчанию — {@link LocalNotificationSender}.
+ */
+public interface NotificationSender {
+
+    void send(OutboxNotification notification);
+}
@@ -0,0 +1,85 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.dto.OrderHistory;
+import io.github.nimv1.repair.entity.OrderEvent;
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.event.OrderStatusChangedEvent;
+import io.github.nimv1.repair.repository.OrderEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Журнал переходов заявок (order_events): кто, когда и из какого статуса в какой
+ * перевёл заявку. Запись идёт обычным (не транзакционным) слушателем, то есть
+ * в транзакции самого перехода: при откате не остаётся ни изменения заявки, ни записи.
+ * INSERT-ы журнала уходят при flush пакетом вместе с остальными изменениями.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderEventLog {
+
+    private static final Set<RepairOrder.OrderStatus> FINAL_STATUSES =
+            EnumSet.of(RepairOrder.OrderStatus.COMPLETED, RepairOrder.OrderStatus.CANCELLED);
+
+    private final OrderEventRepository eventRepository;
+
+    @EventListener
+    public void append(OrderStatusChangedEvent event) {
+        eventRepository.save(OrderEvent.builder()
+                .orderId(event.orderId())
+                .previousStatus(event.previousStatus())
+                .newStatus(event.newStatus())
+                .priority(event.priority())
+                .technicianId(event.technicianId())
+                .actor(currentActor())
+                .occurredAt(event.occurredAt())
+                .build());
+    }
+
+    /**
+     * Переходы заявки по порядку и время в каждом статусе.
+     */
+    @Transactional(readOnly = true)
+    public OrderHistory history(Long orderId) {
+        List<OrderEvent> events = eventRepository.findByOrderIdOrderByOccurredAtAscIdAsc(orderId);
+        Map<RepairOrder.OrderStatus, Long> secondsInStatus = new EnumMap<>(RepairOrder.OrderStatus.class);
+        for (int i = 0; i < events.size(); i++) {
+            OrderEvent event = events.get(i);
+            LocalDateTime until;
+            if (i + 1 < events.size()) {
+                until = events.get(i + 1).getOccurredAt();
+            } else if (!FINAL_STATUSES.contains(event.getNewStatus())) {
+                until = LocalDateTime.now();
+            } else {
+                continue;
+            }
+            secondsInStatus.merge(event.getNewStatus(),
+                    Duration.between(event.getOccurredAt(), until).toSeconds(), Long::sum);
+        }
+        return new OrderHistory(events.stream()
+                .map(e -> new OrderHistory.Entry(e.getPreviousStatus(), e.getNewStatus(), e.getActor(),
+                        e.getTechnicianId(), e.getOccurredAt()))
+                .toList(), secondsInStatus);
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
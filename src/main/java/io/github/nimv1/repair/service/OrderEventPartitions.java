@@ -0,0 +1,71 @@
+package io.github.nimv1.repair.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Помесячные секции журнала заявок order_events на PostgreSQL. Секции создаются заранее
+ * на {@code repair.orders.events.partitions-ahead} месяцев вперёд, чтобы записи не попадали
+ * в секцию по умолчанию: секцию за период, по которому там уже есть строки, создать нельзя.
+ * На других СУБД таблица не секционирована, и компонент ничего не делает.
+ */
+@Component
+@Slf4j
+public class OrderEventPartitions {
+
+    public static final int DEFAULT_MONTHS_AHEAD = 3;
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+
+    public OrderEventPartitions(JdbcTemplate jdbcTemplate,
+                                @Value("${repair.orders.events.partitions-ahead:" + DEFAULT_MONTHS_AHEAD + "}")
+                                int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+    }
+
+    private static String createPartitionSql(YearMonth month) {
+        return "CREATE TABLE IF NOT EXISTS order_events_" + month.format(SUFFIX)
+                + " PARTITION OF order_events FOR VALUES FROM ('" + month.atDay(1) + "') TO ('"
+                + month.plusMonths(1).atDay(1) + "')";
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        createUpcomingPartitions();
+    }
+
+    @Scheduled(cron = "${repair.orders.events.partition-cron:0 0 3 * * *}")
+    public void createUpcomingPartitions() {
+        if (!isPostgres()) {
+            return;
+        }
+        YearMonth month = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            try {
+                jdbcTemplate.execute(createPartitionSql(month.plusMonths(i)));
+            } catch (DataAccessException e) {
+                log.warn("Не удалось создать секцию журнала заявок за {}: {}", month.plusMonths(i), e.getMessage());
+            }
+        }
+    }
+
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equals(product);
+    }
+}
@@ -0,0 +1,190 @@
+package io.github.nimv1.repair.service;
+
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import io.github.nimv1.repair.dto.OrderExportRow;
+import io.github.nimv1.repair.dto.OrderSearchCriteria;
+import io.github.nimv1.repair.repository.RepairOrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Потоковая выгрузка заявок в CSV и XLSX.
+ * <p>
+ * Строки читаются курсором порциями по {@code fetchSize} внутри read-only транзакции
+ * и сразу пишутся в выходной поток. Это DTO-проекция, поэтому сущности не создаются
+ * и контекст персистентности не растёт. XLSX собирается через SXSSF: в памяти
+ * держится только окно из последних строк, остальные сбрасываются во временный
+ * сжатый файл. Потребление памяти не зависит от числа выгружаемых заявок.
+ */
+@Service
+@Slf4j
+public class OrderExportService {
+
+    static final String[] HEADERS = {"Номер", "Создана", "Статус", "Приоритет", "Клиент", "Телефон", "Адрес",
+            "Тип техники", "Бренд", "Модель", "Серийный номер", "Техник", "Предв. стоимость",
+            "Итоговая стоимость", "Завершена"};
+
+    /** Лимит строк на лист XLSX — 1 048 576, дальше выгрузка продолжается на новом листе. */
+    static final int MAX_ROWS_PER_SHEET = 1_000_000;
+
+    private static final int XLSX_WINDOW_SIZE = 100;
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private final RepairOrderRepository orderRepository;
+    private final int fetchSize;
+    private final ObjectWriter csvWriter;
+
+    public OrderExportService(RepairOrderRepository orderRepository,
+                              @Value("${repair.orders.export.fetch-size:1000}") int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Размер порции выгрузки должен быть положительным");
+        }
+        this.orderRepository = orderRepository;
+        this.fetchSize = fetchSize;
+        CsvMapper csvMapper = CsvMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                .build();
+        this.csvWriter = csvMapper.writer(csvMapper.schemaFor(OrderExportRow.class).withHeader());
+    }
+
+    /**
+     * CSV в UTF-8 с BOM (чтобы Excel распознал кодировку). Заголовок — имена полей,
+     * как в CSV импорта, поэтому выгрузку можно загрузить обратно.
+     *
+     * @return число выгруженных заявок
+     */
+    @Transactional(readOnly = true)
+    public long exportCsv(OrderSearchCriteria criteria, OutputStream out) throws IOException {
+        out.write(UTF8_BOM);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long count = 0;
+        try (Stream<OrderExportRow> rows = orderRepository.streamForExport(criteria, fetchSize);
+             SequenceWriter sequence = csvWriter.writeValues(writer)) {
+            Iterator<OrderExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                sequence.write(iterator.next());
+                count++;
+            }
+        }
+        writer.flush();
+        log.info("Выгружено заявок в CSV: {}", count);
+        return count;
+    }
+
+    /**
+     * XLSX: лист «Заявки» (и «Заявки 2», «Заявки 3»... при превышении лимита строк листа).
+     *
+     * @return число выгруженных заявок
+     */
+    @Transactional(readOnly = true)
+    public long exportXlsx(OrderSearchCriteria criteria, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(XLSX_WINDOW_SIZE);
+        workbook.setCompressTempFiles(true);
+        try (workbook; Stream<OrderExportRow> rows = orderRepository.streamForExport(criteria, fetchSize)) {
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font bold = workbook.createFont();
+            bold.setBold(true);
+            headerStyle.setFont(bold);
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("dd.mm.yyyy hh:mm"));
+
+            long count = 0;
+            Sheet sheet = null;
+            int rowIndex = 0;
+            Iterator<OrderExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                if (sheet == null || rowIndex > MAX_ROWS_PER_SHEET) {
+                    sheet = newSheet(workbook, headerStyle);
+                    rowIndex = 1;
+                }
+                writeRow(sheet.createRow(rowIndex++), iterator.next(), dateStyle);
+                count++;
+            }
+            if (sheet == null) {
+                newSheet(workbook, headerStyle);
+            }
+            workbook.write(out);
+            log.info("Выгружено заявок в XLSX: {}", count);
+            return count;
+        } finally {
+            workbook.dispose();
+        }
+    }
+
+    private static Sheet newSheet(SXSSFWorkbook workbook, CellStyle headerStyle) {
+        int number = workbook.getNumberOfSheets() + 1;
+        Sheet sheet = workbook.createSheet(number == 1 ? "Заявки" : "Заявки " + number);
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < HEADERS.length; i++) {
+            Cell cell = header.createCell(i);
+            cell.setCellValue(HEADERS[i]);
+            cell.setCellStyle(headerStyle);
+        }
+        return sheet;
+    }
+
+    private static void writeRow(Row row, OrderExportRow order, CellStyle dateStyle) {
+        int column = 0;
+        setText(row, column++, order.orderNumber());
+        setDate(row, column++, order.createdAt(), dateStyle);
+        setText(row, column++, order.status() == null ? null : order.status().name());
+        setText(row, column++, order.priority() == null ? null : order.priority().name());
+        setText(row, column++, order.clientName());
+        setText(row, column++, order.clientPhone());
+        setText(row, column++, order.clientAddress());
+        setText(row, column++, order.applianceType());
+        setText(row, column++, order.applianceBrand());
+        setText(row, column++, order.applianceModel());
+        setText(row, column++, order.serialNumber());
+        setText(row, column++, order.technician());
+        setNumber(row, column++, order.estimatedCost());
+        setNumber(row, column++, order.finalCost());
+        setDate(row, column, order.completedAt(), dateStyle);
+    }
+
+    private static void setText(Row row, int column, String value) {
+        if (value != null) {
+            row.createCell(column).setCellValue(value);
+        }
+    }
+
+    private static void setNumber(Row row, int column, BigDecimal value) {
+        if (value != null) {
+            row.createCell(column).setCellValue(value.doubleValue());
+        }
+    }
+
+    private static void setDate(Row row, int column, LocalDateTime value, CellStyle style) {
+        if (value != null) {
+            Cell cell = row.createCell(column);
+            cell.setCellValue(value);
+            cell.setCellStyle(style);
+        }
+    }
+}
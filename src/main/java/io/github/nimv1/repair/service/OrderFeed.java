@@ -0,0 +1,283 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.dto.OrderFeedEvent;
+import io.github.nimv1.repair.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Живая лента заявок по Server-Sent Events: создание заявки и смена статуса
+ * после коммита рассылаются подписчикам вместо периодического обновления страниц.
+ * <p>
+ * Соединение SSE — асинхронный запрос: пока подписчик ждёт, поток Tomcat не занят.
+ * У каждого подписчика ограниченный буфер {@code repair.orders.feed.buffer-size};
+ * отправка идёт задачей на собственном пуле ленты ({@code repair.orders.feed.sender-threads}
+ * потоков, очередь {@code sender-queue-capacity}), по одной на подписчика за раз, поэтому
+ * медленные клиенты не занимают общий пул приложения. Если подписчик не успевает читать,
+ * старые сообщения отбрасываются, а клиент получает событие {@code resync} и перечитывает страницу.
+ * Подписчик, отправка которому длится дольше {@code repair.orders.feed.send-timeout}
+ * или не помещается в очередь пула, отключается. Техник получает только события по своим заявкам.
+ * <p>
+ * Метрики: {@code repair.orders.feed.subscribers}, {@code repair.orders.feed.dropped},
+ * {@code repair.orders.feed.disconnected}.
+ */
+@Component
+@Slf4j
+public class OrderFeed {
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final TaskExecutor sender;
+    private final int bufferSize;
+    private final Duration timeout;
+    private final long sendTimeoutNanos;
+    private final Counter dropped;
+    private final Counter disconnected;
+
+    @Autowired
+    public OrderFeed(MeterRegistry registry,
+                     @Value("${repair.orders.feed.buffer-size:64}") int bufferSize,
+                     @Value("${repair.orders.feed.timeout:PT30M}") Duration timeout,
+                     @Value("${repair.orders.feed.send-timeout:PT10S}") Duration sendTimeout,
+                     @Value("${repair.orders.feed.sender-threads:4}") int senderThreads,
+                     @Value("${repair.orders.feed.sender-queue-capacity:1024}") int senderQueueCapacity) {
+        this(senderPool(senderThreads, senderQueueCapacity), registry, bufferSize, timeout, sendTimeout);
+    }
+
+    OrderFeed(TaskExecutor sender, MeterRegistry registry, int bufferSize, Duration timeout, Duration sendTimeout) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("repair.orders.feed.buffer-size должен быть положительным");
+        }
+        this.sender = sender;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.dropped = Counter.builder("repair.orders.feed.dropped")
+                .description("Сообщения ленты, отброшенные из-за переполнения буфера подписчика")
+                .register(registry);
+        this.disconnected = Counter.builder("repair.orders.feed.disconnected")
+                .description("Подписчики ленты, отключённые из-за зависшей отправки или переполнения пула")
+                .register(registry);
+        registry.gauge("repair.orders.feed.subscribers", subscribers, Set::size);
+    }
+
+    private static ThreadPoolTaskExecutor senderPool(int threads, int queueCapacity) {
+        ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+        pool.setCorePoolSize(threads);
+        pool.setMaxPoolSize(threads);
+        pool.setQueueCapacity(queueCapacity);
+        pool.setThreadNamePrefix("order-feed-");
+        pool.initialize();
+        return pool;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sender instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Новая подписка. По истечении {@code repair.orders.feed.timeout} соединение
+     * закрывается, и браузер (EventSource) переподключается сам.
+     *
+     * @param technicianId техник, которому доступны только свои заявки, или {@code null} — все заявки
+     */
+    public SseEmitter subscribe(Long technicianId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, technicianId);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        OrderFeedEvent message = OrderFeedEvent.of(event);
+        Supplier<SseEmitter.SseEventBuilder> sse = () -> SseEmitter.event()
+                .name(message.type())
+                .data(message, MediaType.APPLICATION_JSON);
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.technicianId == null || subscriber.technicianId.equals(message.technicianId())) {
+                subscriber.offer(sse);
+            }
+        }
+    }
+
+    /**
+     * Комментарий-пульс: не даёт прокси закрыть простаивающее соединение
+     * и выявляет отключившихся клиентов.
+     */
+    @Scheduled(initialDelayString = "${repair.orders.feed.heartbeat-interval:PT30S}",
+            fixedDelayString = "${repair.orders.feed.heartbeat-interval:PT30S}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(() -> SseEmitter.event().comment("ping"));
+        }
+    }
+
+    /**
+     * Отключает подписчиков, отправка которым длится дольше {@code repair.orders.feed.send-timeout}:
+     * клиент не читает, и запись в сокет заблокировала поток пула.
+     */
+    @Scheduled(initialDelayString = "${repair.orders.feed.send-timeout:PT10S}",
+            fixedDelayString = "${repair.orders.feed.send-timeout:PT10S}")
+    public void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.isStalled(now)) {
+                subscriber.drop("отправка дольше " + Duration.ofNanos(sendTimeoutNanos));
+            }
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Long technicianId;
+        private final ArrayDeque<Supplier<SseEmitter.SseEventBuilder>> buffer = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private boolean overflowed;
+        // Поток, который сейчас пишет подписчику, и начало записи; изменяются под sendLock
+        private final Object sendLock = new Object();
+        private Thread sendingThread;
+        private long sendStartedAt;
+
+        private Subscriber(SseEmitter emitter, Long technicianId) {
+            this.emitter = emitter;
+            this.technicianId = technicianId;
+        }
+
+        private void offer(Supplier<SseEmitter.SseEventBuilder> event) {
+            synchronized (buffer) {
+                if (buffer.size() >= bufferSize) {
+                    buffer.pollFirst();
+                    overflowed = true;
+                    dropped.increment();
+                }
+                buffer.addLast(event);
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (TaskRejectedException e) {
+                    draining.set(false);
+                    drop("очередь отправки ленты переполнена");
+                }
+            }
+        }
+
+        private boolean isStalled(long now) {
+            synchronized (sendLock) {
+                return sendingThread != null && now - sendStartedAt > sendTimeoutNanos;
+            }
+        }
+
+        private void drop(String reason) {
+            if (!subscribers.remove(this)) {
+                return;
+            }
+            disconnected.increment();
+            log.debug("Подписчик ленты заявок отключён: {}", reason);
+            synchronized (buffer) {
+                buffer.clear();
+            }
+            synchronized (sendLock) {
+                if (sendingThread != null) {
+                    // Прерывание освобождает поток, если запись контейнера его поддерживает;
+                    // иначе поток вернётся по таймауту записи Tomcat, соединение закроет drain
+                    sendingThread.interrupt();
+                    return;
+                }
+            }
+            emitter.complete();
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            synchronized (sendLock) {
+                sendingThread = Thread.currentThread();
+                sendStartedAt = System.nanoTime();
+            }
+            try {
+                emitter.send(event);
+            } finally {
+                synchronized (sendLock) {
+                    sendingThread = null;
+                    // Прерывание от drop не должно достаться следующей задаче пула
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    Supplier<SseEmitter.SseEventBuilder> next;
+                    boolean lost;
+                    synchronized (buffer) {
+                        next = buffer.pollFirst();
+                        lost = overflowed;
+                        overflowed = false;
+                    }
+                    if (!subscribers.contains(this)) {
+                        // Отключён по таймауту отправки
+                        emitter.complete();
+                        return;
+                    }
+                    if (lost) {
+                        send(SseEmitter.event().name("resync").data(""));
+                    }
+                    if (next == null) {
+                        break;
+                    }
+                    send(next.get());
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Клиент отключился или соединение уже закрыто
+                log.debug("Подписчик ленты заявок отключён: {}", e.getMessage());
+                subscribers.remove(this);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // Сообщение могло прийти между опустошением буфера и сбросом флага
+            boolean pending;
+            synchronized (buffer) {
+                pending = !buffer.isEmpty();
+            }
+            if (pending) {
+                scheduleDrain();
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package io.github.nimv1.repair.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.github.nimv1.repair.dto.ImportResult;
+import io.github.nimv1.repair.dto.OrderImportRow;
+import io.github.nimv1.repair.entity.OrderSearchKeys;
+import io.github.nimv1.repair.entity.RepairOrder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Потоковый импорт заявок из CSV и JSON.
+ * <p>
+ * Строки читаются по одной через {@link MappingIterator} и сохраняются порциями
+ * по {@code chunkSize}: каждая порция — отдельная транзакция с пакетной вставкой,
+ * после которой контекст персистентности очищается. Память не зависит от размера файла;
+ * при сбое уже сохранённые порции остаются в БД.
+ * <p>
+ * Перед сохранением строка проверяется на обязательные поля и ограничения колонок
+ * {@code repair_orders}. Если порция всё же не сохранилась, она повторяется построчно,
+ * каждая строка в своей транзакции: отклоняются только строки с ошибкой.
+ */
+@Service
+@Slf4j
+public class OrderImportService {
+
+    // Ограничения колонок repair_orders (V1__initial_schema.sql, V7__OrderSearchIndexes)
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final int MAX_DESCRIPTION_LENGTH = 2000;
+    private static final int MAX_PHONE_KEY_LENGTH = 32;
+    private static final int MAX_SERIAL_KEY_LENGTH = 100;
+    private static final int COST_PRECISION = 38;
+    private static final int COST_SCALE = 2;
+
+    private final RepairOrderService orderService;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+    private final ObjectReader csvReader;
+    private final ObjectReader jsonReader;
+
+    public OrderImportService(RepairOrderService orderService,
+                              OrderNumberGenerator orderNumberGenerator,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${repair.orders.import.chunk-size:500}") int chunkSize,
+                              @Value("${repair.orders.import.max-reported-errors:100}") int maxReportedErrors) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Размер порции импорта должен быть положительным");
+        }
+        this.orderService = orderService;
+        this.orderNumberGenerator = orderNumberGenerator;
+        this.entityManager = entityManager;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.csvReader = CsvMapper.builder()
+                .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build()
+                .readerFor(OrderImportRow.class)
+                .with(CsvSchema.emptySchema().withHeader());
+        this.jsonReader = JsonMapper.builder()
+                .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build()
+                .readerFor(OrderImportRow.class);
+    }
+
+    /**
+     * Импорт CSV с заголовком; порядок колонок произвольный, лишние колонки игнорируются.
+     */
+    public ImportResult importCsv(InputStream in) throws IOException {
+        return importRows(csvReader.readValues(in));
+    }
+
+    /**
+     * Импорт JSON-массива объектов (или последовательности объектов).
+     */
+    public ImportResult importJson(InputStream in) throws IOException {
+        return importRows(jsonReader.readValues(in));
+    }
+
+    private ImportResult importRows(MappingIterator<OrderImportRow> rows) throws IOException {
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+        List<String> errors = new ArrayList<>();
+        Counts counts = new Counts();
+        long record = 0;
+        try (rows) {
+            while (true) {
+                OrderImportRow row;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    record++;
+                    row = rows.nextValue();
+                } catch (JsonMappingException e) {
+                    // Запись не подходит под формат — пропускаем, итератор уже перешёл к следующей
+                    counts.rejected++;
+                    addError(errors, "Запись " + record + ": " + e.getOriginalMessage());
+                    continue;
+                } catch (JsonProcessingException e) {
+                    // Синтаксическая ошибка: продолжить разбор потока нельзя
+                    addError(errors, "Импорт прерван на записи " + record + ": " + e.getOriginalMessage());
+                    break;
+                }
+                String problem = validate(row);
+                if (problem != null) {
+                    counts.rejected++;
+                    addError(errors, "Запись " + record + ": " + problem);
+                    continue;
+                }
+                chunk.add(new PendingRow(record, row));
+                if (chunk.size() >= chunkSize) {
+                    persistChunk(chunk, errors, counts);
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            persistChunk(chunk, errors, counts);
+        }
+        log.info("Импорт заявок завершён: создано {}, отклонено {}", counts.imported, counts.rejected);
+        return new ImportResult(counts.imported, counts.rejected, errors);
+    }
+
+    /**
+     * Сохраняет порцию одной транзакцией; при ошибке повторяет её построчно.
+     */
+    private void persistChunk(List<PendingRow> chunk, List<String> errors, Counts counts) {
+        try {
+            save(chunk);
+            counts.imported += chunk.size();
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            log.warn("Порция импорта с записи {} не сохранена, повтор по строкам: {}",
+                    chunk.get(0).record(), e.getMessage());
+            for (PendingRow row : chunk) {
+                try {
+                    save(List.of(row));
+                    counts.imported++;
+                } catch (DataAccessException | PersistenceException | TransactionException rowError) {
+                    counts.rejected++;
+                    addError(errors, "Запись " + row.record() + ": не сохранена: "
+                            + NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+        }
+        chunk.clear();
+    }
+
+    private void save(List<PendingRow> rows) {
+        // Заявка строится заново: объекты из откатившейся порции уже получили id и номер
+        List<RepairOrder> orders = rows.stream().map(row -> row.row().toOrder()).toList();
+        // Номера резервируются до транзакции порции: пополнение блока номеров берёт своё
+        // соединение из пула и не должно ждать его, пока порция держит первое
+        orders.forEach(order -> order.setOrderNumber(orderNumberGenerator.nextOrderNumber()));
+        chunkTransaction.executeWithoutResult(status -> {
+            orders.forEach(orderService::createNumberedOrder);
+            // Очистка обязательна: при open-in-view контекст живёт весь запрос
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private static String validate(OrderImportRow row) {
+        if (isBlank(row.clientName())) {
+            return "не указано имя клиента";
+        }
+        if (isBlank(row.clientPhone())) {
+            return "не указан телефон клиента";
+        }
+        if (isBlank(row.applianceType())) {
+            return "не указан тип техники";
+        }
+        String problem = firstNonNull(
+                tooLong("имя клиента", row.clientName(), MAX_TEXT_LENGTH),
+                tooLong("телефон клиента", row.clientPhone(), MAX_TEXT_LENGTH),
+                tooLong("email клиента", row.clientEmail(), MAX_TEXT_LENGTH),
+                tooLong("адрес клиента", row.clientAddress(), MAX_TEXT_LENGTH),
+                tooLong("тип техники", row.applianceType(), MAX_TEXT_LENGTH),
+                tooLong("бренд", row.applianceBrand(), MAX_TEXT_LENGTH),
+                tooLong("модель", row.applianceModel(), MAX_TEXT_LENGTH),
+                tooLong("серийный номер", row.serialNumber(), MAX_TEXT_LENGTH),
+                tooLong("описание проблемы", row.problemDescription(), MAX_DESCRIPTION_LENGTH),
+                // Ключи поиска вычисляются при записи и хранятся в более коротких колонках
+                tooLong("телефон клиента (цифры)", OrderSearchKeys.phoneKey(row.clientPhone()), MAX_PHONE_KEY_LENGTH),
+                tooLong("серийный номер (без разделителей)", OrderSearchKeys.serialKey(row.serialNumber()),
+                        MAX_SERIAL_KEY_LENGTH));
+        if (problem != null) {
+            return problem;
+        }
+        BigDecimal cost = row.estimatedCost();
+        if (cost != null && (cost.scale() > COST_SCALE || cost.precision() - cost.scale() > COST_PRECISION - COST_SCALE)) {
+            return "стоимость должна содержать не больше " + (COST_PRECISION - COST_SCALE)
+                    + " цифр до запятой и " + COST_SCALE + " после";
+        }
+        return null;
+    }
+
+    private static String tooLong(String field, String value, int maxLength) {
+        return value != null && value.length() > maxLength
+                ? field + " длиннее " + maxLength + " символов"
+                : null;
+    }
+
+    private static String firstNonNull(String... problems) {
+        for (String problem : problems) {
+            if (problem != null) {
+                return problem;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private void addError(List<String> errors, String error) {
+        if (errors.size() < maxReportedErrors) {
+            errors.add(error);
+        }
+    }
+
+    private record PendingRow(long record, OrderImportRow row) {
+    }
+
+    private static final class Counts {
+
+        private long imported;
+        private long rejected;
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.config.PrimaryReads;
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Метрики жизненного цикла заявок:
+ * <ul>
+ *     <li>{@code repair.orders.transitions} — счётчик переходов (теги from, to);</li>
+ *     <li>{@code repair.orders.stage.duration} — длительность этапов (тег stage):
+ *         assignment (создание → назначение), start (назначение → начало ремонта),
+ *         repair (начало → завершение), total (создание → завершение);</li>
+ *     <li>{@code repair.orders.active} — открытые заявки по технику (тег technician),
+ *         обновляется по расписанию одним GROUP BY по основной БД.</li>
+ * </ul>
+ */
+@Component
+public class OrderLifecycleMetrics {
+
+    private final MeterRegistry registry;
+    private final RepairOrderService orderService;
+    private final PrimaryReads primaryReads;
+    private final MultiGauge activeByTechnician;
+
+    public OrderLifecycleMetrics(MeterRegistry registry, RepairOrderService orderService, PrimaryReads primaryReads) {
+        this.registry = registry;
+        this.orderService = orderService;
+        this.primaryReads = primaryReads;
+        this.activeByTechnician = MultiGauge.builder("repair.orders.active")
+                .description("Открытые заявки по технику")
+                .register(registry);
+    }
+
+    /**
+     * Учитывает переход только после успешного коммита транзакции.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        RepairOrder.OrderStatus from = event.previousStatus();
+        registry.counter("repair.orders.transitions",
+                "from", from == null ? "NONE" : from.name(),
+                "to", event.newStatus().name()).increment();
+
+        OrderStatusChangedEvent.Timeline timeline = event.timeline();
+        switch (event.newStatus()) {
+            case ASSIGNED -> {
+                // Повторное назначение не начинает этап заново
+                if (from == RepairOrder.OrderStatus.ACCEPTED) {
+                    recordStage("assignment", timeline.createdAt(), timeline.assignedAt());
+                }
+            }
+            case IN_PROGRESS -> {
+                if (from != RepairOrder.OrderStatus.WAITING_PARTS) {
+                    recordStage("start", timeline.assignedAt(), timeline.startedAt());
+                }
+            }
+            case COMPLETED -> {
+                recordStage("repair", timeline.startedAt(), timeline.completedAt());
+                recordStage("total", timeline.createdAt(), timeline.completedAt());
+            }
+            default -> { }
+        }
+    }
+
+    private void recordStage(String stage, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            return;
+        }
+        Timer.builder("repair.orders.stage.duration")
+                .description("Длительность этапа заявки")
+                .tag("stage", stage)
+                .register(registry)
+                .record(Duration.between(from, to));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${repair.metrics.technician-gauge-interval:PT1M}",
+            fixedDelayString = "${repair.metrics.technician-gauge-interval:PT1M}")
+    public void refreshActiveByTechnician() {
+        List<MultiGauge.Row<?>> rows = primaryReads.read(orderService::countActiveOrdersByTechnician).entrySet().stream()
+                .<MultiGauge.Row<?>>map(e -> MultiGauge.Row.of(Tags.of("technician", String.valueOf(e.getKey())),
+                        e.getValue()))
+                .toList();
+        // overwrite = true: техники без открытых заявок исчезают из метрики
+        activeByTechnician.register(rows, true);
+    }
+}
@@ -0,0 +1,9 @@
+package io.github.nimv1.repair.service;
+
+/**
+ * Генератор уникальных номеров заявок.
+ */
+public interface OrderNumberGenerator {
+
+    String nextOrderNumber();
+}
@@ -0,0 +1,74 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.config.PrimaryReads;
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.event.OrderStatusChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Счётчики заявок по статусам для дашборда.
+ * Заполняются из БД при старте, обновляются по событиям смены статуса
+ * и периодически сверяются с БД, поэтому чтение не требует SQL.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderStatusCounters {
+
+    private static final RepairOrder.OrderStatus[] STATUSES = RepairOrder.OrderStatus.values();
+
+    private final RepairOrderService orderService;
+    private final PrimaryReads primaryReads;
+    private final AtomicLongArray counters = new AtomicLongArray(STATUSES.length);
+
+    public long get(RepairOrder.OrderStatus status) {
+        return counters.get(status.ordinal());
+    }
+
+    /**
+     * Учитывает смену статуса только после успешного коммита транзакции.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (event.previousStatus() == event.newStatus()) {
+            return;
+        }
+        if (event.previousStatus() != null) {
+            counters.decrementAndGet(event.previousStatus().ordinal());
+        }
+        counters.incrementAndGet(event.newStatus().ordinal());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        reconcile();
+        log.debug("Счётчики заявок по статусам загружены из БД");
+    }
+
+    /**
+     * Сверка с БД: исправляет расхождения, например после изменений
+     * с других узлов или в обход сервиса. Читает из основной БД: отстающая реплика
+     * вернула бы старые значения поверх уже учтённых событий.
+     */
+    @Scheduled(initialDelayString = "${repair.dashboard.counters.reconcile-interval:PT5M}",
+            fixedDelayString = "${repair.dashboard.counters.reconcile-interval:PT5M}")
+    public void reconcile() {
+        Map<RepairOrder.OrderStatus, Long> counts = primaryReads.read(orderService::countAllByStatus);
+        for (RepairOrder.OrderStatus status : STATUSES) {
+            long actual = counts.get(status);
+            long cached = counters.getAndSet(status.ordinal(), actual);
+            if (cached != actual) {
+                log.debug("Счётчик {} исправлен при сверке: {} -> {}", status, cached, actual);
+            }
+        }
+    }
+}
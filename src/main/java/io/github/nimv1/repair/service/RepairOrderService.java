@@ -1,56 +1,151 @@
 package io.github.nimv1.repair.service;
 
+import io.github.nimv1.repair.dto.BulkOperationResult;
+import io.github.nimv1.repair.dto.GroupCount;
+import io.github.nimv1.repair.dto.KeysetPage;
+import io.github.nimv1.repair.dto.OrderLoad;
+import io.github.nimv1.repair.dto.OrderCursor;
+import io.github.nimv1.repair.dto.OrderSearchCriteria;
+import io.github.nimv1.repair.dto.OrderStatistics;
+import io.github.nimv1.repair.dto.OrderSummary;
 import io.github.nimv1.repair.entity.RepairOrder;
 import io.github.nimv1.repair.entity.User;
+import io.github.nimv1.repair.event.OrderStatusChangedEvent;
 import io.github.nimv1.repair.repository.RepairOrderRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.ToIntBiFunction;
 
 /**
  * Сервис для работы с заявками на ремонт.
+ * Каждый публичный метод измеряется таймером {@code repair.orders.service} (теги class, method, exception).
+ * Методы чтения выполняются в read-only транзакциях: без dirty checking и flush,
+ * а при настроенных репликах — на реплике (см. ReadReplicaDataSourceConfig).
  */
 @Service
+@Timed("repair.orders.service")
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class RepairOrderService {
 
+    /** Статусы, в которых заявка находится в работе у техника. */
+    public static final List<RepairOrder.OrderStatus> ACTIVE_STATUSES = List.of(
+            RepairOrder.OrderStatus.ASSIGNED,
+            RepairOrder.OrderStatus.SCHEDULED,
+            RepairOrder.OrderStatus.IN_PROGRESS,
+            RepairOrder.OrderStatus.WAITING_PARTS);
+
+    private static final int MAX_TRANSITION_ATTEMPTS = 3;
+
     private final RepairOrderRepository orderRepository;
-    private final AtomicLong orderCounter = new AtomicLong(System.currentTimeMillis() % 100000);
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final VisitCalendar visitCalendar;
+    private final TransactionOperations transactionOperations;
 
-    @Transactional
+    /**
+     * Создаёт заявку. Номер резервируется до открытия транзакции: пополнение блока номеров
+     * берёт из пула своё соединение, и если каждый вызывающий уже держит одно,
+     * при {@code maximum-pool-size} одновременных созданиях пул исчерпывается.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public RepairOrder createOrder(RepairOrder order) {
-        order.setOrderNumber(generateOrderNumber());
-        order.setStatus(RepairOrder.OrderStatus.NEW);
-        return orderRepository.save(order);
+        order.setOrderNumber(orderNumberGenerator.nextOrderNumber());
+        return transactionOperations.execute(status -> createNumberedOrder(order));
     }
 
-    private String generateOrderNumber() {
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        return "REP-" + date + "-" + String.format("%05d", orderCounter.incrementAndGet());
+    /**
+     * Сохраняет новую заявку с уже зарезервированным номером (см. {@link OrderNumberGenerator}).
+     * Для пакетных вставок: номера резервируются до открытия транзакции порции.
+     */
+    @Transactional
+    public RepairOrder createNumberedOrder(RepairOrder order) {
+        if (order.getOrderNumber() == null) {
+            throw new IllegalArgumentException("Номер заявки должен быть зарезервирован заранее");
+        }
+        order.setStatus(RepairOrder.OrderStatus.NEW);
+        RepairOrder saved = orderRepository.save(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.created(saved));
+        return saved;
     }
 
     public Optional<RepairOrder> findById(Long id) {
-        return orderRepository.findById(id);
+        return orderRepository.findWithUsersById(id);
     }
 
     public Optional<RepairOrder> findByOrderNumber(String orderNumber) {
         return orderRepository.findByOrderNumber(orderNumber);
     }
 
-    public Page<RepairOrder> findAll(Pageable pageable) {
-        return orderRepository.findAll(pageable);
+    public Page<OrderSummary> findAll(Pageable pageable) {
+        return orderRepository.findSummaries(pageable);
+    }
+
+    /**
+     * Keyset-пагинация списка заявок (новые сверху).
+     *
+     * @param after  курсор, после которого нужна следующая (более старая) страница
+     * @param before курсор, перед которым нужна предыдущая (более новая) страница
+     * @param size   размер страницы
+     */
+    public KeysetPage<OrderSummary> findPage(String after, String before, int size) {
+        Pageable limit = PageRequest.ofSize(size);
+        if (before != null) {
+            OrderCursor cursor = OrderCursor.decode(before);
+            Slice<OrderSummary> slice = orderRepository.findNewerThan(cursor.createdAt(), cursor.id(), limit);
+            List<OrderSummary> content = new ArrayList<>(slice.getContent());
+            if (content.isEmpty()) {
+                return findPage(null, null, size);
+            }
+            Collections.reverse(content);
+            return keysetPage(content, slice.hasNext(), true);
+        }
+        if (after != null) {
+            OrderCursor cursor = OrderCursor.decode(after);
+            Slice<OrderSummary> slice = orderRepository.findOlderThan(cursor.createdAt(), cursor.id(), limit);
+            return keysetPage(slice.getContent(), true, slice.hasNext());
+        }
+        Slice<OrderSummary> slice = orderRepository.findLatest(limit);
+        return keysetPage(slice.getContent(), false, slice.hasNext());
+    }
+
+    private KeysetPage<OrderSummary> keysetPage(List<OrderSummary> content, boolean hasPrevious, boolean hasNext) {
+        if (content.isEmpty()) {
+            return new KeysetPage<>(content, null, null);
+        }
+        String prev = hasPrevious ? OrderCursor.of(content.get(0)).encode() : null;
+        String next = hasNext ? OrderCursor.of(content.get(content.size() - 1)).encode() : null;
+        return new KeysetPage<>(content, prev, next);
     }
 
     public List<RepairOrder> findByStatus(RepairOrder.OrderStatus status) {
-        return orderRepository.findByStatus(status);
+        return orderRepository.findWithUsersByStatus(status);
     }
 
     public Page<RepairOrder> findByTechnician(Long technicianId, Pageable pageable) {
@@ -61,83 +156,238 @@ public class RepairOrderService {
         return orderRepository.findByManagerId(managerId, pageable);
     }
 
-    public List<RepairOrder> findNewOrders() {
-        return orderRepository.findByStatus(RepairOrder.OrderStatus.NEW);
+    /**
+     * Поиск заявок по фильтрам, новые сверху.
+     *
+     * @param page номер страницы (с нуля)
+     * @param size размер страницы
+     */
+    public List<OrderSummary> search(OrderSearchCriteria criteria, int page, int size) {
+        return orderRepository.search(criteria, page * size, size);
+    }
+
+    public List<OrderSummary> findNewOrders() {
+        return orderRepository.findSummariesByStatus(RepairOrder.OrderStatus.NEW);
     }
 
-    public List<RepairOrder> findActiveOrdersForTechnician(Long technicianId) {
-        return orderRepository.findByTechnicianIdAndStatusIn(
-                technicianId,
-                List.of(RepairOrder.OrderStatus.ASSIGNED,
-                        RepairOrder.OrderStatus.SCHEDULED,
-                        RepairOrder.OrderStatus.IN_PROGRESS,
-                        RepairOrder.OrderStatus.WAITING_PARTS)
-        );
+    public List<OrderSummary> findActiveOrdersForTechnician(Long technicianId) {
+        return orderRepository.findSummariesByTechnicianIdAndStatusIn(technicianId, ACTIVE_STATUSES);
+    }
+
+    /**
+     * Заявки, ожидающие назначения техника: новые и принятые.
+     */
+    public List<OrderSummary> findUnassignedOrders() {
+        List<OrderSummary> result = new ArrayList<>(orderRepository.findSummariesByStatus(RepairOrder.OrderStatus.NEW));
+        result.addAll(orderRepository.findSummariesByStatus(RepairOrder.OrderStatus.ACCEPTED));
+        return result;
+    }
+
+    /**
+     * Открытые заявки с назначенным техником — исходные данные для индекса загрузки.
+     */
+    public List<OrderLoad> findActiveLoads() {
+        return orderRepository.findLoads(ACTIVE_STATUSES);
     }
 
     @Transactional
     public RepairOrder acceptOrder(Long orderId, User manager) {
-        RepairOrder order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Заявка не найдена"));
-        order.setStatus(RepairOrder.OrderStatus.ACCEPTED);
-        order.setManager(manager);
-        return orderRepository.save(order);
+        return acceptOrder(orderId, null, manager);
+    }
+
+    /**
+     * Принимает заявку.
+     *
+     * @param expectedVersion версия заявки, которую видел пользователь; {@code null} — без проверки версии
+     */
+    @Transactional
+    public RepairOrder acceptOrder(Long orderId, Long expectedVersion, User manager) {
+        return transition(orderId, expectedVersion, RepairOrder.OrderStatus.ACCEPTED,
+                (sources, version) -> orderRepository.transitionWithManager(orderId, sources, version,
+                        RepairOrder.OrderStatus.ACCEPTED, manager));
     }
 
     @Transactional
     public RepairOrder assignTechnician(Long orderId, User technician) {
-        RepairOrder order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Заявка не найдена"));
-        order.setStatus(RepairOrder.OrderStatus.ASSIGNED);
-        order.setTechnician(technician);
-        order.setAssignedAt(LocalDateTime.now());
-        return orderRepository.save(order);
+        return assignTechnician(orderId, null, technician);
+    }
+
+    @Transactional
+    public RepairOrder assignTechnician(Long orderId, Long expectedVersion, User technician) {
+        LocalDateTime assignedAt = LocalDateTime.now();
+        return transition(orderId, expectedVersion, RepairOrder.OrderStatus.ASSIGNED,
+                (sources, version) -> orderRepository.transitionWithTechnician(orderId, sources, version,
+                        RepairOrder.OrderStatus.ASSIGNED, technician, assignedAt));
     }
 
     @Transactional
     public RepairOrder scheduleVisit(Long orderId, LocalDateTime scheduledAt) {
-        RepairOrder order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Заявка не найдена"));
-        order.setStatus(RepairOrder.OrderStatus.SCHEDULED);
-        order.setScheduledAt(scheduledAt);
-        return orderRepository.save(order);
+        return scheduleVisit(orderId, null, scheduledAt);
+    }
+
+    /**
+     * Планирует или переносит визит.
+     *
+     * @throws IllegalStateException если у техника уже есть визит в это время (см. {@link VisitCalendar})
+     */
+    @Transactional
+    public RepairOrder scheduleVisit(Long orderId, Long expectedVersion, LocalDateTime scheduledAt) {
+        RepairOrder order = transition(orderId, expectedVersion, RepairOrder.OrderStatus.SCHEDULED,
+                (sources, version) -> orderRepository.transitionWithSchedule(orderId, sources, version,
+                        RepairOrder.OrderStatus.SCHEDULED, scheduledAt));
+        // Резерв окна после UPDATE: при пересечении исключение откатывает транзакцию
+        visitCalendar.book(orderId, order.getTechnician().getId(), scheduledAt);
+        return order;
     }
 
     @Transactional
     public RepairOrder startRepair(Long orderId) {
-        RepairOrder order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Заявка не найдена"));
-        order.setStatus(RepairOrder.OrderStatus.IN_PROGRESS);
-        order.setStartedAt(LocalDateTime.now());
-        return orderRepository.save(order);
+        return startRepair(orderId, null);
+    }
+
+    @Transactional
+    public RepairOrder startRepair(Long orderId, Long expectedVersion) {
+        // Возврат из ожидания запчастей не сбрасывает дату начала ремонта (COALESCE в UPDATE)
+        LocalDateTime startedAt = LocalDateTime.now();
+        return transition(orderId, expectedVersion, RepairOrder.OrderStatus.IN_PROGRESS,
+                (sources, version) -> orderRepository.transitionWithStart(orderId, sources, version,
+                        RepairOrder.OrderStatus.IN_PROGRESS, startedAt));
     }
 
     @Transactional
     public RepairOrder completeRepair(Long orderId, String repairNotes, String partsUsed, java.math.BigDecimal finalCost) {
-        RepairOrder order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Заявка не найдена"));
-        order.setStatus(RepairOrder.OrderStatus.COMPLETED);
-        order.setCompletedAt(LocalDateTime.now());
-        order.setRepairNotes(repairNotes);
-        order.setPartsUsed(partsUsed);
-        order.setFinalCost(finalCost);
-        return orderRepository.save(order);
+        return completeRepair(orderId, null, repairNotes, partsUsed, finalCost);
+    }
+
+    @Transactional
+    public RepairOrder completeRepair(Long orderId, Long expectedVersion, String repairNotes, String partsUsed,
+                                      java.math.BigDecimal finalCost) {
+        LocalDateTime completedAt = LocalDateTime.now();
+        return transition(orderId, expectedVersion, RepairOrder.OrderStatus.COMPLETED,
+                (sources, version) -> orderRepository.transitionWithCompletion(orderId, sources, version,
+                        RepairOrder.OrderStatus.COMPLETED, completedAt, repairNotes, partsUsed, finalCost));
     }
 
     @Transactional
     public RepairOrder cancelOrder(Long orderId) {
-        RepairOrder order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Заявка не найдена"));
-        order.setStatus(RepairOrder.OrderStatus.CANCELLED);
-        return orderRepository.save(order);
+        return cancelOrder(orderId, null);
+    }
+
+    @Transactional
+    public RepairOrder cancelOrder(Long orderId, Long expectedVersion) {
+        return transition(orderId, expectedVersion, RepairOrder.OrderStatus.CANCELLED,
+                (sources, version) -> orderRepository.transitionStatus(orderId, sources, version,
+                        RepairOrder.OrderStatus.CANCELLED));
     }
 
     @Transactional
     public RepairOrder setWaitingParts(Long orderId) {
-        RepairOrder order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Заявка не найдена"));
-        order.setStatus(RepairOrder.OrderStatus.WAITING_PARTS);
-        return orderRepository.save(order);
+        return setWaitingParts(orderId, null);
+    }
+
+    @Transactional
+    public RepairOrder setWaitingParts(Long orderId, Long expectedVersion) {
+        return transition(orderId, expectedVersion, RepairOrder.OrderStatus.WAITING_PARTS,
+                (sources, version) -> orderRepository.transitionStatus(orderId, sources, version,
+                        RepairOrder.OrderStatus.WAITING_PARTS));
+    }
+
+    /**
+     * Принимает несколько заявок в одной транзакции.
+     */
+    @Transactional
+    public BulkOperationResult acceptOrders(Collection<Long> orderIds, User manager) {
+        return bulkTransition(orderIds, RepairOrder.OrderStatus.ACCEPTED, order -> order.setManager(manager));
+    }
+
+    /**
+     * Назначает техника на несколько заявок в одной транзакции.
+     */
+    @Transactional
+    public BulkOperationResult assignTechnician(Collection<Long> orderIds, User technician) {
+        LocalDateTime assignedAt = LocalDateTime.now();
+        return bulkTransition(orderIds, RepairOrder.OrderStatus.ASSIGNED, order -> {
+            order.setTechnician(technician);
+            order.setAssignedAt(assignedAt);
+        });
+    }
+
+    /**
+     * Отменяет несколько заявок в одной транзакции.
+     */
+    @Transactional
+    public BulkOperationResult cancelOrders(Collection<Long> orderIds) {
+        return bulkTransition(orderIds, RepairOrder.OrderStatus.CANCELLED, order -> { });
+    }
+
+    /**
+     * Массовый переход статуса: заявки читаются одним запросом, изменяются в контексте
+     * персистентности и при коммите уходят пакетом UPDATE ... WHERE id = ? AND version = ?
+     * (hibernate.jdbc.batch_size). Заявки с недопустимым переходом или отсутствующие
+     * пропускаются; параллельное изменение любой из заявок откатывает всю операцию.
+     */
+    private BulkOperationResult bulkTransition(Collection<Long> orderIds, RepairOrder.OrderStatus target,
+                                               Consumer<RepairOrder> changes) {
+        Map<Long, RepairOrder> orders = orderRepository.findAllById(new LinkedHashSet<>(orderIds)).stream()
+                .collect(Collectors.toMap(RepairOrder::getId, Function.identity()));
+        List<Long> updated = new ArrayList<>();
+        Map<Long, String> rejected = new LinkedHashMap<>();
+        for (Long id : new LinkedHashSet<>(orderIds)) {
+            RepairOrder order = orders.get(id);
+            if (order == null) {
+                rejected.put(id, "Заявка не найдена");
+                continue;
+            }
+            RepairOrder.OrderStatus previousStatus = order.getStatus();
+            if (!previousStatus.canTransitionTo(target)) {
+                rejected.put(id, "Недопустимый переход " + previousStatus + " -> " + target);
+                continue;
+            }
+            changes.accept(order);
+            order.setPreviousStatus(previousStatus);
+            order.setStatus(target);
+            eventPublisher.publishEvent(OrderStatusChangedEvent.changed(order, previousStatus));
+            updated.add(id);
+        }
+        return new BulkOperationResult(updated, rejected);
+    }
+
+    /**
+     * Выполняет переход статуса одним условным UPDATE по допустимым исходным статусам
+     * и, если задана, версии из формы; при успехе перечитывает только эту заявку.
+     * Если ни одна строка не изменена, заявка читается, чтобы отличить недопустимый переход
+     * и устаревшую форму от параллельного изменения: в последнем случае попытка повторяется,
+     * но не более {@link #MAX_TRANSITION_ATTEMPTS} раз.
+     *
+     * @param update условный UPDATE по допустимым статусам и версии; возвращает число изменённых строк
+     * @throws IllegalStateException            если переход недопустим
+     * @throws OptimisticLockingFailureException если версия устарела или попытки исчерпаны
+     */
+    private RepairOrder transition(Long orderId, Long expectedVersion, RepairOrder.OrderStatus target,
+                                   ToIntBiFunction<Set<RepairOrder.OrderStatus>, Long> update) {
+        Set<RepairOrder.OrderStatus> sources = RepairOrder.OrderStatus.sourcesOf(target);
+        for (int attempt = 1; ; attempt++) {
+            if (update.applyAsInt(sources, expectedVersion) == 1) {
+                RepairOrder order = orderRepository.reload(orderId)
+                        .orElseThrow(() -> new IllegalArgumentException("Заявка не найдена"));
+                eventPublisher.publishEvent(OrderStatusChangedEvent.changed(order, order.getPreviousStatus()));
+                return order;
+            }
+            RepairOrder current = orderRepository.reload(orderId)
+                    .orElseThrow(() -> new IllegalArgumentException("Заявка не найдена"));
+            if (!current.getStatus().canTransitionTo(target)) {
+                throw new IllegalStateException(
+                        "Недопустимый переход заявки " + current.getOrderNumber() + ": " + current.getStatus() + " -> " + target);
+            }
+            if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+                throw new OptimisticLockingFailureException(
+                        "Заявка " + current.getOrderNumber() + " изменена другим пользователем, обновите страницу");
+            }
+            if (attempt >= MAX_TRANSITION_ATTEMPTS) {
+                throw new OptimisticLockingFailureException(
+                        "Заявка " + current.getOrderNumber() + " изменена другим пользователем, повторите действие");
+            }
+        }
     }
 
     // Статистика
@@ -148,4 +398,49 @@ public class RepairOrderService {
     public long countActiveOrdersForTechnician(Long technicianId) {
         return orderRepository.countByTechnicianIdAndStatus(technicianId, RepairOrder.OrderStatus.IN_PROGRESS);
     }
+
+    /**
+     * Количество заявок по всем статусам одним запросом с GROUP BY.
+     * Статусы без заявок присутствуют в результате со значением 0.
+     */
+    public Map<RepairOrder.OrderStatus, Long> countAllByStatus() {
+        Map<RepairOrder.OrderStatus, Long> result = new EnumMap<>(RepairOrder.OrderStatus.class);
+        for (RepairOrder.OrderStatus status : RepairOrder.OrderStatus.values()) {
+            result.put(status, 0L);
+        }
+        for (GroupCount<RepairOrder.OrderStatus> row : orderRepository.countGroupedByStatus()) {
+            result.put(row.getGroupKey(), row.getTotal());
+        }
+        return result;
+    }
+
+    public Map<RepairOrder.Priority, Long> countAllByPriority() {
+        Map<RepairOrder.Priority, Long> result = new EnumMap<>(RepairOrder.Priority.class);
+        for (RepairOrder.Priority priority : RepairOrder.Priority.values()) {
+            result.put(priority, 0L);
+        }
+        for (GroupCount<RepairOrder.Priority> row : orderRepository.countGroupedByPriority()) {
+            if (row.getGroupKey() != null) {
+                result.put(row.getGroupKey(), row.getTotal());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Количество активных заявок по id техника; техники без заявок не попадают в результат.
+     */
+    public Map<Long, Long> countActiveOrdersByTechnician() {
+        Map<Long, Long> result = new HashMap<>();
+        for (GroupCount<Long> row : orderRepository.countGroupedByTechnician(ACTIVE_STATUSES)) {
+            result.put(row.getGroupKey(), row.getTotal());
+        }
+        return result;
+    }
+
+    public OrderStatistics getStatistics() {
+        Map<RepairOrder.OrderStatus, Long> byStatus = countAllByStatus();
+        long total = byStatus.values().stream().mapToLong(Long::longValue).sum();
+        return new OrderStatistics(byStatus, countAllByPriority(), countActiveOrdersByTechnician(), total);
+    }
 }
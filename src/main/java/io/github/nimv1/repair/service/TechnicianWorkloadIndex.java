@@ -0,0 +1,196 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.config.PrimaryReads;
+import io.github.nimv1.repair.dto.OrderLoad;
+import io.github.nimv1.repair.dto.TechnicianWorkload;
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.entity.User;
+import io.github.nimv1.repair.event.OrderStatusChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Загрузка техников в памяти: открытые заявки по статусам и приоритетам,
+ * визиты по дням и взвешенная оценка загрузки.
+ * <p>
+ * Обновляется по событиям смены статуса (после коммита) за O(log n); доступные
+ * техники упорядочены по оценке, поэтому наименее загруженный выбирается за O(log n).
+ * Как и {@link OrderStatusCounters}, индекс заполняется из БД при старте и
+ * периодически перестраивается — это подхватывает новых и отключённых техников
+ * и изменения с других узлов.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TechnicianWorkloadIndex {
+
+    private static final Comparator<Workload> BY_SCORE =
+            Comparator.comparingInt((Workload w) -> w.score).thenComparing(w -> w.technicianId);
+
+    private final RepairOrderService orderService;
+    private final UserService userService;
+    private final PrimaryReads primaryReads;
+
+    private final Map<Long, OrderLoad> loads = new HashMap<>();
+    private final Map<Long, Workload> workloads = new HashMap<>();
+    private final TreeSet<Workload> available = new TreeSet<>(BY_SCORE);
+
+    /**
+     * Вес заявки в оценке загрузки: срочные заявки занимают техника сильнее.
+     */
+    public static int weight(RepairOrder.Priority priority) {
+        if (priority == null) {
+            return 2;
+        }
+        return switch (priority) {
+            case LOW -> 1;
+            case NORMAL -> 2;
+            case HIGH -> 3;
+            case URGENT -> 4;
+        };
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStatusChanged(OrderStatusChangedEvent event) {
+        OrderLoad previous = loads.remove(event.orderId());
+        if (previous != null) {
+            apply(previous, -1);
+        }
+        if (event.technicianId() != null && RepairOrderService.ACTIVE_STATUSES.contains(event.newStatus())) {
+            OrderLoad load = new OrderLoad(event.orderId(), event.technicianId(), event.newStatus(),
+                    event.priority(), event.timeline().scheduledAt());
+            loads.put(load.orderId(), load);
+            apply(load, 1);
+        }
+    }
+
+    /**
+     * Наименее загруженный из доступных (включённых) техников.
+     */
+    public synchronized Optional<Long> leastLoadedTechnician() {
+        return available.isEmpty() ? Optional.empty() : Optional.of(available.first().technicianId);
+    }
+
+    /**
+     * Загрузка доступных техников, от наименее загруженного.
+     */
+    public synchronized List<TechnicianWorkload> availableWorkloads() {
+        List<TechnicianWorkload> result = new ArrayList<>(available.size());
+        for (Workload workload : available) {
+            result.add(workload.snapshot());
+        }
+        return result;
+    }
+
+    public synchronized Optional<TechnicianWorkload> workload(Long technicianId) {
+        return Optional.ofNullable(workloads.get(technicianId)).map(Workload::snapshot);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        rebuild();
+        log.debug("Индекс загрузки техников заполнен из БД");
+    }
+
+    /**
+     * Полная перестройка из БД. Чтение идёт вне блокировки; события, закоммиченные
+     * между чтением и заменой, будут учтены следующей перестройкой. Снимок читается
+     * из основной БД одной транзакцией: с отстающей реплики индекс потерял бы свежие заявки.
+     */
+    @Scheduled(initialDelayString = "${repair.assignment.reconcile-interval:PT5M}",
+            fixedDelayString = "${repair.assignment.reconcile-interval:PT5M}")
+    public void rebuild() {
+        Snapshot snapshot = primaryReads.read(() ->
+                new Snapshot(userService.findAllTechnicians(), orderService.findActiveLoads()));
+        List<User> technicians = snapshot.technicians();
+        List<OrderLoad> activeLoads = snapshot.activeLoads();
+        synchronized (this) {
+            loads.clear();
+            workloads.clear();
+            available.clear();
+            for (User technician : technicians) {
+                workloads.put(technician.getId(), new Workload(technician.getId(), technician.isEnabled()));
+            }
+            for (OrderLoad load : activeLoads) {
+                loads.put(load.orderId(), load);
+                workload(load.technicianId(), false).apply(load, 1);
+            }
+            for (Workload workload : workloads.values()) {
+                if (workload.available) {
+                    available.add(workload);
+                }
+            }
+        }
+    }
+
+    private void apply(OrderLoad load, int sign) {
+        Workload workload = workload(load.technicianId(), false);
+        // Ключ сортировки меняется, поэтому запись переставляется в упорядоченном множестве
+        boolean indexed = workload.available && available.remove(workload);
+        workload.apply(load, sign);
+        if (indexed) {
+            available.add(workload);
+        }
+    }
+
+    private Workload workload(Long technicianId, boolean available) {
+        // Неизвестный техник (создан после перестройки) не участвует в выборе до следующей перестройки
+        return workloads.computeIfAbsent(technicianId, id -> new Workload(id, available));
+    }
+
+    private record Snapshot(List<User> technicians, List<OrderLoad> activeLoads) {
+    }
+
+    private static final class Workload {
+
+        private final Long technicianId;
+        private final boolean available;
+        private final Map<RepairOrder.OrderStatus, Integer> byStatus = new EnumMap<>(RepairOrder.OrderStatus.class);
+        private final Map<RepairOrder.Priority, Integer> byPriority = new EnumMap<>(RepairOrder.Priority.class);
+        private final TreeMap<LocalDate, Integer> visitsByDay = new TreeMap<>();
+        private int score;
+
+        private Workload(Long technicianId, boolean available) {
+            this.technicianId = technicianId;
+            this.available = available;
+        }
+
+        private void apply(OrderLoad load, int sign) {
+            score += sign * weight(load.priority());
+            byStatus.merge(load.status(), sign, Workload::sumOrRemove);
+            if (load.priority() != null) {
+                byPriority.merge(load.priority(), sign, Workload::sumOrRemove);
+            }
+            if (load.scheduledAt() != null) {
+                visitsByDay.merge(load.scheduledAt().toLocalDate(), sign, Workload::sumOrRemove);
+            }
+        }
+
+        private static Integer sumOrRemove(Integer current, Integer delta) {
+            int sum = current + delta;
+            return sum == 0 ? null : sum;
+        }
+
+        private TechnicianWorkload snapshot() {
+            return new TechnicianWorkload(technicianId, score, Map.copyOf(byStatus), Map.copyOf(byPriority),
+                    Collections.unmodifiableSortedMap(new TreeMap<>(visitsByDay)));
+        }
+    }
+}
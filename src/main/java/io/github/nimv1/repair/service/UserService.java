@@ -1,8 +1,11 @@
 package io.github.nimv1.repair.service;
 
+import io.github.nimv1.repair.config.CacheConfig;
 import io.github.nimv1.repair.entity.User;
 import io.github.nimv1.repair.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,15 +16,21 @@ import java.util.Optional;
 
 /**
  * Сервис для работы с пользователями.
+ * Поиск по id, логину и роли кэшируется (см. {@link CacheConfig}); любые изменения
+ * пользователя, кроме отметки о входе, сбрасывают кэши целиком — они редки.
+ * Чтение идёт в read-only транзакциях (при настроенных репликах — на реплике).
  */
 @Service
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final LastLoginRecorder lastLoginRecorder;
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_ROLE, allEntries = true)
     public User createUser(User user) {
         if (userRepository.existsByUsername(user.getUsername())) {
             throw new IllegalArgumentException("Пользователь с таким логином уже существует");
@@ -33,18 +42,22 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_ID, unless = "#result == null")
     public Optional<User> findById(Long id) {
         return userRepository.findById(id);
     }
 
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_USERNAME, unless = "#result == null")
     public Optional<User> findByUsername(String username) {
         return userRepository.findByUsername(username);
     }
 
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_ROLE, key = "'TECHNICIAN'")
     public List<User> findAllTechnicians() {
         return userRepository.findByRole(User.Role.TECHNICIAN);
     }
 
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_ROLE, key = "'MANAGER'")
     public List<User> findAllManagers() {
         return userRepository.findByRole(User.Role.MANAGER);
     }
@@ -58,19 +71,20 @@ public class UserService {
     }
 
     @Transactional
+    @EvictUserCaches
     public User updateUser(User user) {
         return userRepository.save(user);
     }
 
-    @Transactional
+    /**
+     * Отмечает вход пользователя; запись в БД выполняется отложенно пакетом.
+     */
     public void updateLastLogin(String username) {
-        userRepository.findByUsername(username).ifPresent(user -> {
-            user.setLastLoginAt(LocalDateTime.now());
-            userRepository.save(user);
-        });
+        lastLoginRecorder.record(username, LocalDateTime.now());
     }
 
     @Transactional
+    @EvictUserCaches
     public void disableUser(Long id) {
         userRepository.findById(id).ifPresent(user -> {
             user.setEnabled(false);
@@ -79,6 +93,7 @@ public class UserService {
     }
 
     @Transactional
+    @EvictUserCaches
     public void enableUser(Long id) {
         userRepository.findById(id).ifPresent(user -> {
             user.setEnabled(true);
@@ -86,7 +101,20 @@ public class UserService {
         });
     }
 
+    /**
+     * Сохраняет уже вычисленный хэш пароля (перехэширование при входе).
+     */
+    @Transactional
+    @EvictUserCaches
+    public void updatePasswordHash(String username, String encodedPassword) {
+        userRepository.findByUsername(username).ifPresent(user -> {
+            user.setPassword(encodedPassword);
+            userRepository.save(user);
+        });
+    }
+
     @Transactional
+    @EvictUserCaches
     public void changePassword(Long userId, String newPassword) {
         userRepository.findById(userId).ifPresent(user -> {
             user.setPassword(passwordEncoder.encode(newPassword));
@@ -0,0 +1,310 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.config.PrimaryReads;
+import io.github.nimv1.repair.config.VisitScheduleProperties;
+import io.github.nimv1.repair.dto.OrderLoad;
+import io.github.nimv1.repair.dto.VisitSlot;
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.entity.User;
+import io.github.nimv1.repair.event.OrderStatusChangedEvent;
+import io.github.nimv1.repair.repository.RepairOrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Календарь визитов техников в памяти. Заявка в статусе SCHEDULED занимает окно
+ * длительностью {@code repair.schedule.visit-duration}; визиты каждого техника
+ * упорядочены по времени начала, поэтому проверка пересечения — O(log n),
+ * а поиск свободного окна — O(log n) на каждый пропущенный визит, без SQL.
+ * <p>
+ * {@link RepairOrderService#scheduleVisit} резервирует окно в своей транзакции:
+ * пересекающийся визит отклоняется до коммита. После коммита календарь обновляется
+ * событием смены статуса, при откате — перечитывает заявку из БД. Как и
+ * {@link TechnicianWorkloadIndex}, календарь заполняется при старте и периодически
+ * перестраивается. Зависит от репозитория, а не от RepairOrderService, который
+ * сам использует календарь.
+ * <p>
+ * Снимок для перестройки читается без блокировки календаря, поэтому закоммиченные
+ * изменения нумеруются и хранятся, пока их не увидит перестройка, начавшая чтение после них;
+ * более поздние изменения применяются поверх снимка. Снимок и перечитывание после отката
+ * идут в основную БД ({@link PrimaryReads}): с отстающей реплики перестройка потеряла бы
+ * визиты, изменения по которым уже удалены как учтённые, и окно можно было бы занять дважды.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VisitCalendar {
+
+    private static final Comparator<Visit> BY_START =
+            Comparator.comparing(Visit::start).thenComparing(Visit::orderId);
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+
+    private final RepairOrderRepository orderRepository;
+    private final UserService userService;
+    private final VisitScheduleProperties properties;
+    private final PrimaryReads primaryReads;
+
+    private final Map<Long, TreeSet<Visit>> byTechnician = new HashMap<>();
+    private final Map<Long, Visit> visits = new HashMap<>();
+    /** Резервы незавершённых транзакций: переживают перестройку до коммита или отката. */
+    private final Map<Long, Visit> pending = new HashMap<>();
+    /** Последнее закоммиченное изменение по заявке, которое может отсутствовать в снимке перестройки. */
+    private final Map<Long, CommittedChange> recentChanges = new HashMap<>();
+    private final Object rebuildLock = new Object();
+    private long changeSequence;
+
+    /**
+     * Резервирует окно визита для заявки; прежний визит заявки освобождается.
+     *
+     * @throws IllegalStateException если окно пересекается с другим визитом техника
+     */
+    public synchronized void book(Long orderId, Long technicianId, LocalDateTime start) {
+        Visit previous = remove(orderId);
+        Visit conflict = overlapping(byTechnician.get(technicianId), start);
+        if (conflict != null) {
+            if (previous != null) {
+                add(previous);
+            }
+            throw new IllegalStateException("Техник уже занят в это время: визит по заявке #" + conflict.orderId()
+                    + " с " + TIME_FORMAT.format(conflict.start()));
+        }
+        Visit visit = new Visit(orderId, technicianId, start);
+        add(visit);
+        pending.put(orderId, visit);
+    }
+
+    /**
+     * Свободно ли у техника окно, начинающееся в {@code start}.
+     */
+    public synchronized boolean isFree(Long technicianId, LocalDateTime start) {
+        return overlapping(byTechnician.get(technicianId), start) == null;
+    }
+
+    /**
+     * Визиты техника за день в порядке начала.
+     */
+    public synchronized List<VisitSlot> visitsOn(Long technicianId, LocalDate day) {
+        TreeSet<Visit> calendar = byTechnician.get(technicianId);
+        if (calendar == null) {
+            return List.of();
+        }
+        return calendar.subSet(probe(day.atStartOfDay(), Long.MIN_VALUE), true,
+                        probe(day.plusDays(1).atStartOfDay(), Long.MIN_VALUE), false).stream()
+                .map(this::slot)
+                .toList();
+    }
+
+    /**
+     * Первое свободное окно техника не раньше {@code from} в рабочие часы.
+     *
+     * @return пусто, если в пределах {@code repair.schedule.horizon} окна нет
+     */
+    public synchronized Optional<VisitSlot> firstFreeSlot(Long technicianId, LocalDateTime from) {
+        TreeSet<Visit> calendar = byTechnician.get(technicianId);
+        Duration duration = properties.visitDuration();
+        LocalDateTime limit = from.plus(properties.horizon());
+        LocalDateTime candidate = withinWorkingHours(ceilToMinute(from));
+        while (!candidate.isAfter(limit)) {
+            Visit busy = overlapping(calendar, candidate);
+            if (busy == null) {
+                return Optional.of(new VisitSlot(technicianId, null, candidate, candidate.plus(duration)));
+            }
+            candidate = withinWorkingHours(busy.start().plus(duration));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Самое раннее свободное окно среди включённых техников.
+     */
+    public Optional<VisitSlot> firstFreeSlot(LocalDateTime from) {
+        Optional<VisitSlot> earliest = Optional.empty();
+        for (User technician : userService.findAllTechnicians()) {
+            if (!technician.isEnabled()) {
+                continue;
+            }
+            Optional<VisitSlot> slot = firstFreeSlot(technician.getId(), from);
+            if (slot.isPresent() && (earliest.isEmpty() || slot.get().start().isBefore(earliest.get().start()))) {
+                earliest = slot;
+            }
+        }
+        return earliest;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStatusChanged(OrderStatusChangedEvent event) {
+        LocalDateTime start = event.timeline().scheduledAt();
+        Visit visit = event.newStatus() == RepairOrder.OrderStatus.SCHEDULED && event.technicianId() != null
+                && start != null
+                ? new Visit(event.orderId(), event.technicianId(), start)
+                : null;
+        applyCommitted(event.orderId(), visit);
+    }
+
+    /**
+     * Откат транзакции, в которой мог быть сделан резерв: визит заявки
+     * восстанавливается по состоянию в БД.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onRollback(OrderStatusChangedEvent event) {
+        if (event.newStatus() != RepairOrder.OrderStatus.SCHEDULED) {
+            return;
+        }
+        Optional<OrderLoad> load = primaryReads.read(() -> orderRepository.findLoadById(event.orderId()));
+        synchronized (this) {
+            applyCommitted(event.orderId(), load.filter(VisitCalendar::isBooked).map(VisitCalendar::visit).orElse(null));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        rebuild();
+        log.debug("Календарь визитов заполнен из БД");
+    }
+
+    /**
+     * Полная перестройка из БД. Пересекающиеся визиты, записанные в обход календаря
+     * (например, с другого узла), сохраняются и попадают в лог.
+     */
+    @Scheduled(initialDelayString = "${repair.schedule.reconcile-interval:PT5M}",
+            fixedDelayString = "${repair.schedule.reconcile-interval:PT5M}")
+    public void rebuild() {
+        // Перестройки не пересекаются: иначе ранняя могла бы заменить снимок поздней
+        synchronized (rebuildLock) {
+            long readFrom;
+            synchronized (this) {
+                readFrom = changeSequence;
+            }
+            List<OrderLoad> scheduled = primaryReads.read(() ->
+                    orderRepository.findLoads(List.of(RepairOrder.OrderStatus.SCHEDULED)));
+            swap(scheduled, readFrom);
+        }
+    }
+
+    private synchronized void swap(List<OrderLoad> scheduled, long readFrom) {
+        byTechnician.clear();
+        visits.clear();
+        for (OrderLoad load : scheduled) {
+            if (isBooked(load)) {
+                Visit visit = visit(load);
+                Visit conflict = overlapping(byTechnician.get(visit.technicianId()), visit.start());
+                if (conflict != null) {
+                    log.warn("Пересекающиеся визиты техника {}: заявки {} и {}",
+                            visit.technicianId(), conflict.orderId(), visit.orderId());
+                }
+                add(visit);
+            }
+        }
+        // Изменения, закоммиченные до начала чтения, уже в снимке; более поздние — применяем
+        recentChanges.values().removeIf(change -> change.sequence() <= readFrom);
+        recentChanges.forEach((orderId, change) -> {
+            remove(orderId);
+            if (change.visit() != null) {
+                add(change.visit());
+            }
+        });
+        for (Visit visit : pending.values()) {
+            remove(visit.orderId());
+            add(visit);
+        }
+    }
+
+    /**
+     * Закоммиченное состояние визита заявки ({@code null} — визита нет).
+     */
+    private void applyCommitted(Long orderId, Visit visit) {
+        pending.remove(orderId);
+        remove(orderId);
+        if (visit != null) {
+            add(visit);
+        }
+        recentChanges.put(orderId, new CommittedChange(++changeSequence, visit));
+    }
+
+    private Visit overlapping(TreeSet<Visit> calendar, LocalDateTime start) {
+        if (calendar == null) {
+            return null;
+        }
+        Duration duration = properties.visitDuration();
+        // Длительность у всех визитов одна, поэтому достаточно соседей по времени начала
+        Visit before = calendar.floor(probe(start, Long.MAX_VALUE));
+        if (before != null && before.start().plus(duration).isAfter(start)) {
+            return before;
+        }
+        Visit after = calendar.higher(probe(start, Long.MAX_VALUE));
+        if (after != null && after.start().isBefore(start.plus(duration))) {
+            return after;
+        }
+        return null;
+    }
+
+    private LocalDateTime withinWorkingHours(LocalDateTime time) {
+        LocalDate day = time.toLocalDate();
+        if (time.toLocalTime().isBefore(properties.workStart())) {
+            return day.atTime(properties.workStart());
+        }
+        if (time.plus(properties.visitDuration()).isAfter(day.atTime(properties.workEnd()))) {
+            return day.plusDays(1).atTime(properties.workStart());
+        }
+        return time;
+    }
+
+    private static LocalDateTime ceilToMinute(LocalDateTime time) {
+        LocalDateTime truncated = time.truncatedTo(ChronoUnit.MINUTES);
+        return truncated.equals(time) ? time : truncated.plusMinutes(1);
+    }
+
+    private void add(Visit visit) {
+        visits.put(visit.orderId(), visit);
+        byTechnician.computeIfAbsent(visit.technicianId(), id -> new TreeSet<>(BY_START)).add(visit);
+    }
+
+    private Visit remove(Long orderId) {
+        Visit visit = visits.remove(orderId);
+        if (visit != null) {
+            byTechnician.get(visit.technicianId()).remove(visit);
+        }
+        return visit;
+    }
+
+    private VisitSlot slot(Visit visit) {
+        return new VisitSlot(visit.technicianId(), visit.orderId(), visit.start(),
+                visit.start().plus(properties.visitDuration()));
+    }
+
+    private static boolean isBooked(OrderLoad load) {
+        return load.status() == RepairOrder.OrderStatus.SCHEDULED && load.scheduledAt() != null;
+    }
+
+    private static Visit visit(OrderLoad load) {
+        return new Visit(load.orderId(), load.technicianId(), load.scheduledAt());
+    }
+
+    private static Visit probe(LocalDateTime start, long orderId) {
+        return new Visit(orderId, null, start);
+    }
+
+    private record Visit(Long orderId, Long technicianId, LocalDateTime start) {
+    }
+
+    private record CommittedChange(long sequence, Visit visit) {
+    }
+}
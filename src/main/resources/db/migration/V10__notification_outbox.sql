@@ -0,0 +1,23 @@
+-- Исходящие уведомления клиентам и техникам (transactional outbox): строка пишется
+-- в транзакции перехода заявки, отправку выполняет NotificationDispatcher.
+
+CREATE SEQUENCE notification_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE notification_outbox (
+    id                  BIGINT         NOT NULL,
+    order_id            BIGINT         NOT NULL,
+    channel             VARCHAR(16)    NOT NULL, -- SMS, EMAIL
+    recipient           VARCHAR(255)   NOT NULL,
+    subject             VARCHAR(255),
+    body                VARCHAR(2000)  NOT NULL,
+    status              VARCHAR(16)    NOT NULL, -- PENDING, SENT, FAILED
+    attempts            INT            NOT NULL,
+    next_attempt_at     TIMESTAMP(6)   NOT NULL,
+    created_at          TIMESTAMP(6)   NOT NULL,
+    sent_at             TIMESTAMP(6),
+    last_error          VARCHAR(1000),
+    CONSTRAINT pk_notification_outbox PRIMARY KEY (id)
+);
+
+-- Выборка очередной порции: WHERE status = 'PENDING' AND next_attempt_at <= ? ORDER BY next_attempt_at
+CREATE INDEX idx_notification_outbox_due ON notification_outbox (status, next_attempt_at);
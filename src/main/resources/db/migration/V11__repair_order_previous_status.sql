@@ -0,0 +1,3 @@
+-- Статус до последнего перехода: заполняется тем же условным UPDATE, что и новый статус,
+-- чтобы событие перехода строилось по одной строке без предварительного чтения заявки.
+ALTER TABLE repair_orders ADD COLUMN previous_status VARCHAR(255);
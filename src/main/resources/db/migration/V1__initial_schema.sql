@@ -0,0 +1,50 @@
+-- Исходная схема: пользователи и заявки на ремонт
+
+CREATE TABLE users (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username        VARCHAR(255) NOT NULL,
+    password        VARCHAR(255) NOT NULL,
+    full_name       VARCHAR(255) NOT NULL,
+    email           VARCHAR(255) NOT NULL,
+    phone           VARCHAR(255),
+    role            VARCHAR(255) NOT NULL,
+    enabled         BOOLEAN      NOT NULL,
+    created_at      TIMESTAMP(6),
+    last_login_at   TIMESTAMP(6),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT ck_users_role CHECK (role IN ('ADMIN', 'MANAGER', 'TECHNICIAN', 'DISPATCHER'))
+);
+
+CREATE TABLE repair_orders (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_number        VARCHAR(255)  NOT NULL,
+    client_name         VARCHAR(255)  NOT NULL,
+    client_phone        VARCHAR(255)  NOT NULL,
+    client_email        VARCHAR(255),
+    client_address      VARCHAR(255),
+    appliance_type      VARCHAR(255)  NOT NULL,
+    appliance_brand     VARCHAR(255),
+    appliance_model     VARCHAR(255),
+    serial_number       VARCHAR(255),
+    problem_description VARCHAR(2000),
+    status              VARCHAR(255)  NOT NULL,
+    priority            VARCHAR(255),
+    technician_id       BIGINT,
+    manager_id          BIGINT,
+    estimated_cost      NUMERIC(38, 2),
+    final_cost          NUMERIC(38, 2),
+    created_at          TIMESTAMP(6),
+    assigned_at         TIMESTAMP(6),
+    scheduled_at        TIMESTAMP(6),
+    started_at          TIMESTAMP(6),
+    completed_at        TIMESTAMP(6),
+    repair_notes        VARCHAR(2000),
+    parts_used          VARCHAR(1000),
+    CONSTRAINT uk_repair_orders_order_number UNIQUE (order_number),
+    CONSTRAINT fk_repair_orders_technician FOREIGN KEY (technician_id) REFERENCES users (id),
+    CONSTRAINT fk_repair_orders_manager FOREIGN KEY (manager_id) REFERENCES users (id),
+    CONSTRAINT ck_repair_orders_status CHECK (status IN ('NEW', 'ACCEPTED', 'ASSIGNED', 'SCHEDULED',
+                                                         'IN_PROGRESS', 'WAITING_PARTS', 'COMPLETED', 'CANCELLED')),
+    CONSTRAINT ck_repair_orders_priority CHECK (priority IN ('LOW', 'NORMAL', 'HIGH', 'URGENT'))
+);
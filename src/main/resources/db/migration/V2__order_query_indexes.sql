@@ -0,0 +1,22 @@
+-- Индексы под частые запросы RepairOrderRepository
+
+-- findByStatus, countByStatus, списки по статусу с сортировкой по дате
+CREATE INDEX idx_repair_orders_status_created ON repair_orders (status, created_at);
+
+-- findByTechnicianIdAndStatusIn, countByTechnicianIdAndStatus, findByTechnicianId
+CREATE INDEX idx_repair_orders_technician_status ON repair_orders (technician_id, status);
+
+-- findByManagerId
+CREATE INDEX idx_repair_orders_manager ON repair_orders (manager_id);
+
+-- findByScheduledAtBetween
+CREATE INDEX idx_repair_orders_scheduled_at ON repair_orders (scheduled_at);
+
+-- findByClientPhone (ORDER BY created_at DESC)
+CREATE INDEX idx_repair_orders_client_phone_created ON repair_orders (client_phone, created_at);
+
+-- Keyset-пагинация списка заявок по (created_at, id)
+CREATE INDEX idx_repair_orders_created_id ON repair_orders (created_at, id);
+
+-- findByRole
+CREATE INDEX idx_users_role ON users (role);
@@ -0,0 +1,6 @@
+-- Блоки номеров заявок: на каждую дату хранится верхняя граница уже выданных номеров.
+-- Узлы приложения резервируют диапазоны номеров, увеличивая allocated_until на размер блока.
+CREATE TABLE order_number_blocks (
+    order_date      DATE   NOT NULL PRIMARY KEY,
+    allocated_until BIGINT NOT NULL
+);
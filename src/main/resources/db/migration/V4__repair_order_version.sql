@@ -0,0 +1,2 @@
+-- Версия строки для оптимистичной блокировки заявок
+ALTER TABLE repair_orders ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
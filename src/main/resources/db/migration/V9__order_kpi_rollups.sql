@@ -0,0 +1,49 @@
+-- Сводки KPI по заявкам (KpiRollupService): день создания × техник × тип техники × бренд.
+-- Сводки дополняются инкрементально по журналу order_events: вклад каждой заявки хранится
+-- в order_kpi_contributions, чтобы при её изменении вычесть старый вклад и добавить новый.
+
+CREATE TABLE order_kpi_daily (
+    order_day           DATE           NOT NULL,
+    technician_id       BIGINT         NOT NULL, -- 0 — техник не назначен
+    appliance_type      VARCHAR(255)   NOT NULL,
+    appliance_brand     VARCHAR(255)   NOT NULL, -- '' — бренд не указан
+    orders_created      BIGINT         NOT NULL,
+    orders_completed    BIGINT         NOT NULL,
+    orders_cancelled    BIGINT         NOT NULL,
+    orders_assigned     BIGINT         NOT NULL,
+    assign_seconds      BIGINT         NOT NULL,
+    orders_started      BIGINT         NOT NULL,
+    start_seconds       BIGINT         NOT NULL,
+    complete_seconds    BIGINT         NOT NULL,
+    estimated_cost      NUMERIC(38, 2) NOT NULL,
+    final_cost          NUMERIC(38, 2) NOT NULL,
+    CONSTRAINT pk_order_kpi_daily PRIMARY KEY (order_day, technician_id, appliance_type, appliance_brand)
+);
+
+CREATE TABLE order_kpi_contributions (
+    order_id            BIGINT         NOT NULL,
+    order_day           DATE           NOT NULL,
+    technician_id       BIGINT         NOT NULL,
+    appliance_type      VARCHAR(255)   NOT NULL,
+    appliance_brand     VARCHAR(255)   NOT NULL,
+    completed           BOOLEAN        NOT NULL,
+    cancelled           BOOLEAN        NOT NULL,
+    assign_seconds      BIGINT,
+    start_seconds       BIGINT,
+    complete_seconds    BIGINT,
+    estimated_cost      NUMERIC(38, 2),
+    final_cost          NUMERIC(38, 2),
+    CONSTRAINT pk_order_kpi_contributions PRIMARY KEY (order_id)
+);
+
+-- Единственная строка: до какого момента журнал учтён в сводках; NULL — нужна полная перестройка
+CREATE TABLE kpi_rollup_state (
+    id                  INT            NOT NULL,
+    watermark           TIMESTAMP(6),
+    CONSTRAINT pk_kpi_rollup_state PRIMARY KEY (id)
+);
+
+INSERT INTO kpi_rollup_state (id, watermark) VALUES (1, NULL);
+
+-- Выборка заявок, изменённых после отметки
+CREATE INDEX idx_order_events_occurred_at ON order_events (occurred_at);
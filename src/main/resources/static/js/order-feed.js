@@ -0,0 +1,37 @@
+// Живая лента заявок (SSE): вместо ручного обновления страницы показывает плашку
+// с числом изменений и обновляет счётчик новых заявок на дашборде.
+(function () {
+    var banner = document.getElementById('order-feed-banner');
+    if (!banner || !window.EventSource) {
+        return;
+    }
+    var counter = banner.querySelector('[data-feed-changes]');
+    var newOrders = document.querySelector('[data-feed-new-orders]');
+    var changes = 0;
+
+    function showChange() {
+        changes++;
+        counter.textContent = changes;
+        banner.classList.remove('d-none');
+    }
+
+    function adjustNewOrders(delta) {
+        if (newOrders) {
+            newOrders.textContent = Math.max(0, parseInt(newOrders.textContent, 10) + delta);
+        }
+    }
+
+    var source = new EventSource(banner.dataset.feedUrl);
+    source.addEventListener('created', function () {
+        adjustNewOrders(1);
+        showChange();
+    });
+    source.addEventListener('status', function (event) {
+        if (JSON.parse(event.data).previousStatus === 'NEW') {
+            adjustNewOrders(-1);
+        }
+        showChange();
+    });
+    // Часть событий пропущена: точные данные только после перезагрузки
+    source.addEventListener('resync', showChange);
+})();
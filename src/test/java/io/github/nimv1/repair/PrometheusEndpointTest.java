@@ -0,0 +1,40 @@
+package io.github.nimv1.repair;
+
+import io.github.nimv1.repair.service.RepairOrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Эндпоинт Prometheus доступен без входа и отдаёт метрики сервиса, репозиториев и пула соединений.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:prometheus;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RepairOrderService orderService;
+
+    @Test
+    void shouldExposeOrderServiceRepositoryAndPoolMetrics() throws Exception {
+        orderService.getStatistics();
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("repair_orders_service_seconds_count")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_count")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")));
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.nimv1.repair.config;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Сессия после входа хранится в БД, контекст безопасности — в JSON,
+ * и по cookie сессии пользователь остаётся аутентифицированным. Просроченные сессии
+ * удаляются порциями, действующие не затрагиваются.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:jdbc-session;DB_CLOSE_DELAY=-1",
+        "repair.session.cleanup.cron=-",
+        "repair.session.cleanup.batch-size=3"
+})
+@AutoConfigureMockMvc
+class JdbcSessionStoreTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JdbcIndexedSessionRepository sessionRepository;
+
+    @Autowired
+    private ExpiredSessionCleaner sessionCleaner;
+
+    @Test
+    void shouldKeepAuthenticatedSessionInDatabase() throws Exception {
+        Cookie session = mockMvc.perform(formLogin("/login").user("manager").password("manager123"))
+                .andReturn().getResponse().getCookie("SESSION");
+        assertNotNull(session);
+
+        byte[] context = jdbcTemplate.queryForObject("""
+                SELECT a.attribute_bytes FROM spring_session_attributes a
+                JOIN spring_session s ON s.primary_id = a.session_primary_id
+                WHERE s.principal_name = 'manager' AND a.attribute_name = 'SPRING_SECURITY_CONTEXT'
+                """, byte[].class);
+        assertEquals('{', (char) context[0]);
+
+        mockMvc.perform(get("/dashboard").cookie(session)).andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldCleanUpExpiredSessionsInBatches() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 7; i++) {
+            insertSession("cleanup-expired", now - 60_000 - i);
+        }
+        insertSession("cleanup-live", now + 600_000);
+
+        // Один DELETE удаляет не больше batch-size самых старых просроченных сессий
+        sessionRepository.cleanUpExpiredSessions();
+        assertEquals(4, countSessions("cleanup-expired"));
+        assertEquals(1, countSessions("cleanup-live"));
+
+        // Плановый запуск повторяет DELETE, пока порция не окажется неполной
+        assertEquals(4, sessionCleaner.cleanUp());
+        assertEquals(0, countSessions("cleanup-expired"));
+        assertEquals(1, countSessions("cleanup-live"));
+    }
+
+    private void insertSession(String principal, long expiryTime) {
+        jdbcTemplate.update("""
+                INSERT INTO spring_session (primary_id, session_id, creation_time, last_access_time,
+                    max_inactive_interval, expiry_time, principal_name)
+                VALUES (?, ?, ?, ?, 1800, ?, ?)
+                """, UUID.randomUUID().toString(), UUID.randomUUID().toString(),
+                expiryTime - 1_800_000, expiryTime - 1_800_000, expiryTime, principal);
+    }
+
+    private int countSessions(String principal) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM spring_session WHERE principal_name = ?", Integer.class, principal);
+    }
+}
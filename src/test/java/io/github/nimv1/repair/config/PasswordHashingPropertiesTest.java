@@ -0,0 +1,49 @@
+package io.github.nimv1.repair.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingPropertiesTest {
+
+    @Test
+    void shouldMatchLegacyBcryptHashAndRequestUpgrade() {
+        PasswordEncoder encoder = properties("bcrypt", 4).createEncoder();
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertTrue(encoder.matches("secret", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+    }
+
+    @Test
+    void shouldUpgradeWhenStrengthIncreases() {
+        String weak = properties("bcrypt", 4).createEncoder().encode("secret");
+        PasswordEncoder stronger = properties("bcrypt", 5).createEncoder();
+
+        assertTrue(weak.startsWith("{bcrypt}"));
+        assertTrue(stronger.matches("secret", weak));
+        assertTrue(stronger.upgradeEncoding(weak));
+        assertFalse(stronger.upgradeEncoding(stronger.encode("secret")));
+    }
+
+    @Test
+    void shouldUpgradeWhenAlgorithmChanges() {
+        String bcrypt = properties("bcrypt", 4).createEncoder().encode("secret");
+        PasswordEncoder pbkdf2 = properties("pbkdf2", 4).createEncoder();
+
+        assertTrue(pbkdf2.matches("secret", bcrypt));
+        assertTrue(pbkdf2.upgradeEncoding(bcrypt));
+        assertTrue(pbkdf2.encode("secret").startsWith("{pbkdf2}"));
+    }
+
+    @Test
+    void shouldRejectUnknownAlgorithm() {
+        assertThrows(IllegalArgumentException.class, () -> properties("md5", 4).createEncoder());
+    }
+
+    private static PasswordHashingProperties properties(String algorithm, int bcryptStrength) {
+        return new PasswordHashingProperties(algorithm, bcryptStrength, 1000, 1024, 1, 1);
+    }
+}
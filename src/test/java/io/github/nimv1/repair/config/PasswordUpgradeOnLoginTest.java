@@ -0,0 +1,43 @@
+package io.github.nimv1.repair.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
+
+/**
+ * Хэш пароля со старыми параметрами заменяется при успешном входе.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:password-upgrade;DB_CLOSE_DELAY=-1",
+        "repair.security.password.bcrypt-strength=5"
+})
+@AutoConfigureMockMvc
+class PasswordUpgradeOnLoginTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldRehashLegacyPasswordOnLogin() throws Exception {
+        String legacy = new BCryptPasswordEncoder(4).encode("tech123");
+        jdbcTemplate.update("UPDATE users SET password = ? WHERE username = 'tech2'", legacy);
+
+        mockMvc.perform(formLogin("/login").user("tech2").password("tech123")).andExpect(authenticated());
+
+        String upgraded = jdbcTemplate.queryForObject(
+                "SELECT password FROM users WHERE username = 'tech2'", String.class);
+        assertTrue(upgraded.startsWith("{bcrypt}$2a$05$"), upgraded);
+        mockMvc.perform(formLogin("/login").user("tech2").password("tech123")).andExpect(authenticated());
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.nimv1.repair.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica1;
+
+    @Mock
+    private DataSource replica2;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void shouldUsePrimaryOutsideReadOnlyTransaction() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        ReadReplicaRoutingDataSource dataSource = new ReadReplicaRoutingDataSource(
+                primary, List.of(replica1), Duration.ofSeconds(30));
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        verifyNoInteractions(replica1);
+    }
+
+    @Test
+    void shouldRoundRobinReplicasInReadOnlyTransaction() throws SQLException {
+        when(replica1.getConnection()).thenReturn(replicaConnection);
+        when(replica2.getConnection()).thenReturn(replicaConnection);
+        ReadReplicaRoutingDataSource dataSource = new ReadReplicaRoutingDataSource(
+                primary, List.of(replica1, replica2), Duration.ofSeconds(30));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        verify(replica1).getConnection();
+        verify(replica2).getConnection();
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void shouldFallBackToPrimaryAndSkipFailedReplica() throws SQLException {
+        when(replica1.getConnection()).thenThrow(new SQLException("connection refused"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        ReadReplicaRoutingDataSource dataSource = new ReadReplicaRoutingDataSource(
+                primary, List.of(replica1), Duration.ofSeconds(30));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertSame(primaryConnection, dataSource.getConnection());
+
+        verify(replica1, times(1)).getConnection();
+    }
+}
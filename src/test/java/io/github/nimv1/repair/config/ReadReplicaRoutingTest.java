@@ -0,0 +1,149 @@
+package io.github.nimv1.repair.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.entity.User;
+import io.github.nimv1.repair.service.OrderStatusCounters;
+import io.github.nimv1.repair.service.RepairOrderService;
+import io.github.nimv1.repair.service.UserService;
+import io.github.nimv1.repair.service.VisitCalendar;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Две БД H2: read-only методы сервисов читают из реплики, запись идёт в основную,
+ * а сверки и перестройка календаря визитов через {@link PrimaryReads} видят основную БД.
+ * Схема реплики создаётся теми же миграциями — как при настоящей репликации.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica-primary;DB_CLOSE_DELAY=-1",
+        "repair.datasource.replicas[0].url=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "repair.datasource.replicas[0].username=sa",
+        "repair.datasource.replicas[0].password="
+})
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica-secondary;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RepairOrderService orderService;
+
+    @Autowired
+    private OrderStatusCounters statusCounters;
+
+    @Autowired
+    private PrimaryReads primaryReads;
+
+    @Autowired
+    private VisitCalendar visitCalendar;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @BeforeAll
+    static void prepareReplica() {
+        DataSource replica = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+        Flyway.configure().dataSource(replica).load().migrate();
+        new JdbcTemplate(replica).update("""
+                INSERT INTO users (username, password, full_name, email, role, enabled)
+                VALUES ('replica-only', 'x', 'Replica Only', 'replica@example.com', 'TECHNICIAN', TRUE)
+                """);
+    }
+
+    @Test
+    void shouldReadFromReplicaAndWriteToPrimary() {
+        List<String> replicaUsers = userService.findAll().stream().map(User::getUsername).toList();
+        assertEquals(List.of("replica-only"), replicaUsers);
+
+        userService.createUser(User.builder()
+                .username("written")
+                .password("secret123")
+                .fullName("Written User")
+                .email("written@example.com")
+                .role(User.Role.TECHNICIAN)
+                .enabled(true)
+                .build());
+
+        JdbcTemplate primary = new JdbcTemplate(primaryDataSource);
+        assertEquals(1, primary.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE username = 'written'", Integer.class));
+        assertEquals(0, primary.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE username = 'replica-only'", Integer.class));
+        assertFalse(userService.findAll().stream().anyMatch(u -> u.getUsername().equals("written")));
+    }
+
+    @Test
+    void primaryReadsShouldBypassReplica() {
+        userService.createUser(User.builder()
+                .username("primary-only")
+                .password("secret123")
+                .fullName("Primary Only")
+                .email("primary@example.com")
+                .role(User.Role.TECHNICIAN)
+                .enabled(true)
+                .build());
+
+        List<String> users = primaryReads.read(userService::findAll).stream().map(User::getUsername).toList();
+
+        assertTrue(users.contains("primary-only"));
+        assertFalse(users.contains("replica-only"));
+    }
+
+    @Test
+    void reconcileShouldCountOrdersOnPrimary() {
+        orderService.createOrder(RepairOrder.builder()
+                .clientName("Клиент")
+                .clientPhone("+7 999 000-00-00")
+                .applianceType("Холодильник")
+                .build());
+
+        statusCounters.reconcile();
+
+        // Реплика пуста: сверка по ней обнулила бы счётчик
+        long onPrimary = new JdbcTemplate(primaryDataSource).queryForObject(
+                "SELECT COUNT(*) FROM repair_orders WHERE status = 'NEW'", Long.class);
+        assertTrue(onPrimary > 0);
+        assertEquals(onPrimary, statusCounters.get(RepairOrder.OrderStatus.NEW));
+    }
+
+    @Test
+    void visitCalendarRebuildShouldSeeVisitsOnPrimary() {
+        User technician = userService.createUser(User.builder()
+                .username("visit-tech")
+                .password("secret123")
+                .fullName("Visit Tech")
+                .email("visit-tech@example.com")
+                .role(User.Role.TECHNICIAN)
+                .enabled(true)
+                .build());
+        Long orderId = orderService.createOrder(RepairOrder.builder()
+                .clientName("Клиент")
+                .clientPhone("+7 999 000-00-00")
+                .applianceType("Стиральная машина")
+                .build()).getId();
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+        // Визит записан в обход календаря, как с другого узла
+        new JdbcTemplate(primaryDataSource).update(
+                "UPDATE repair_orders SET status = 'SCHEDULED', technician_id = ?, scheduled_at = ? WHERE id = ?",
+                technician.getId(), start, orderId);
+
+        visitCalendar.rebuild();
+
+        assertFalse(visitCalendar.isFree(technician.getId(), start));
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.nimv1.repair.controller;
+
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.entity.User;
+import io.github.nimv1.repair.service.OrderFeed;
+import io.github.nimv1.repair.service.RepairOrderService;
+import io.github.nimv1.repair.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Живая лента заявок: события после коммита доходят до открытых SSE-подписок,
+ * техник получает только свои заявки.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:order-feed;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class OrderFeedControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RepairOrderService orderService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OrderFeed orderFeed;
+
+    @Test
+    void shouldPushOrderEventsFilteredByRole() throws Exception {
+        int subscribersBefore = orderFeed.subscriberCount();
+        MockHttpServletResponse manager = subscribe("manager", "MANAGER");
+        MockHttpServletResponse technician = subscribe("tech1", "TECHNICIAN");
+        assertEquals(subscribersBefore + 2, orderFeed.subscriberCount());
+
+        RepairOrder order = orderService.createOrder(RepairOrder.builder()
+                .clientName("Клиент ленты")
+                .clientPhone("+7 900 600-00-00")
+                .applianceType("Микроволновая печь")
+                .build());
+        awaitContent(manager, "\"orderId\":" + order.getId());
+        assertTrue(manager.getContentAsString().contains("event:created"));
+
+        User managerUser = userService.findByUsername("manager").orElseThrow();
+        User tech1 = userService.findByUsername("tech1").orElseThrow();
+        orderService.acceptOrder(order.getId(), managerUser);
+        orderService.assignTechnician(order.getId(), tech1);
+
+        awaitContent(technician, "\"status\":\"ASSIGNED\"");
+        String technicianFeed = technician.getContentAsString();
+        assertFalse(technicianFeed.contains("event:created"));
+        assertFalse(technicianFeed.contains("\"status\":\"ACCEPTED\""));
+        awaitContent(manager, "\"status\":\"ASSIGNED\"");
+    }
+
+    private MockHttpServletResponse subscribe(String username, String role) throws Exception {
+        return mockMvc.perform(get("/api/orders/feed").with(user(username).roles(role)))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        await(() -> {
+            try {
+                return response.getContentAsString().contains(expected);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(response.getContentAsString().contains(expected), expected);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package io.github.nimv1.repair.controller;
+
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.entity.User;
+import io.github.nimv1.repair.repository.RepairOrderRepository;
+import io.github.nimv1.repair.repository.UserRepository;
+import io.github.nimv1.repair.service.RepairOrderService;
+import io.github.nimv1.repair.support.StatementCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет, что отрисовка страниц не порождает N+1 запросов
+ * для ленивых связей заявки (техник, менеджер), а списки не загружают сущности.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-count;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        // Фоновый опрос outbox не должен попадать в подсчёт запросов
+        "repair.notifications.poll-interval=PT1H"
+})
+@AutoConfigureMockMvc
+class OrderPagesQueryCountTest {
+
+    private static final int ORDERS = 15;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RepairOrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RepairOrderService orderService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private StatementCounter statements;
+    private RepairOrder assignedOrder;
+
+    @BeforeEach
+    void setUp() {
+        statements = new StatementCounter(entityManagerFactory);
+        if (orderRepository.count() > 0) {
+            assignedOrder = orderRepository.findByStatus(RepairOrder.OrderStatus.ASSIGNED).get(0);
+            return;
+        }
+        User manager = userRepository.findByUsername("manager").orElseThrow();
+        List<User> technicians = List.of(
+                userRepository.findByUsername("tech1").orElseThrow(),
+                userRepository.findByUsername("tech2").orElseThrow());
+        for (int i = 0; i < ORDERS; i++) {
+            RepairOrder order = RepairOrder.builder()
+                    .orderNumber("REP-TEST-" + i)
+                    .clientName("Клиент " + i)
+                    .clientPhone("+7 900 000-00-" + i)
+                    .applianceType("Холодильник")
+                    .status(i % 3 == 0 ? RepairOrder.OrderStatus.NEW : RepairOrder.OrderStatus.ASSIGNED)
+                    .build();
+            if (order.getStatus() == RepairOrder.OrderStatus.ASSIGNED) {
+                order.setManager(manager);
+                order.setTechnician(technicians.get(i % technicians.size()));
+                order.setAssignedAt(LocalDateTime.now());
+            }
+            orderRepository.save(order);
+        }
+        assignedOrder = orderRepository.findByStatus(RepairOrder.OrderStatus.ASSIGNED).get(0);
+    }
+
+    @Test
+    @WithUserDetails("admin")
+    void orderListPageShouldUseConstantNumberOfStatements() throws Exception {
+        statements.reset();
+
+        mockMvc.perform(get("/orders").param("page", "1")).andExpect(status().isOk());
+
+        statements.assertAtMost(3, "GET /orders?page=1");
+    }
+
+    @Test
+    @WithUserDetails("admin")
+    void keysetOrderListShouldSkipCountQuery() throws Exception {
+        String next = orderService.findPage(null, null, 5).getNextCursor();
+        statements.reset();
+
+        mockMvc.perform(get("/orders").param("after", next).param("size", "5")).andExpect(status().isOk());
+
+        statements.assertAtMost(2, "GET /orders?after=...");
+    }
+
+    @Test
+    void listQueriesShouldNotLoadEntities() {
+        statements.reset();
+
+        orderService.findPage(null, null, 10);
+        orderService.findAll(PageRequest.of(0, 10, Sort.by("createdAt").descending()));
+        orderService.findNewOrders();
+        orderService.findActiveOrdersForTechnician(assignedOrder.getTechnician().getId());
+
+        assertEquals(0, statements.entitiesLoaded());
+    }
+
+    @Test
+    @WithUserDetails("admin")
+    void orderViewPageShouldNotLazyLoadTechnician() throws Exception {
+        statements.reset();
+
+        mockMvc.perform(get("/orders/{id}", assignedOrder.getId())).andExpect(status().isOk());
+
+        statements.assertAtMost(2, "GET /orders/{id}");
+    }
+
+    @Test
+    @WithUserDetails("admin")
+    void managerDashboardShouldUseConstantNumberOfStatements() throws Exception {
+        statements.reset();
+
+        mockMvc.perform(get("/dashboard")).andExpect(status().isOk());
+
+        statements.assertAtMost(2, "GET /dashboard (менеджер)");
+    }
+
+    @Test
+    @WithUserDetails("tech1")
+    void technicianDashboardShouldUseConstantNumberOfStatements() throws Exception {
+        statements.reset();
+
+        mockMvc.perform(get("/dashboard")).andExpect(status().isOk());
+
+        statements.assertAtMost(2, "GET /dashboard (техник)");
+    }
+}
@@ -0,0 +1,34 @@
+package io.github.nimv1.repair.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderSearchKeysTest {
+
+    @Test
+    void shouldNormalizePhoneRegardlessOfFormatAndCountryCode() {
+        String key = OrderSearchKeys.phoneKey("+7 (900) 123-45-67");
+
+        assertEquals("7654321009", key);
+        assertEquals(key, OrderSearchKeys.phoneKey("89001234567"));
+        assertEquals(key, OrderSearchKeys.phoneKey("900 123 45 67"));
+    }
+
+    @Test
+    void shouldTurnPhoneSuffixIntoKeyPrefix() {
+        assertTrue(OrderSearchKeys.phoneKey("+7 900 123-45-67").startsWith(OrderSearchKeys.phoneKey("45-67")));
+    }
+
+    @Test
+    void shouldNormalizeSerialNumber() {
+        assertEquals("SN12AB", OrderSearchKeys.serialKey(" sn-12 ab "));
+    }
+
+    @Test
+    void shouldReturnNullWithoutSignificantCharacters() {
+        assertNull(OrderSearchKeys.phoneKey("нет"));
+        assertNull(OrderSearchKeys.serialKey("--"));
+        assertNull(OrderSearchKeys.phoneKey(null));
+    }
+}
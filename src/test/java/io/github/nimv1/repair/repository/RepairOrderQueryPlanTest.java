@@ -0,0 +1,94 @@
+package io.github.nimv1.repair.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Регрессионная проверка планов запросов: частые выборки по заявкам
+ * должны использовать индексы из миграций, а не полный просмотр таблицы.
+ */
+@JdbcTest
+class RepairOrderQueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void findByStatusShouldUseStatusIndex() {
+        assertUsesIndex("idx_repair_orders_status_created",
+                "SELECT * FROM repair_orders WHERE status = 'NEW' ORDER BY created_at DESC");
+    }
+
+    @Test
+    void countByStatusShouldUseStatusIndex() {
+        assertUsesIndex("idx_repair_orders_status_created",
+                "SELECT COUNT(*) FROM repair_orders WHERE status = 'IN_PROGRESS'");
+    }
+
+    @Test
+    void technicianActiveOrdersShouldUseTechnicianStatusIndex() {
+        assertUsesIndex("idx_repair_orders_technician_status",
+                "SELECT * FROM repair_orders WHERE technician_id = 2 "
+                        + "AND status IN ('ASSIGNED', 'SCHEDULED', 'IN_PROGRESS', 'WAITING_PARTS')");
+    }
+
+    @Test
+    void findByManagerShouldNotScanTable() {
+        // H2 сам индексирует внешние ключи, поэтому здесь проверяется только отсутствие полного просмотра;
+        // в PostgreSQL запрос обслуживает idx_repair_orders_manager
+        assertNoTableScan("SELECT * FROM repair_orders WHERE manager_id = 1");
+    }
+
+    @Test
+    void findByScheduledAtBetweenShouldUseScheduledIndex() {
+        assertUsesIndex("idx_repair_orders_scheduled_at",
+                "SELECT * FROM repair_orders WHERE scheduled_at BETWEEN "
+                        + "TIMESTAMP '2024-01-01 00:00:00' AND TIMESTAMP '2024-01-02 00:00:00'");
+    }
+
+    @Test
+    void findByClientPhoneShouldUsePhoneIndex() {
+        assertUsesIndex("idx_repair_orders_client_phone_created",
+                "SELECT * FROM repair_orders WHERE client_phone = '+7 999 123-45-67' ORDER BY created_at DESC");
+    }
+
+    @Test
+    void keysetPageShouldUseCreatedIdIndex() {
+        assertUsesIndex("idx_repair_orders_created_id",
+                "SELECT * FROM repair_orders WHERE created_at <= TIMESTAMP '2024-01-01 00:00:00' "
+                        + "AND (created_at < TIMESTAMP '2024-01-01 00:00:00' OR id < 10) "
+                        + "ORDER BY created_at DESC, id DESC FETCH FIRST 11 ROWS ONLY");
+    }
+
+    @Test
+    void phoneSearchShouldUsePhoneKeyIndex() {
+        assertUsesIndex("idx_repair_orders_phone_key",
+                "SELECT * FROM repair_orders WHERE client_phone_key LIKE '7654%'");
+    }
+
+    @Test
+    void serialSearchShouldUseSerialKeyIndex() {
+        assertUsesIndex("idx_repair_orders_serial_key",
+                "SELECT * FROM repair_orders WHERE serial_number_key LIKE 'SN0001%'");
+    }
+
+    private void assertUsesIndex(String index, String sql) {
+        String plan = explain(sql);
+        assertTrue(plan.toLowerCase().contains(index),
+                () -> "Ожидался индекс " + index + " в плане:\n" + plan);
+    }
+
+    private void assertNoTableScan(String sql) {
+        String plan = explain(sql);
+        assertFalse(plan.contains("tableScan"), () -> "Полный просмотр таблицы в плане:\n" + plan);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
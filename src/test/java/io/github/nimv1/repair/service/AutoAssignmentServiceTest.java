@@ -0,0 +1,80 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.dto.BulkOperationResult;
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Автоназначение по индексу загрузки на реальной БД: события после коммита
+ * обновляют индекс, следующая заявка достаётся свободному технику.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:auto-assignment;DB_CLOSE_DELAY=-1")
+class AutoAssignmentServiceTest {
+
+    @Autowired
+    private AutoAssignmentService assignmentService;
+
+    @Autowired
+    private RepairOrderService orderService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TechnicianWorkloadIndex workloadIndex;
+
+    @Test
+    void shouldSpreadBacklogAndThenPickLeastLoadedTechnician() {
+        User manager = userService.findByUsername("manager").orElseThrow();
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            created.add(createOrder(RepairOrder.Priority.NORMAL).getId());
+        }
+        workloadIndex.rebuild();
+        int before = totalScore();
+
+        BulkOperationResult result = assignmentService.assignBacklog(manager);
+
+        assertTrue(result.rejected().isEmpty());
+        assertTrue(result.updated().containsAll(created));
+        assertTrue(orderService.findUnassignedOrders().isEmpty());
+        assertEquals(before + 4 * TechnicianWorkloadIndex.weight(RepairOrder.Priority.NORMAL), totalScore());
+        List<Integer> scores = workloadIndex.availableWorkloads().stream().map(w -> w.score()).toList();
+        assertTrue(scores.get(scores.size() - 1) - scores.get(0) <= TechnicianWorkloadIndex.weight(RepairOrder.Priority.NORMAL));
+
+        Long expected = workloadIndex.leastLoadedTechnician().orElseThrow();
+        RepairOrder assigned = assignmentService.autoAssign(createOrder(RepairOrder.Priority.URGENT).getId(), manager);
+
+        assertEquals(RepairOrder.OrderStatus.ASSIGNED, assigned.getStatus());
+        assertEquals(expected, assigned.getTechnician().getId());
+    }
+
+    @Test
+    void shouldRejectAutoAssignOfOrderInProgress() {
+        User manager = userService.findByUsername("manager").orElseThrow();
+        RepairOrder order = assignmentService.autoAssign(createOrder(RepairOrder.Priority.LOW).getId(), manager);
+
+        assertThrows(IllegalStateException.class, () -> assignmentService.autoAssign(order.getId(), manager));
+    }
+
+    private RepairOrder createOrder(RepairOrder.Priority priority) {
+        return orderService.createOrder(RepairOrder.builder()
+                .clientName("Клиент автоназначения")
+                .clientPhone("+7 900 400-00-00")
+                .applianceType("Холодильник")
+                .priority(priority)
+                .build());
+    }
+
+    private int totalScore() {
+        return workloadIndex.availableWorkloads().stream().mapToInt(w -> w.score()).sum();
+    }
+}
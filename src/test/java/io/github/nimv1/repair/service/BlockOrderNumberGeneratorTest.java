@@ -0,0 +1,103 @@
+package io.github.nimv1.repair.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JdbcTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BlockOrderNumberGeneratorTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void shouldFormatNumberWithDateAndPaddedCounter() {
+        BlockOrderNumberGenerator generator = generator(LocalDate.of(2024, 3, 5), 10);
+
+        assertEquals("REP-20240305-00001", generator.nextOrderNumber());
+        assertEquals("REP-20240305-00002", generator.nextOrderNumber());
+    }
+
+    @Test
+    void shouldContinueAfterBlockIsExhausted() {
+        BlockOrderNumberGenerator generator = generator(LocalDate.of(2024, 3, 6), 2);
+
+        generator.nextOrderNumber();
+        generator.nextOrderNumber();
+
+        assertEquals("REP-20240306-00003", generator.nextOrderNumber());
+    }
+
+    @Test
+    void shouldResetCounterForNewDay() {
+        generator(LocalDate.of(2024, 3, 7), 5).nextOrderNumber();
+
+        assertEquals("REP-20240308-00001", generator(LocalDate.of(2024, 3, 8), 5).nextOrderNumber());
+    }
+
+    @Test
+    void shouldNotReuseNumbersAcrossInstances() {
+        LocalDate date = LocalDate.of(2024, 3, 9);
+        BlockOrderNumberGenerator first = generator(date, 3);
+        BlockOrderNumberGenerator second = generator(date, 3);
+
+        assertEquals("REP-20240309-00001", first.nextOrderNumber());
+        assertEquals("REP-20240309-00004", second.nextOrderNumber());
+    }
+
+    @Test
+    void shouldGenerateUniqueNumbersUnderContentionFromSeveralNodes() throws Exception {
+        LocalDate date = LocalDate.of(2024, 3, 10);
+        List<BlockOrderNumberGenerator> nodes = List.of(generator(date, 7), generator(date, 7), generator(date, 7));
+        int threads = 12;
+        int perThread = 500;
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                BlockOrderNumberGenerator node = nodes.get(t % nodes.size());
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        assertTrue(numbers.add(node.nextOrderNumber()), "Повторный номер заявки");
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * perThread, numbers.size());
+    }
+
+    private BlockOrderNumberGenerator generator(LocalDate date, int blockSize) {
+        Clock clock = Clock.fixed(date.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneId.of("UTC"));
+        return new BlockOrderNumberGenerator(jdbcTemplate, transactionManager, blockSize, clock);
+    }
+}
@@ -0,0 +1,109 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.dto.KpiReport;
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сводки KPI: свёртка пересчитывает только изменённые заявки, переносит вклад
+ * при смене техника и совпадает с полной перестройкой.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:kpi-rollups;DB_CLOSE_DELAY=-1",
+        "repair.reports.kpi.watermark-lag=PT0S",
+        "repair.reports.kpi.chunk-size=2"
+})
+class KpiRollupServiceTest {
+
+    @Autowired
+    private RepairOrderService orderService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private KpiRollupService rollupService;
+
+    @Autowired
+    private KpiReportService reportService;
+
+    @Test
+    void shouldFoldOnlyChangedOrdersAndMatchFullRebuild() {
+        User manager = userService.findByUsername("manager").orElseThrow();
+        User tech1 = userService.findByUsername("tech1").orElseThrow();
+        User tech2 = userService.findByUsername("tech2").orElseThrow();
+
+        RepairOrder completed = createOrder(new BigDecimal("1000.00"));
+        orderService.acceptOrder(completed.getId(), manager);
+        orderService.assignTechnician(completed.getId(), tech1);
+        orderService.startRepair(completed.getId());
+        orderService.completeRepair(completed.getId(), "Заменён нагреватель", null, new BigDecimal("1500.00"));
+        RepairOrder assigned = createOrder(null);
+        orderService.acceptOrder(assigned.getId(), manager);
+        orderService.assignTechnician(assigned.getId(), tech1);
+        RepairOrder cancelled = createOrder(null);
+        orderService.cancelOrder(cancelled.getId());
+
+        // Первая свёртка строит сводки по всем заявкам
+        assertEquals(3, rollupService.fold());
+        Map<String, KpiReport.Row> byTechnician = byGroup(report(KpiReport.Grouping.TECHNICIAN));
+        assertEquals(2, byTechnician.get(tech1.getFullName()).created());
+        assertEquals(1, byTechnician.get(tech1.getFullName()).completed());
+        assertEquals(1, byTechnician.get("Не назначен").cancelled());
+        KpiReport.Row total = report(KpiReport.Grouping.TECHNICIAN).total();
+        assertEquals(3, total.created());
+        assertEquals(100.0 / 3, total.completionRate(), 0.01);
+        assertEquals(0, new BigDecimal("1000").compareTo(total.estimatedCost()));
+        assertEquals(0, new BigDecimal("1500").compareTo(total.finalCost()));
+        assertNotNull(total.avgHoursToComplete());
+
+        // Смена техника: пересчитывается одна заявка, вклад переходит к другому технику
+        orderService.assignTechnician(assigned.getId(), tech2);
+        assertEquals(1, rollupService.fold());
+        assertEquals(0, rollupService.fold());
+        byTechnician = byGroup(report(KpiReport.Grouping.TECHNICIAN));
+        assertEquals(1, byTechnician.get(tech1.getFullName()).created());
+        assertEquals(1, byTechnician.get(tech2.getFullName()).created());
+
+        KpiReport incremental = report(KpiReport.Grouping.BRAND);
+        assertEquals(3, rollupService.rebuild());
+        assertEquals(incremental, report(KpiReport.Grouping.BRAND));
+        assertEquals(3, byGroup(incremental).get("Bosch").created());
+    }
+
+    @Test
+    void shouldRejectInvertedPeriod() {
+        LocalDate today = LocalDate.now();
+        assertThrows(IllegalArgumentException.class,
+                () -> reportService.report(today, today.minusDays(1), KpiReport.Grouping.DAY));
+    }
+
+    private KpiReport report(KpiReport.Grouping groupBy) {
+        return reportService.report(LocalDate.now(), LocalDate.now(), groupBy);
+    }
+
+    private static Map<String, KpiReport.Row> byGroup(KpiReport report) {
+        return report.rows().stream().collect(Collectors.toMap(KpiReport.Row::group, Function.identity()));
+    }
+
+    private RepairOrder createOrder(BigDecimal estimatedCost) {
+        return orderService.createOrder(RepairOrder.builder()
+                .clientName("Клиент отчёта")
+                .clientPhone("+7 900 800-00-00")
+                .applianceType("Кофемашина")
+                .applianceBrand("Bosch")
+                .estimatedCost(estimatedCost)
+                .build());
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.nimv1.repair.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LastLoginRecorderTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private LastLoginRecorder recorder;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldCoalesceLoginsIntoSingleBatch() {
+        recorder.record("tech1", NOW);
+        recorder.record("tech1", NOW.plusMinutes(5));
+        recorder.record("tech1", NOW.plusMinutes(1));
+        recorder.record("tech2", NOW);
+
+        recorder.flush();
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+        assertEquals(2, batch.getValue().size());
+        Object[] tech1 = batch.getValue().stream().filter(row -> "tech1".equals(row[1])).findFirst().orElseThrow();
+        assertEquals(Timestamp.valueOf(NOW.plusMinutes(5)), tech1[0]);
+        assertEquals(0, recorder.pendingCount());
+    }
+
+    @Test
+    void shouldSkipDatabaseWhenNothingPending() {
+        recorder.flush();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void shouldKeepLoginsWhenFlushFails() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("БД недоступна"));
+        recorder.record("tech1", NOW);
+
+        recorder.flush();
+
+        assertEquals(1, recorder.pendingCount());
+    }
+}
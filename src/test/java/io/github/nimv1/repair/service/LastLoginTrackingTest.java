@@ -0,0 +1,48 @@
+package io.github.nimv1.repair.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
+
+/**
+ * Успешный вход через форму попадает в буфер и записывается в users при сбросе.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:last-login;DB_CLOSE_DELAY=-1",
+        "repair.users.last-login.flush-interval=PT1H"
+})
+@AutoConfigureMockMvc
+class LastLoginTrackingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LastLoginRecorder recorder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldWriteLastLoginOnFlush() throws Exception {
+        mockMvc.perform(formLogin("/login").user("tech1").password("tech123")).andExpect(authenticated());
+        assertNull(lastLogin("tech1"));
+
+        recorder.flush();
+
+        assertNotNull(lastLogin("tech1"));
+    }
+
+    private Timestamp lastLogin(String username) {
+        return jdbcTemplate.queryForObject("SELECT last_login_at FROM users WHERE username = ?", Timestamp.class, username);
+    }
+}
@@ -0,0 +1,199 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.config.NotificationProperties;
+import io.github.nimv1.repair.entity.OutboxNotification;
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.entity.User;
+import io.github.nimv1.repair.repository.OutboxNotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Outbox уведомлений: записи появляются только вместе с закоммиченным переходом,
+ * отправляются ограниченным числом порций за опрос и повторяются после ошибки
+ * или таймаута шлюза. SKIP LOCKED проверяется
+ * только на PostgreSQL: для H2 Hibernate строит обычный FOR UPDATE.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:notifications;DB_CLOSE_DELAY=-1",
+        "repair.notifications.sender=recording",
+        "repair.notifications.poll-interval=PT1H",
+        "repair.notifications.initial-backoff=0s",
+        "repair.notifications.send-timeout=200ms",
+        "repair.notifications.max-attempts=2"
+})
+class NotificationDispatcherTest {
+
+    @Autowired
+    private RepairOrderService orderService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private NotificationDispatcher dispatcher;
+
+    @Autowired
+    private OutboxNotificationRepository outboxRepository;
+
+    @Autowired
+    private RecordingSender sender;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void shouldNotifyClientAndTechnicianAfterTransitions() {
+        dispatcher.dispatch();
+        User technician = userService.findByUsername("tech1").orElseThrow();
+        RepairOrder order = assignedOrder(technician, "client@example.com");
+        orderService.scheduleVisit(order.getId(), LocalDate.now().plusDays(3).atTime(10, 0));
+
+        List<OutboxNotification> pending = notificationsOf(order.getId());
+        // Назначение и визит: клиенту SMS и письмо, технику SMS и письмо
+        assertEquals(8, pending.size());
+        assertTrue(pending.stream().allMatch(n -> n.getStatus() == OutboxNotification.Status.PENDING));
+        assertTrue(pending.stream().anyMatch(n -> n.getRecipient().equals(technician.getPhone())
+                && n.getBody().startsWith("Вам назначена заявка " + order.getOrderNumber())));
+
+        assertEquals(8, dispatcher.dispatch());
+        assertTrue(notificationsOf(order.getId()).stream()
+                .allMatch(n -> n.getStatus() == OutboxNotification.Status.SENT && n.getSentAt() != null));
+        assertEquals(8, sender.sent.stream().filter(n -> n.getOrderId().equals(order.getId())).count());
+    }
+
+    @Test
+    void shouldRetryAndGiveUpAfterMaxAttempts() {
+        dispatcher.dispatch();
+        User technician = userService.findByUsername("tech2").orElseThrow();
+        RepairOrder order = assignedOrder(technician, "broken@example.com");
+        sender.failFor.add("broken@example.com");
+
+        dispatcher.dispatch();
+        OutboxNotification failing = notificationsOf(order.getId()).stream()
+                .filter(n -> n.getRecipient().equals("broken@example.com")).findFirst().orElseThrow();
+        assertEquals(OutboxNotification.Status.PENDING, failing.getStatus());
+        assertEquals(1, failing.getAttempts());
+        assertNotNull(failing.getLastError());
+
+        dispatcher.dispatch();
+        failing = outboxRepository.findById(failing.getId()).orElseThrow();
+        assertEquals(OutboxNotification.Status.FAILED, failing.getStatus());
+        assertEquals(2, failing.getAttempts());
+        assertEquals(0, dispatcher.dispatch());
+    }
+
+    @Test
+    void shouldCountHungGatewayAsFailedAttempt() {
+        dispatcher.dispatch();
+        User technician = userService.findByUsername("tech1").orElseThrow();
+        RepairOrder order = assignedOrder(technician, "hung@example.com");
+        sender.hangFor.add("hung@example.com");
+
+        dispatcher.dispatch();
+
+        List<OutboxNotification> notifications = notificationsOf(order.getId());
+        OutboxNotification hung = notifications.stream()
+                .filter(n -> n.getRecipient().equals("hung@example.com")).findFirst().orElseThrow();
+        assertEquals(OutboxNotification.Status.PENDING, hung.getStatus());
+        assertEquals(1, hung.getAttempts());
+        assertTrue(hung.getLastError().startsWith("Шлюз не ответил"));
+        assertTrue(notifications.stream().filter(n -> n != hung)
+                .allMatch(n -> n.getStatus() == OutboxNotification.Status.SENT));
+    }
+
+    @Test
+    void shouldStopAfterMaxBatchesPerPoll() {
+        dispatcher.dispatch();
+        RepairOrder order = assignedOrder(userService.findByUsername("tech2").orElseThrow(), "limit@example.com");
+        NotificationDispatcher limited = new NotificationDispatcher(outboxRepository, sender,
+                new NotificationProperties(1, 2, Duration.ofSeconds(1), 2, Duration.ZERO, Duration.ZERO,
+                        Duration.ofDays(1), null),
+                transactionManager, new SimpleMeterRegistry());
+        try {
+            assertEquals(2, limited.dispatch());
+            assertEquals(2, notificationsOf(order.getId()).stream()
+                    .filter(n -> n.getStatus() == OutboxNotification.Status.PENDING).count());
+        } finally {
+            limited.shutdown();
+        }
+    }
+
+    @Test
+    void shouldNotWriteNotificationsOfRolledBackTransition() {
+        User technician = userService.findByUsername("tech1").orElseThrow();
+        LocalDateTime visit = LocalDate.now().plusDays(12).atTime(10, 0);
+        RepairOrder first = assignedOrder(technician, null);
+        RepairOrder second = assignedOrder(technician, null);
+        orderService.scheduleVisit(first.getId(), visit);
+        long before = notificationsOf(second.getId()).size();
+
+        assertThrows(IllegalStateException.class, () -> orderService.scheduleVisit(second.getId(), visit.plusHours(1)));
+
+        assertEquals(before, notificationsOf(second.getId()).size());
+    }
+
+    private List<OutboxNotification> notificationsOf(Long orderId) {
+        return outboxRepository.findAll().stream().filter(n -> n.getOrderId().equals(orderId)).toList();
+    }
+
+    private RepairOrder assignedOrder(User technician, String clientEmail) {
+        User manager = userService.findByUsername("manager").orElseThrow();
+        RepairOrder order = orderService.createOrder(RepairOrder.builder()
+                .clientName("Клиент уведомлений")
+                .clientPhone("+7 900 900-00-00")
+                .clientEmail(clientEmail)
+                .clientAddress("ул. Ленина, 1")
+                .applianceType("Стиральная машина")
+                .build());
+        orderService.acceptOrder(order.getId(), manager);
+        return orderService.assignTechnician(order.getId(), technician);
+    }
+
+    static class RecordingSender implements NotificationSender {
+
+        final List<OutboxNotification> sent = new CopyOnWriteArrayList<>();
+        final Set<String> failFor = ConcurrentHashMap.newKeySet();
+        final Set<String> hangFor = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void send(OutboxNotification notification) {
+            if (failFor.contains(notification.getRecipient())) {
+                throw new IllegalStateException("Шлюз недоступен");
+            }
+            if (hangFor.contains(notification.getRecipient())) {
+                try {
+                    Thread.sleep(60_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Отправка прервана");
+                }
+            }
+            sent.add(notification);
+        }
+    }
+
+    @TestConfiguration
+    static class SenderConfig {
+
+        @Bean
+        RecordingSender recordingSender() {
+            return new RecordingSender();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.dto.OrderHistory;
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.entity.User;
+import io.github.nimv1.repair.repository.OrderEventRepository;
+import io.github.nimv1.repair.support.StatementCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Журнал переходов пишется в транзакции перехода, пакетно и без записей об откатившихся изменениях.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-events;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        // Фоновый опрос outbox не должен попадать в подсчёт запросов
+        "repair.notifications.poll-interval=PT1H"
+})
+class OrderEventLogTest {
+
+    @Autowired
+    private RepairOrderService orderService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OrderEventLog eventLog;
+
+    @Autowired
+    private OrderEventRepository eventRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @WithMockUser("dispatcher")
+    void shouldRecordWhoMovedOrderAndTimeInStatus() {
+        User manager = userService.findByUsername("manager").orElseThrow();
+        User technician = userService.findByUsername("tech2").orElseThrow();
+        RepairOrder order = createOrder();
+        orderService.acceptOrder(order.getId(), manager);
+        orderService.assignTechnician(order.getId(), technician);
+        orderService.startRepair(order.getId());
+        orderService.setWaitingParts(order.getId());
+
+        OrderHistory history = eventLog.history(order.getId());
+
+        assertEquals(List.of(RepairOrder.OrderStatus.NEW, RepairOrder.OrderStatus.ACCEPTED,
+                        RepairOrder.OrderStatus.ASSIGNED, RepairOrder.OrderStatus.IN_PROGRESS,
+                        RepairOrder.OrderStatus.WAITING_PARTS),
+                history.events().stream().map(OrderHistory.Entry::status).toList());
+        assertNull(history.events().get(0).previousStatus());
+        assertTrue(history.events().stream().allMatch(e -> "dispatcher".equals(e.actor())));
+        assertEquals(technician.getId(), history.events().get(2).technicianId());
+        // Текущий статус считается по настоящий момент
+        assertTrue(history.secondsInStatus().containsKey(RepairOrder.OrderStatus.WAITING_PARTS));
+    }
+
+    @Test
+    void shouldNotLogRolledBackTransition() {
+        User manager = userService.findByUsername("manager").orElseThrow();
+        User technician = userService.findByUsername("tech1").orElseThrow();
+        LocalDate day = LocalDate.now().plusDays(10);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            RepairOrder order = createOrder();
+            orderService.acceptOrder(order.getId(), manager);
+            orderService.assignTechnician(order.getId(), technician);
+            ids.add(order.getId());
+        }
+        orderService.scheduleVisit(ids.get(0), day.atTime(10, 0));
+
+        // Пересекающийся визит откатывает транзакцию вместе с записью журнала
+        assertThrows(IllegalStateException.class, () -> orderService.scheduleVisit(ids.get(1), day.atTime(11, 0)));
+
+        assertEquals(3, eventRepository.findByOrderIdOrderByOccurredAtAscIdAsc(ids.get(1)).size());
+        assertNull(eventLog.history(ids.get(1)).events().get(0).actor());
+    }
+
+    @Test
+    void shouldInsertLogEntriesOfBulkOperationInBatches() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(createOrder().getId());
+        }
+        StatementCounter statements = new StatementCounter(entityManagerFactory);
+        statements.reset();
+
+        orderService.cancelOrders(ids);
+
+        // SELECT заявок, пакетный UPDATE, пакетный INSERT журнала и, возможно, очередной диапазон id
+        statements.assertAtMost(4, "Массовая отмена 10 заявок");
+        assertTrue(ids.stream().allMatch(id ->
+                eventLog.history(id).events().get(1).status() == RepairOrder.OrderStatus.CANCELLED));
+    }
+
+    private RepairOrder createOrder() {
+        return orderService.createOrder(RepairOrder.builder()
+                .clientName("Клиент журнала")
+                .clientPhone("+7 900 700-00-00")
+                .applianceType("Электроплита")
+                .build());
+    }
+}
@@ -0,0 +1,120 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.dto.OrderSearchCriteria;
+import io.github.nimv1.repair.entity.RepairOrder;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Выгрузка заявок курсором с маленькой порцией (fetch-size меньше числа строк).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-export;DB_CLOSE_DELAY=-1",
+        "repair.orders.export.fetch-size=3"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderExportServiceTest {
+
+    private static final int ORDERS = 10;
+
+    @Autowired
+    private OrderExportService exportService;
+
+    @Autowired
+    private RepairOrderService orderService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final OrderSearchCriteria exported =
+            new OrderSearchCriteria(null, null, "EXP", null, null, null, null, null);
+
+    @BeforeAll
+    void createOrders() {
+        for (int i = 0; i < ORDERS; i++) {
+            orderService.createOrder(RepairOrder.builder()
+                    .clientName("Клиент выгрузки " + i)
+                    .clientPhone("+7 900 300-00-" + i)
+                    .applianceType("Плита")
+                    .serialNumber("EXP-" + i)
+                    .estimatedCost(new BigDecimal("1500.50"))
+                    .build());
+        }
+    }
+
+    @Test
+    void shouldExportCsvWithHeaderAndAllMatchingRows() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.exportCsv(exported, out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        List<String> lines = csv.lines().toList();
+        assertEquals(ORDERS, count);
+        assertEquals(ORDERS + 1, lines.size());
+        assertTrue(lines.get(0).startsWith("\uFEFForderNumber,createdAt,status,"));
+        assertTrue(lines.get(1).contains("Клиент выгрузки 0"));
+        assertTrue(lines.get(ORDERS).contains("Клиент выгрузки 9"));
+    }
+
+    @Test
+    void shouldExportXlsx() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.exportXlsx(exported, out);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheet("Заявки");
+            assertEquals(ORDERS, count);
+            assertEquals(ORDERS, sheet.getLastRowNum());
+            assertEquals("Номер", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("Клиент выгрузки 0", sheet.getRow(1).getCell(4).getStringCellValue());
+            assertEquals(1500.5, sheet.getRow(1).getCell(12).getNumericCellValue());
+        }
+    }
+
+    @Test
+    void shouldApplyFilters() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.exportCsv(new OrderSearchCriteria(null, null, "EXP",
+                RepairOrder.OrderStatus.COMPLETED, null, null, null, null), out);
+
+        assertEquals(0, count);
+    }
+
+    @Test
+    @WithMockUser(roles = "MANAGER")
+    void shouldStreamExportAsAttachment() throws Exception {
+        mockMvc.perform(get("/api/orders/export/xlsx").param("serialNumber", "EXP"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString(".xlsx")));
+    }
+
+    @Test
+    @WithMockUser(roles = "TECHNICIAN")
+    void shouldForbidExportForTechnicians() throws Exception {
+        mockMvc.perform(get("/api/orders/export/csv")).andExpect(status().isForbidden());
+    }
+}
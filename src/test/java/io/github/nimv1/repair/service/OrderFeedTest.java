@@ -0,0 +1,72 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderFeedTest {
+
+    private final List<Runnable> pendingSends = new ArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private OrderFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        // Отправка не выполняется, пока тест не запустит задачи: подписчик «не успевает читать»
+        feed = new OrderFeed(pendingSends::add, registry, 2, Duration.ofMinutes(1), Duration.ofSeconds(10));
+    }
+
+    @Test
+    void shouldDropOldestMessagesWhenSubscriberBufferIsFull() {
+        feed.subscribe(null);
+
+        for (long id = 1; id <= 5; id++) {
+            feed.onStatusChanged(event(id, null));
+        }
+
+        assertEquals(3, registry.get("repair.orders.feed.dropped").counter().count());
+        assertEquals(1, pendingSends.size(), "Одна задача отправки на подписчика");
+    }
+
+    @Test
+    void shouldBufferOnlyOwnOrdersForTechnician() {
+        feed.subscribe(7L);
+
+        feed.onStatusChanged(event(1L, null));
+        feed.onStatusChanged(event(2L, 8L));
+        feed.onStatusChanged(event(3L, 7L));
+
+        assertEquals(1, pendingSends.size());
+        assertEquals(0, registry.get("repair.orders.feed.dropped").counter().count());
+        assertEquals(1, registry.get("repair.orders.feed.subscribers").gauge().value());
+    }
+
+    @Test
+    void shouldDisconnectSubscriberWhenSenderQueueIsFull() {
+        OrderFeed saturated = new OrderFeed(task -> {
+            throw new TaskRejectedException("Очередь заполнена");
+        }, registry, 2, Duration.ofMinutes(1), Duration.ofSeconds(10));
+        saturated.subscribe(null);
+
+        saturated.onStatusChanged(event(1L, null));
+
+        assertEquals(0, saturated.subscriberCount());
+        assertEquals(1, registry.get("repair.orders.feed.disconnected").counter().count());
+    }
+
+    private OrderStatusChangedEvent event(Long orderId, Long technicianId) {
+        return new OrderStatusChangedEvent(orderId, null, RepairOrder.OrderStatus.NEW, LocalDateTime.now(),
+                technicianId, RepairOrder.Priority.NORMAL,
+                new OrderStatusChangedEvent.Timeline(null, null, null, null, null));
+    }
+}
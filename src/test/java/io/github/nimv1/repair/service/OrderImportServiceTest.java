@@ -0,0 +1,105 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.dto.ImportResult;
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.repository.RepairOrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Импорт заявок порциями: строки с ошибками отклоняются, остальные сохраняются;
+ * порция, не принятая БД, повторяется построчно.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-import;DB_CLOSE_DELAY=-1",
+        "repair.orders.import.chunk-size=7"
+})
+class OrderImportServiceTest {
+
+    @Autowired
+    private OrderImportService importService;
+
+    @Autowired
+    private RepairOrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldImportCsvInChunksAndRejectInvalidRows() throws Exception {
+        StringBuilder csv = new StringBuilder("applianceType,clientName,clientPhone,priority,extra\n");
+        for (int i = 0; i < 20; i++) {
+            csv.append("Холодильник,CSV Клиент ").append(i).append(",+7 900 100-00-").append(i).append(",high,x\n");
+        }
+        csv.append("Холодильник,,+7 900 100-00-99,low,x\n");
+        csv.append("Холодильник,CSV Клиент плохой,+7 900 100-00-98,неизвестно,x\n");
+        long before = orderRepository.count();
+
+        ImportResult result = importService.importCsv(stream(csv.toString()));
+
+        assertEquals(20, result.imported());
+        assertEquals(2, result.rejected());
+        assertEquals(2, result.errors().size());
+        assertEquals(before + 20, orderRepository.count());
+        RepairOrder imported = orderRepository.findByStatus(RepairOrder.OrderStatus.NEW).stream()
+                .filter(order -> "CSV Клиент 0".equals(order.getClientName()))
+                .findFirst().orElseThrow();
+        assertEquals(RepairOrder.Priority.HIGH, imported.getPriority());
+        assertTrue(imported.getOrderNumber().startsWith("REP-"));
+    }
+
+    @Test
+    void shouldImportJsonArray() throws Exception {
+        String json = """
+                [
+                  {"clientName": "JSON Клиент 1", "clientPhone": "+7 900 200-00-01", "applianceType": "Плита"},
+                  {"clientName": "JSON Клиент 2", "clientPhone": "+7 900 200-00-02", "applianceType": "Плита",
+                   "estimatedCost": 1500},
+                  {"clientName": "JSON Клиент 3", "applianceType": "Плита"}
+                ]
+                """;
+
+        ImportResult result = importService.importJson(stream(json));
+
+        assertEquals(2, result.imported());
+        assertEquals(1, result.rejected());
+    }
+
+    @Test
+    void shouldRejectRowsExceedingColumnLimitsAndRetryFailedChunkRowByRow() throws Exception {
+        StringBuilder csv = new StringBuilder("applianceType,clientName,clientPhone,problemDescription\n");
+        for (int i = 1; i <= 10; i++) {
+            String name = i == 3 ? "Сбой БД" : "Лимиты Клиент " + i;
+            String description = i == 5 ? "a".repeat(2001) : "Не включается";
+            csv.append("Чайник,").append(name).append(",+7 900 300-00-").append(i).append(',').append(description).append('\n');
+        }
+        long before = orderRepository.count();
+        // Ограничение, которое не проверяется при разборе: порция с записью 3 падает при вставке
+        jdbcTemplate.execute("ALTER TABLE repair_orders ADD CONSTRAINT ck_import_test CHECK (client_name <> 'Сбой БД')");
+        ImportResult result;
+        try {
+            result = importService.importCsv(stream(csv.toString()));
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE repair_orders DROP CONSTRAINT ck_import_test");
+        }
+
+        assertEquals(8, result.imported());
+        assertEquals(2, result.rejected());
+        assertEquals(before + 8, orderRepository.count());
+        assertTrue(result.errors().contains("Запись 5: описание проблемы длиннее 2000 символов"));
+        assertTrue(result.errors().stream().anyMatch(error -> error.startsWith("Запись 3: не сохранена")));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
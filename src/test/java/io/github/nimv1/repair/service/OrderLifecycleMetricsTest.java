@@ -0,0 +1,89 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.config.PrimaryReads;
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderLifecycleMetricsTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @Mock
+    private RepairOrderService orderService;
+
+    private SimpleMeterRegistry registry;
+    private OrderLifecycleMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new OrderLifecycleMetrics(registry, orderService,
+                new PrimaryReads(TransactionOperations.withoutTransaction()));
+    }
+
+    @Test
+    void shouldCountTransitionsAndRecordStageDurations() {
+        OrderStatusChangedEvent.Timeline completed = new OrderStatusChangedEvent.Timeline(
+                CREATED, CREATED.plusHours(1), null, CREATED.plusHours(3), CREATED.plusHours(4));
+
+        metrics.onStatusChanged(event(RepairOrder.OrderStatus.ACCEPTED, RepairOrder.OrderStatus.ASSIGNED, completed));
+        metrics.onStatusChanged(event(RepairOrder.OrderStatus.SCHEDULED, RepairOrder.OrderStatus.IN_PROGRESS, completed));
+        metrics.onStatusChanged(event(RepairOrder.OrderStatus.IN_PROGRESS, RepairOrder.OrderStatus.COMPLETED, completed));
+
+        assertEquals(1, registry.get("repair.orders.transitions")
+                .tags("from", "ACCEPTED", "to", "ASSIGNED").counter().count());
+        assertEquals(60, stage("assignment").totalTime(TimeUnit.MINUTES));
+        assertEquals(120, stage("start").totalTime(TimeUnit.MINUTES));
+        assertEquals(60, stage("repair").totalTime(TimeUnit.MINUTES));
+        assertEquals(240, stage("total").totalTime(TimeUnit.MINUTES));
+    }
+
+    @Test
+    void shouldNotRestartStagesOnReassignmentOrResume() {
+        OrderStatusChangedEvent.Timeline timeline = new OrderStatusChangedEvent.Timeline(
+                CREATED, CREATED.plusHours(1), null, CREATED.plusHours(2), null);
+
+        metrics.onStatusChanged(event(RepairOrder.OrderStatus.ASSIGNED, RepairOrder.OrderStatus.ASSIGNED, timeline));
+        metrics.onStatusChanged(event(RepairOrder.OrderStatus.WAITING_PARTS, RepairOrder.OrderStatus.IN_PROGRESS, timeline));
+
+        assertNull(registry.find("repair.orders.stage.duration").timer());
+        assertEquals(2, registry.get("repair.orders.transitions").counters().size());
+    }
+
+    @Test
+    void shouldExposeActiveOrdersPerTechnician() {
+        when(orderService.countActiveOrdersByTechnician()).thenReturn(Map.of(2L, 3L, 3L, 1L));
+        metrics.refreshActiveByTechnician();
+        assertEquals(3, registry.get("repair.orders.active").tag("technician", "2").gauge().value());
+
+        when(orderService.countActiveOrdersByTechnician()).thenReturn(Map.of(3L, 2L));
+        metrics.refreshActiveByTechnician();
+        assertNull(registry.find("repair.orders.active").tag("technician", "2").gauge());
+        assertEquals(2, registry.get("repair.orders.active").tag("technician", "3").gauge().value());
+    }
+
+    private Timer stage(String stage) {
+        return registry.get("repair.orders.stage.duration").tag("stage", stage).timer();
+    }
+
+    private static OrderStatusChangedEvent event(RepairOrder.OrderStatus from, RepairOrder.OrderStatus to,
+                                                 OrderStatusChangedEvent.Timeline timeline) {
+        return new OrderStatusChangedEvent(1L, from, to, LocalDateTime.now(), 2L, RepairOrder.Priority.NORMAL, timeline);
+    }
+}
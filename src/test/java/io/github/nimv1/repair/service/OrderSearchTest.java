@@ -0,0 +1,113 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.dto.OrderSearchCriteria;
+import io.github.nimv1.repair.dto.OrderSummary;
+import io.github.nimv1.repair.entity.RepairOrder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Поиск заявок по нормализованным телефону и серийному номеру, тексту и фильтрам.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:order-search;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderSearchTest {
+
+    @Autowired
+    private RepairOrderService orderService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private RepairOrder target;
+
+    @BeforeAll
+    void createOrders() {
+        target = orderService.createOrder(RepairOrder.builder()
+                .clientName("Поисковый Клиент")
+                .clientPhone("+7 (911) 555-12-34")
+                .clientAddress("ул. Тестовая, 7")
+                .applianceType("Стиральная машина")
+                .applianceBrand("Bosch")
+                .applianceModel("WAN24260")
+                .serialNumber("ab-7788 99")
+                .problemDescription("Не сливает воду, шумит при отжиме")
+                .priority(RepairOrder.Priority.HIGH)
+                .build());
+        orderService.createOrder(RepairOrder.builder()
+                .clientName("Другой Клиент")
+                .clientPhone("+7 911 555-99-99")
+                .applianceType("Холодильник")
+                .serialNumber("CD-1")
+                .build());
+    }
+
+    @Test
+    void shouldFindByPhoneInAnyFormatOrItsEnding() {
+        assertFound(search(new OrderSearchCriteria(null, "89115551234", null, null, null, null, null, null)));
+        assertFound(search(new OrderSearchCriteria(null, "12-34", null, null, null, null, null, null)));
+    }
+
+    @Test
+    void shouldFindBySerialNumberPrefixIgnoringSeparators() {
+        assertFound(search(new OrderSearchCriteria(null, null, "AB 778", null, null, null, null, null)));
+    }
+
+    @Test
+    void shouldFindByTextAcrossClientApplianceAndDescription() {
+        assertFound(search(new OrderSearchCriteria("bosch", null, null, null, null, null, null, null)));
+        assertFound(search(new OrderSearchCriteria("сливает", null, null, null, null, null, null, null)));
+    }
+
+    @Test
+    void shouldCombineFilters() {
+        LocalDate today = LocalDate.now();
+        assertFound(search(new OrderSearchCriteria(null, "1234", null, RepairOrder.OrderStatus.NEW,
+                RepairOrder.Priority.HIGH, today, today, null)));
+        assertTrue(search(new OrderSearchCriteria(null, "12-34", null, RepairOrder.OrderStatus.COMPLETED,
+                null, null, null, null)).isEmpty());
+    }
+
+    @Test
+    @WithMockUser(roles = "DISPATCHER")
+    void shouldExposeSearchApi() throws Exception {
+        mockMvc.perform(get("/api/orders/search").param("serialNumber", "ab778899"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].orderNumber").value(target.getOrderNumber()));
+    }
+
+    @Test
+    @WithMockUser(roles = "MANAGER")
+    void shouldShowSearchResultsOnOrderList() throws Exception {
+        mockMvc.perform(get("/orders").param("phone", "555-12-34").param("status", "NEW"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(target.getOrderNumber())));
+    }
+
+    private List<OrderSummary> search(OrderSearchCriteria criteria) {
+        return orderService.search(criteria, 0, 20);
+    }
+
+    private void assertFound(List<OrderSummary> result) {
+        assertEquals(List.of(target.getId()), result.stream().map(OrderSummary::id).toList());
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.config.PrimaryReads;
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.event.OrderStatusChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderStatusCountersTest {
+
+    @Mock
+    private RepairOrderService orderService;
+
+    @Spy
+    private PrimaryReads primaryReads = new PrimaryReads(TransactionOperations.withoutTransaction());
+
+    @InjectMocks
+    private OrderStatusCounters counters;
+
+    @Test
+    void shouldSeedCountersFromDatabase() {
+        when(orderService.countAllByStatus()).thenReturn(counts(RepairOrder.OrderStatus.NEW, 7L));
+
+        counters.seed();
+
+        assertEquals(7, counters.get(RepairOrder.OrderStatus.NEW));
+        assertEquals(0, counters.get(RepairOrder.OrderStatus.COMPLETED));
+    }
+
+    @Test
+    void shouldTrackStatusTransitions() {
+        counters.onStatusChanged(event(null, RepairOrder.OrderStatus.NEW));
+        counters.onStatusChanged(event(null, RepairOrder.OrderStatus.NEW));
+        counters.onStatusChanged(event(RepairOrder.OrderStatus.NEW, RepairOrder.OrderStatus.ACCEPTED));
+
+        assertEquals(1, counters.get(RepairOrder.OrderStatus.NEW));
+        assertEquals(1, counters.get(RepairOrder.OrderStatus.ACCEPTED));
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void shouldIgnoreTransitionToSameStatus() {
+        counters.onStatusChanged(event(RepairOrder.OrderStatus.ASSIGNED, RepairOrder.OrderStatus.ASSIGNED));
+
+        assertEquals(0, counters.get(RepairOrder.OrderStatus.ASSIGNED));
+    }
+
+    @Test
+    void shouldCorrectDriftOnReconcile() {
+        counters.onStatusChanged(event(null, RepairOrder.OrderStatus.NEW));
+        when(orderService.countAllByStatus()).thenReturn(counts(RepairOrder.OrderStatus.NEW, 3L));
+
+        counters.reconcile();
+
+        assertEquals(3, counters.get(RepairOrder.OrderStatus.NEW));
+    }
+
+    private Map<RepairOrder.OrderStatus, Long> counts(RepairOrder.OrderStatus status, long total) {
+        Map<RepairOrder.OrderStatus, Long> counts = new EnumMap<>(RepairOrder.OrderStatus.class);
+        for (RepairOrder.OrderStatus s : RepairOrder.OrderStatus.values()) {
+            counts.put(s, 0L);
+        }
+        counts.put(status, total);
+        return counts;
+    }
+
+    private OrderStatusChangedEvent event(RepairOrder.OrderStatus from, RepairOrder.OrderStatus to) {
+        return new OrderStatusChangedEvent(1L, from, to, LocalDateTime.now(), null, RepairOrder.Priority.NORMAL,
+                new OrderStatusChangedEvent.Timeline(null, null, null, null, null));
+    }
+}
@@ -0,0 +1,150 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.entity.User;
+import io.github.nimv1.repair.repository.RepairOrderRepository;
+import io.github.nimv1.repair.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Нагрузочные проверки: параллельный createOrder не порождает повторных номеров заявок
+ * и не исчерпывает пул соединений на пополнении блоков номеров,
+ * а одновременные переходы статуса не затирают друг друга.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-number-stress;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "spring.datasource.hikari.connection-timeout=2000",
+        "repair.orders.number.block-size=2"
+})
+class RepairOrderServiceConcurrencyTest {
+
+    @Autowired
+    private RepairOrderService orderService;
+
+    @Autowired
+    private RepairOrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void parallelCreateOrderShouldProduceUniqueOrderNumbers() throws Exception {
+        int threads = 8;
+        int perThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                Callable<List<String>> task = () -> {
+                    List<String> numbers = new ArrayList<>();
+                    for (int i = 0; i < perThread; i++) {
+                        numbers.add(orderService.createOrder(newOrder()).getOrderNumber());
+                    }
+                    return numbers;
+                };
+                futures.add(executor.submit(task));
+            }
+            List<String> numbers = new ArrayList<>();
+            for (Future<List<String>> future : futures) {
+                numbers.addAll(future.get());
+            }
+
+            Set<String> unique = new HashSet<>(numbers);
+            assertEquals(threads * perThread, unique.size());
+            assertEquals(threads * perThread, orderRepository.count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void createOrderShouldNotExhaustPoolWhenMoreThreadsThanConnections() throws Exception {
+        // Потоков втрое больше, чем соединений, а блок из двух номеров пополняется постоянно
+        int threads = 12;
+        int perThread = 20;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<String> numbers = new ArrayList<>();
+                    for (int i = 0; i < perThread; i++) {
+                        numbers.add(orderService.createOrder(newOrder()).getOrderNumber());
+                    }
+                    return numbers;
+                }));
+            }
+            start.countDown();
+            Set<String> unique = new HashSet<>();
+            for (Future<List<String>> future : futures) {
+                unique.addAll(future.get(60, TimeUnit.SECONDS));
+            }
+
+            assertEquals(threads * perThread, unique.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentTransitionsShouldNotOverwriteEachOther() throws Exception {
+        Long orderId = orderService.createOrder(newOrder()).getId();
+        User manager = userRepository.findByUsername("manager").orElseThrow();
+        int threads = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        orderService.acceptOrder(orderId, manager);
+                        return true;
+                    } catch (IllegalStateException | OptimisticLockingFailureException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int accepted = 0;
+            for (Future<Boolean> future : futures) {
+                accepted += future.get() ? 1 : 0;
+            }
+
+            assertEquals(1, accepted);
+            RepairOrder order = orderRepository.findById(orderId).orElseThrow();
+            assertEquals(RepairOrder.OrderStatus.ACCEPTED, order.getStatus());
+            assertEquals(1L, order.getVersion());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private RepairOrder newOrder() {
+        return RepairOrder.builder()
+                .clientName("Клиент")
+                .clientPhone("+7 999 000-00-00")
+                .applianceType("Холодильник")
+                .build();
+    }
+}
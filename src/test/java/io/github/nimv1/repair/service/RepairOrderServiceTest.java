@@ -1,20 +1,41 @@
 package io.github.nimv1.repair.service;
 
+import io.github.nimv1.repair.dto.BulkOperationResult;
+import io.github.nimv1.repair.dto.GroupCount;
+import io.github.nimv1.repair.dto.KeysetPage;
+import io.github.nimv1.repair.dto.OrderCursor;
+import io.github.nimv1.repair.dto.OrderSummary;
 import io.github.nimv1.repair.entity.RepairOrder;
 import io.github.nimv1.repair.entity.User;
+import io.github.nimv1.repair.event.OrderStatusChangedEvent;
 import io.github.nimv1.repair.repository.RepairOrderRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,6 +44,18 @@ class RepairOrderServiceTest {
     @Mock
     private RepairOrderRepository orderRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OrderNumberGenerator orderNumberGenerator;
+
+    @Mock
+    private VisitCalendar visitCalendar;
+
+    @Mock
+    private TransactionOperations transactionOperations;
+
     @InjectMocks
     private RepairOrderService orderService;
 
@@ -40,6 +73,7 @@ class RepairOrderServiceTest {
                 .problemDescription("Не охлаждает")
                 .status(RepairOrder.OrderStatus.NEW)
                 .priority(RepairOrder.Priority.NORMAL)
+                .version(0L)
                 .build();
 
         testManager = User.builder()
@@ -59,19 +93,29 @@ class RepairOrderServiceTest {
 
     @Test
     void shouldCreateOrder() {
+        when(orderNumberGenerator.nextOrderNumber()).thenReturn("REP-20240101-00001");
         when(orderRepository.save(any(RepairOrder.class))).thenReturn(testOrder);
+        when(transactionOperations.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
 
         RepairOrder created = orderService.createOrder(testOrder);
 
         assertNotNull(created);
-        assertNotNull(created.getOrderNumber());
+        assertEquals("REP-20240101-00001", created.getOrderNumber());
         assertEquals(RepairOrder.OrderStatus.NEW, created.getStatus());
         verify(orderRepository).save(any(RepairOrder.class));
+        verify(eventPublisher).publishEvent(any(OrderStatusChangedEvent.class));
+    }
+
+    @Test
+    void shouldRejectOrderWithoutReservedNumber() {
+        assertThrows(IllegalArgumentException.class, () -> orderService.createNumberedOrder(testOrder));
+        verify(orderRepository, never()).save(any());
     }
 
     @Test
     void shouldFindOrderById() {
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        when(orderRepository.findWithUsersById(1L)).thenReturn(Optional.of(testOrder));
 
         Optional<RepairOrder> found = orderService.findById(1L);
 
@@ -81,33 +125,73 @@ class RepairOrderServiceTest {
 
     @Test
     void shouldAcceptOrder() {
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
-        when(orderRepository.save(any(RepairOrder.class))).thenAnswer(i -> i.getArgument(0));
+        when(orderRepository.transitionWithManager(1L, Set.of(RepairOrder.OrderStatus.NEW), null,
+                RepairOrder.OrderStatus.ACCEPTED, testManager)).thenReturn(1);
+        when(orderRepository.reload(1L)).thenReturn(Optional.of(
+                updated(RepairOrder.OrderStatus.ACCEPTED, o -> o.setManager(testManager))));
 
         RepairOrder accepted = orderService.acceptOrder(1L, testManager);
 
         assertEquals(RepairOrder.OrderStatus.ACCEPTED, accepted.getStatus());
         assertEquals(testManager, accepted.getManager());
+        assertEquals(1L, accepted.getVersion());
+        // Успешный переход: UPDATE и одно чтение изменённой заявки
+        verify(orderRepository, never()).findById(any());
     }
 
     @Test
     void shouldAssignTechnician() {
         testOrder.setStatus(RepairOrder.OrderStatus.ACCEPTED);
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
-        when(orderRepository.save(any(RepairOrder.class))).thenAnswer(i -> i.getArgument(0));
+        when(orderRepository.transitionWithTechnician(eq(1L), eq(EnumSet.of(RepairOrder.OrderStatus.ACCEPTED,
+                        RepairOrder.OrderStatus.ASSIGNED, RepairOrder.OrderStatus.SCHEDULED)), isNull(),
+                eq(RepairOrder.OrderStatus.ASSIGNED), eq(testTechnician), any())).thenReturn(1);
+        when(orderRepository.reload(1L)).thenReturn(Optional.of(
+                updated(RepairOrder.OrderStatus.ASSIGNED, o -> o.setTechnician(testTechnician))));
 
         RepairOrder assigned = orderService.assignTechnician(1L, testTechnician);
 
         assertEquals(RepairOrder.OrderStatus.ASSIGNED, assigned.getStatus());
         assertEquals(testTechnician, assigned.getTechnician());
-        assertNotNull(assigned.getAssignedAt());
+    }
+
+    @Test
+    void shouldBookVisitInCalendar() {
+        LocalDateTime visit = LocalDateTime.of(2024, 3, 1, 10, 0);
+        testOrder.setStatus(RepairOrder.OrderStatus.ASSIGNED);
+        testOrder.setTechnician(testTechnician);
+        when(orderRepository.transitionWithSchedule(eq(1L), any(), isNull(),
+                eq(RepairOrder.OrderStatus.SCHEDULED), eq(visit))).thenReturn(1);
+        when(orderRepository.reload(1L)).thenReturn(Optional.of(
+                updated(RepairOrder.OrderStatus.SCHEDULED, o -> o.setScheduledAt(visit))));
+
+        RepairOrder scheduled = orderService.scheduleVisit(1L, visit);
+
+        assertEquals(RepairOrder.OrderStatus.SCHEDULED, scheduled.getStatus());
+        verify(visitCalendar).book(1L, 2L, visit);
+    }
+
+    @Test
+    void shouldRejectOverlappingVisit() {
+        LocalDateTime visit = LocalDateTime.of(2024, 3, 1, 10, 0);
+        testOrder.setStatus(RepairOrder.OrderStatus.ASSIGNED);
+        testOrder.setTechnician(testTechnician);
+        when(orderRepository.transitionWithSchedule(eq(1L), any(), isNull(),
+                eq(RepairOrder.OrderStatus.SCHEDULED), eq(visit))).thenReturn(1);
+        when(orderRepository.reload(1L)).thenReturn(Optional.of(
+                updated(RepairOrder.OrderStatus.SCHEDULED, o -> o.setScheduledAt(visit))));
+        doThrow(new IllegalStateException("Техник уже занят")).when(visitCalendar).book(1L, 2L, visit);
+
+        assertThrows(IllegalStateException.class, () -> orderService.scheduleVisit(1L, visit));
     }
 
     @Test
     void shouldStartRepair() {
         testOrder.setStatus(RepairOrder.OrderStatus.ASSIGNED);
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
-        when(orderRepository.save(any(RepairOrder.class))).thenAnswer(i -> i.getArgument(0));
+        when(orderRepository.transitionWithStart(eq(1L), eq(EnumSet.of(RepairOrder.OrderStatus.ASSIGNED,
+                        RepairOrder.OrderStatus.SCHEDULED, RepairOrder.OrderStatus.WAITING_PARTS)), isNull(),
+                eq(RepairOrder.OrderStatus.IN_PROGRESS), any())).thenReturn(1);
+        when(orderRepository.reload(1L)).thenReturn(Optional.of(
+                updated(RepairOrder.OrderStatus.IN_PROGRESS, o -> o.setStartedAt(LocalDateTime.now()))));
 
         RepairOrder started = orderService.startRepair(1L);
 
@@ -118,33 +202,197 @@ class RepairOrderServiceTest {
     @Test
     void shouldCompleteRepair() {
         testOrder.setStatus(RepairOrder.OrderStatus.IN_PROGRESS);
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
-        when(orderRepository.save(any(RepairOrder.class))).thenAnswer(i -> i.getArgument(0));
+        when(orderRepository.transitionWithCompletion(eq(1L), eq(Set.of(RepairOrder.OrderStatus.IN_PROGRESS)), isNull(),
+                eq(RepairOrder.OrderStatus.COMPLETED), any(), eq("Заменён компрессор"), eq("Компрессор XYZ"),
+                eq(new BigDecimal("5000")))).thenReturn(1);
+        when(orderRepository.reload(1L)).thenReturn(Optional.of(
+                updated(RepairOrder.OrderStatus.COMPLETED, o -> o.setFinalCost(new BigDecimal("5000")))));
 
         RepairOrder completed = orderService.completeRepair(
                 1L, "Заменён компрессор", "Компрессор XYZ", new BigDecimal("5000"));
 
         assertEquals(RepairOrder.OrderStatus.COMPLETED, completed.getStatus());
-        assertEquals("Заменён компрессор", completed.getRepairNotes());
-        assertEquals("Компрессор XYZ", completed.getPartsUsed());
         assertEquals(new BigDecimal("5000"), completed.getFinalCost());
-        assertNotNull(completed.getCompletedAt());
     }
 
     @Test
     void shouldCancelOrder() {
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
-        when(orderRepository.save(any(RepairOrder.class))).thenAnswer(i -> i.getArgument(0));
+        when(orderRepository.transitionStatus(eq(1L), any(), isNull(),
+                eq(RepairOrder.OrderStatus.CANCELLED))).thenReturn(1);
+        when(orderRepository.reload(1L)).thenReturn(Optional.of(updated(RepairOrder.OrderStatus.CANCELLED, o -> { })));
 
         RepairOrder cancelled = orderService.cancelOrder(1L);
 
         assertEquals(RepairOrder.OrderStatus.CANCELLED, cancelled.getStatus());
+        ArgumentCaptor<OrderStatusChangedEvent> event = ArgumentCaptor.forClass(OrderStatusChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(RepairOrder.OrderStatus.NEW, event.getValue().previousStatus());
+        assertEquals(RepairOrder.OrderStatus.CANCELLED, event.getValue().newStatus());
     }
 
     @Test
     void shouldThrowExceptionWhenOrderNotFound() {
-        when(orderRepository.findById(999L)).thenReturn(Optional.empty());
+        when(orderRepository.reload(999L)).thenReturn(Optional.empty());
 
         assertThrows(IllegalArgumentException.class, () -> orderService.acceptOrder(999L, testManager));
     }
+
+    @Test
+    void shouldRejectIllegalTransition() {
+        testOrder.setStatus(RepairOrder.OrderStatus.COMPLETED);
+        when(orderRepository.reload(1L)).thenReturn(Optional.of(testOrder));
+
+        assertThrows(IllegalStateException.class, () -> orderService.cancelOrder(1L));
+        verify(orderRepository, times(1)).transitionStatus(any(), any(), any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void shouldRejectStaleFormVersion() {
+        testOrder.setVersion(1L);
+        when(orderRepository.transitionStatus(1L, RepairOrder.OrderStatus.sourcesOf(RepairOrder.OrderStatus.CANCELLED),
+                0L, RepairOrder.OrderStatus.CANCELLED)).thenReturn(0);
+        when(orderRepository.reload(1L)).thenReturn(Optional.of(testOrder));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> orderService.cancelOrder(1L, 0L));
+        verify(orderRepository, times(1)).transitionStatus(any(), any(), any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void shouldRetryTransitionAfterConcurrentModification() {
+        RepairOrder concurrentlyAccepted = RepairOrder.builder()
+                .id(1L).status(RepairOrder.OrderStatus.ACCEPTED).version(1L).build();
+        when(orderRepository.transitionStatus(eq(1L), any(), isNull(), eq(RepairOrder.OrderStatus.CANCELLED)))
+                .thenReturn(0)
+                .thenReturn(1);
+        when(orderRepository.reload(1L))
+                .thenReturn(Optional.of(concurrentlyAccepted))
+                .thenReturn(Optional.of(RepairOrder.builder().id(1L).status(RepairOrder.OrderStatus.CANCELLED)
+                        .previousStatus(RepairOrder.OrderStatus.ACCEPTED).version(2L).build()));
+
+        RepairOrder cancelled = orderService.cancelOrder(1L);
+
+        assertEquals(RepairOrder.OrderStatus.CANCELLED, cancelled.getStatus());
+        assertEquals(2L, cancelled.getVersion());
+        verify(orderRepository, times(2)).transitionStatus(any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldFailWhenConflictPersists() {
+        when(orderRepository.reload(1L)).thenAnswer(i -> Optional.of(RepairOrder.builder()
+                .id(1L).status(RepairOrder.OrderStatus.NEW).version(0L).build()));
+        when(orderRepository.transitionStatus(any(), any(), any(), any())).thenReturn(0);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> orderService.cancelOrder(1L));
+        verify(orderRepository, times(3)).transitionStatus(any(), any(), any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void shouldAssignTechnicianToManyOrdersSkippingIllegalOnes() {
+        testOrder.setStatus(RepairOrder.OrderStatus.ACCEPTED);
+        RepairOrder completed = RepairOrder.builder().id(2L).status(RepairOrder.OrderStatus.COMPLETED).build();
+        when(orderRepository.findAllById(any())).thenReturn(List.of(testOrder, completed));
+
+        BulkOperationResult result = orderService.assignTechnician(List.of(1L, 2L, 3L), testTechnician);
+
+        assertEquals(List.of(1L), result.updated());
+        assertEquals(List.of(2L, 3L), List.copyOf(result.rejected().keySet()));
+        assertEquals(RepairOrder.OrderStatus.ASSIGNED, testOrder.getStatus());
+        assertEquals(testTechnician, testOrder.getTechnician());
+        assertEquals(RepairOrder.OrderStatus.COMPLETED, completed.getStatus());
+        verify(eventPublisher, times(1)).publishEvent(any(OrderStatusChangedEvent.class));
+    }
+
+    @Test
+    void shouldCancelManyOrdersWithSingleSelect() {
+        RepairOrder second = RepairOrder.builder().id(2L).status(RepairOrder.OrderStatus.ASSIGNED).build();
+        when(orderRepository.findAllById(any())).thenReturn(List.of(second, testOrder));
+
+        BulkOperationResult result = orderService.cancelOrders(List.of(1L, 2L, 1L));
+
+        assertEquals(List.of(1L, 2L), result.updated());
+        assertTrue(result.rejected().isEmpty());
+        assertEquals(RepairOrder.OrderStatus.CANCELLED, second.getStatus());
+        verify(orderRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void shouldCountAllStatusesWithSingleGroupedQuery() {
+        when(orderRepository.countGroupedByStatus()).thenReturn(List.of(
+                groupCount(RepairOrder.OrderStatus.NEW, 4),
+                groupCount(RepairOrder.OrderStatus.COMPLETED, 2)));
+
+        Map<RepairOrder.OrderStatus, Long> counts = orderService.countAllByStatus();
+
+        assertEquals(RepairOrder.OrderStatus.values().length, counts.size());
+        assertEquals(4L, counts.get(RepairOrder.OrderStatus.NEW));
+        assertEquals(2L, counts.get(RepairOrder.OrderStatus.COMPLETED));
+        assertEquals(0L, counts.get(RepairOrder.OrderStatus.CANCELLED));
+        verify(orderRepository, never()).countByStatus(any());
+    }
+
+    @Test
+    void shouldReturnFirstKeysetPageWithNextCursorOnly() {
+        OrderSummary newest = orderAt(3L, LocalDateTime.of(2024, 1, 3, 10, 0));
+        OrderSummary older = orderAt(2L, LocalDateTime.of(2024, 1, 2, 10, 0));
+        when(orderRepository.findLatest(any())).thenReturn(
+                new SliceImpl<>(List.of(newest, older), PageRequest.ofSize(2), true));
+
+        KeysetPage<OrderSummary> page = orderService.findPage(null, null, 2);
+
+        assertFalse(page.hasPrevious());
+        assertEquals(OrderCursor.of(older), OrderCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void shouldReturnPreviousKeysetPageInDescendingOrder() {
+        OrderSummary older = orderAt(4L, LocalDateTime.of(2024, 1, 4, 10, 0));
+        OrderSummary newer = orderAt(5L, LocalDateTime.of(2024, 1, 5, 10, 0));
+        OrderCursor cursor = new OrderCursor(LocalDateTime.of(2024, 1, 3, 10, 0), 3L);
+        when(orderRepository.findNewerThan(eq(cursor.createdAt()), eq(3L), any())).thenReturn(
+                new SliceImpl<>(List.of(older, newer), PageRequest.ofSize(2), false));
+
+        KeysetPage<OrderSummary> page = orderService.findPage(null, cursor.encode(), 2);
+
+        assertEquals(List.of(newer, older), page.getContent());
+        assertFalse(page.hasPrevious());
+        assertEquals(OrderCursor.of(older), OrderCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> orderService.findPage("не-курсор", null, 10));
+    }
+
+    private static OrderSummary orderAt(Long id, LocalDateTime createdAt) {
+        return new OrderSummary(id, "REP-" + id, null, null, null, null,
+                RepairOrder.OrderStatus.NEW, RepairOrder.Priority.NORMAL, createdAt);
+    }
+
+    private static <K> GroupCount<K> groupCount(K key, long total) {
+        return new GroupCount<>() {
+            @Override
+            public K getGroupKey() {
+                return key;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+
+    /**
+     * testOrder в состоянии после успешного UPDATE: новый статус, прежний статус и версия + 1.
+     */
+    private RepairOrder updated(RepairOrder.OrderStatus status, Consumer<RepairOrder> changes) {
+        testOrder.setPreviousStatus(testOrder.getStatus());
+        testOrder.setStatus(status);
+        testOrder.setVersion(testOrder.getVersion() + 1);
+        changes.accept(testOrder);
+        return testOrder;
+    }
 }
@@ -0,0 +1,115 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.entity.User;
+import io.github.nimv1.repair.repository.RepairOrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Переходы статуса выполняются одним UPDATE: после каждого шага строка перечитывается
+ * из БД и проверяются все записанные поля, предыдущий статус и увеличение версии.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:order-transitions;DB_CLOSE_DELAY=-1")
+class RepairOrderTransitionsTest {
+
+    @Autowired
+    private RepairOrderService orderService;
+
+    @Autowired
+    private RepairOrderRepository orderRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void transitionsShouldWriteEveryFieldAndBumpVersion() {
+        User manager = userService.findByUsername("manager").orElseThrow();
+        User technician = userService.findByUsername("tech2").orElseThrow();
+        Long id = orderService.createOrder(RepairOrder.builder()
+                .clientName("Клиент переходов")
+                .clientPhone("+7 900 100-00-00")
+                .applianceType("Посудомоечная машина")
+                .build()).getId();
+        RepairOrder order = reload(id);
+        assertEquals(RepairOrder.OrderStatus.NEW, order.getStatus());
+        assertNull(order.getPreviousStatus());
+        assertEquals(0L, order.getVersion());
+
+        orderService.acceptOrder(id, manager);
+        order = reload(id);
+        assertEquals(RepairOrder.OrderStatus.ACCEPTED, order.getStatus());
+        assertEquals(RepairOrder.OrderStatus.NEW, order.getPreviousStatus());
+        assertEquals(manager.getId(), order.getManager().getId());
+        assertEquals(1L, order.getVersion());
+
+        LocalDateTime beforeAssign = LocalDateTime.now();
+        orderService.assignTechnician(id, technician);
+        order = reload(id);
+        assertEquals(RepairOrder.OrderStatus.ASSIGNED, order.getStatus());
+        assertEquals(RepairOrder.OrderStatus.ACCEPTED, order.getPreviousStatus());
+        assertEquals(technician.getId(), order.getTechnician().getId());
+        assertWrittenSince(beforeAssign, order.getAssignedAt());
+        assertEquals(2L, order.getVersion());
+
+        LocalDateTime visit = LocalDate.now().plusDays(5).atTime(14, 0);
+        orderService.scheduleVisit(id, visit);
+        order = reload(id);
+        assertEquals(RepairOrder.OrderStatus.SCHEDULED, order.getStatus());
+        assertEquals(RepairOrder.OrderStatus.ASSIGNED, order.getPreviousStatus());
+        assertEquals(visit, order.getScheduledAt());
+        assertEquals(3L, order.getVersion());
+
+        LocalDateTime beforeStart = LocalDateTime.now();
+        orderService.startRepair(id);
+        order = reload(id);
+        assertEquals(RepairOrder.OrderStatus.IN_PROGRESS, order.getStatus());
+        assertEquals(RepairOrder.OrderStatus.SCHEDULED, order.getPreviousStatus());
+        assertWrittenSince(beforeStart, order.getStartedAt());
+        LocalDateTime startedAt = order.getStartedAt();
+        assertEquals(4L, order.getVersion());
+
+        orderService.setWaitingParts(id);
+        orderService.startRepair(id);
+        order = reload(id);
+        assertEquals(RepairOrder.OrderStatus.IN_PROGRESS, order.getStatus());
+        assertEquals(RepairOrder.OrderStatus.WAITING_PARTS, order.getPreviousStatus());
+        // Возврат из ожидания запчастей не сбрасывает дату начала ремонта
+        assertEquals(startedAt, order.getStartedAt());
+        assertEquals(6L, order.getVersion());
+
+        LocalDateTime beforeComplete = LocalDateTime.now();
+        orderService.completeRepair(id, "Заменён насос", "Насос сливной", new BigDecimal("4500.00"));
+        order = reload(id);
+        assertEquals(RepairOrder.OrderStatus.COMPLETED, order.getStatus());
+        assertEquals(RepairOrder.OrderStatus.IN_PROGRESS, order.getPreviousStatus());
+        assertWrittenSince(beforeComplete, order.getCompletedAt());
+        assertEquals("Заменён насос", order.getRepairNotes());
+        assertEquals("Насос сливной", order.getPartsUsed());
+        assertEquals(0, new BigDecimal("4500.00").compareTo(order.getFinalCost()));
+        assertEquals(7L, order.getVersion());
+        // Поля прошлых шагов не затёрты последующими UPDATE
+        assertEquals(manager.getId(), order.getManager().getId());
+        assertEquals(technician.getId(), order.getTechnician().getId());
+        assertEquals(visit, order.getScheduledAt());
+        assertNotNull(order.getAssignedAt());
+    }
+
+    private RepairOrder reload(Long id) {
+        return orderRepository.findWithUsersById(id).orElseThrow();
+    }
+
+    private static void assertWrittenSince(LocalDateTime since, LocalDateTime value) {
+        assertNotNull(value);
+        assertFalse(value.isBefore(since.truncatedTo(ChronoUnit.MILLIS)), value + " раньше " + since);
+        assertFalse(value.isAfter(LocalDateTime.now()), value + " в будущем");
+    }
+}
@@ -0,0 +1,113 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.config.PrimaryReads;
+import io.github.nimv1.repair.dto.OrderLoad;
+import io.github.nimv1.repair.dto.TechnicianWorkload;
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.entity.User;
+import io.github.nimv1.repair.event.OrderStatusChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TechnicianWorkloadIndexTest {
+
+    private static final LocalDateTime VISIT = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    @Mock
+    private RepairOrderService orderService;
+
+    @Mock
+    private UserService userService;
+
+    @Spy
+    private PrimaryReads primaryReads = new PrimaryReads(TransactionOperations.withoutTransaction());
+
+    @InjectMocks
+    private TechnicianWorkloadIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(userService.findAllTechnicians()).thenReturn(List.of(technician(1L, true), technician(2L, true),
+                technician(3L, false)));
+        when(orderService.findActiveLoads()).thenReturn(List.of(
+                new OrderLoad(10L, 1L, RepairOrder.OrderStatus.ASSIGNED, RepairOrder.Priority.URGENT, VISIT),
+                new OrderLoad(11L, 2L, RepairOrder.OrderStatus.IN_PROGRESS, RepairOrder.Priority.LOW, null)));
+        index.seed();
+    }
+
+    @Test
+    void shouldSeedWorkloadsFromDatabase() {
+        TechnicianWorkload first = index.workload(1L).orElseThrow();
+
+        assertEquals(4, first.score());
+        assertEquals(1, first.activeOrders());
+        assertEquals(1, first.visitsOn(VISIT.toLocalDate()));
+        assertEquals(Optional.of(2L), index.leastLoadedTechnician());
+    }
+
+    @Test
+    void shouldSkipDisabledTechnicians() {
+        assertEquals(List.of(2L, 1L), index.availableWorkloads().stream()
+                .map(TechnicianWorkload::technicianId).toList());
+        assertTrue(index.workload(3L).isPresent());
+    }
+
+    @Test
+    void shouldMoveLoadOnReassignment() {
+        index.onStatusChanged(event(11L, 1L, RepairOrder.OrderStatus.ASSIGNED, RepairOrder.Priority.LOW));
+
+        assertEquals(0, index.workload(2L).orElseThrow().score());
+        assertEquals(5, index.workload(1L).orElseThrow().score());
+        assertEquals(Optional.of(2L), index.leastLoadedTechnician());
+    }
+
+    @Test
+    void shouldReleaseLoadWhenOrderIsClosed() {
+        index.onStatusChanged(event(10L, 1L, RepairOrder.OrderStatus.COMPLETED, RepairOrder.Priority.URGENT));
+
+        TechnicianWorkload first = index.workload(1L).orElseThrow();
+        assertEquals(0, first.score());
+        assertEquals(0, first.visitsOn(VISIT.toLocalDate()));
+        assertEquals(Optional.of(1L), index.leastLoadedTechnician());
+    }
+
+    @Test
+    void shouldResetDriftOnRebuild() {
+        index.onStatusChanged(event(12L, 2L, RepairOrder.OrderStatus.ASSIGNED, RepairOrder.Priority.HIGH));
+        assertEquals(4, index.workload(2L).orElseThrow().score());
+
+        index.rebuild();
+
+        assertEquals(1, index.workload(2L).orElseThrow().score());
+    }
+
+    private User technician(Long id, boolean enabled) {
+        return User.builder()
+                .id(id)
+                .username("tech" + id)
+                .fullName("Техник " + id)
+                .role(User.Role.TECHNICIAN)
+                .enabled(enabled)
+                .build();
+    }
+
+    private OrderStatusChangedEvent event(Long orderId, Long technicianId, RepairOrder.OrderStatus status,
+                                          RepairOrder.Priority priority) {
+        return new OrderStatusChangedEvent(orderId, RepairOrder.OrderStatus.ASSIGNED, status, LocalDateTime.now(),
+                technicianId, priority, new OrderStatusChangedEvent.Timeline(null, null, null, null, null));
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.nimv1.repair.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.github.nimv1.repair.config.CacheConfig;
+import io.github.nimv1.repair.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Кэш пользователей: повторный поиск не идёт в БД, изменения сбрасывают кэш.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:user-cache;DB_CLOSE_DELAY=-1")
+class UserServiceCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        Cache<Object, Object> byUsername = nativeCache(CacheConfig.USERS_BY_USERNAME);
+        long hits = byUsername.stats().hitCount();
+
+        User first = userService.findByUsername("tech1").orElseThrow();
+        User second = userService.findByUsername("tech1").orElseThrow();
+
+        assertSame(first, second);
+        assertEquals(hits + 1, byUsername.stats().hitCount());
+    }
+
+    @Test
+    void shouldNotCacheMissingUsers() {
+        assertTrue(userService.findByUsername("nobody").isEmpty());
+
+        assertNull(nativeCache(CacheConfig.USERS_BY_USERNAME).getIfPresent("nobody"));
+    }
+
+    @Test
+    void shouldEvictOnDisableAndEnable() {
+        User tech = userService.findByUsername("tech2").orElseThrow();
+        userService.findAllTechnicians();
+
+        userService.disableUser(tech.getId());
+
+        assertNull(nativeCache(CacheConfig.USERS_BY_USERNAME).getIfPresent("tech2"));
+        assertNull(nativeCache(CacheConfig.USERS_BY_ROLE).getIfPresent("TECHNICIAN"));
+        assertFalse(userService.findByUsername("tech2").orElseThrow().isEnabled());
+
+        userService.enableUser(tech.getId());
+
+        assertTrue(userService.findByUsername("tech2").orElseThrow().isEnabled());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<Object, Object> nativeCache(String name) {
+        return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+    }
+}
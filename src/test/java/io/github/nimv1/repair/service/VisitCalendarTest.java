@@ -0,0 +1,159 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.config.PrimaryReads;
+import io.github.nimv1.repair.config.VisitScheduleProperties;
+import io.github.nimv1.repair.dto.OrderLoad;
+import io.github.nimv1.repair.dto.VisitSlot;
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.entity.User;
+import io.github.nimv1.repair.event.OrderStatusChangedEvent;
+import io.github.nimv1.repair.repository.RepairOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VisitCalendarTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @Mock
+    private RepairOrderRepository orderRepository;
+
+    @Mock
+    private UserService userService;
+
+    private VisitCalendar calendar;
+
+    @BeforeEach
+    void setUp() {
+        calendar = new VisitCalendar(orderRepository, userService, new VisitScheduleProperties(
+                Duration.ofHours(2), LocalTime.of(9, 0), LocalTime.of(18, 0), Duration.ofDays(30)),
+                new PrimaryReads(TransactionOperations.withoutTransaction()));
+        when(orderRepository.findLoads(List.of(RepairOrder.OrderStatus.SCHEDULED))).thenReturn(List.of(
+                load(10L, 1L, DAY.atTime(9, 0)),
+                load(11L, 1L, DAY.atTime(11, 0))));
+        calendar.seed();
+    }
+
+    @Test
+    void shouldRejectOverlappingVisit() {
+        assertThrows(IllegalStateException.class, () -> calendar.book(20L, 1L, DAY.atTime(12, 30)));
+        assertThrows(IllegalStateException.class, () -> calendar.book(20L, 1L, DAY.atTime(8, 1)));
+
+        calendar.book(20L, 1L, DAY.atTime(13, 0));
+        calendar.book(21L, 2L, DAY.atTime(9, 0));
+
+        assertEquals(3, calendar.visitsOn(1L, DAY).size());
+    }
+
+    @Test
+    void shouldMoveVisitWhenRescheduled() {
+        calendar.book(11L, 1L, DAY.atTime(15, 0));
+
+        assertTrue(calendar.isFree(1L, DAY.atTime(11, 0)));
+        assertEquals(List.of(DAY.atTime(9, 0), DAY.atTime(15, 0)),
+                calendar.visitsOn(1L, DAY).stream().map(VisitSlot::start).toList());
+    }
+
+    @Test
+    void shouldFindFirstFreeSlotWithinWorkingHours() {
+        assertEquals(Optional.of(DAY.atTime(13, 0)),
+                calendar.firstFreeSlot(1L, DAY.atTime(7, 30)).map(VisitSlot::start));
+        assertEquals(Optional.of(DAY.plusDays(1).atTime(9, 0)),
+                calendar.firstFreeSlot(1L, DAY.atTime(16, 30)).map(VisitSlot::start));
+        assertEquals(Optional.of(DAY.atTime(9, 1)),
+                calendar.firstFreeSlot(2L, DAY.atTime(9, 0, 30)).map(VisitSlot::start));
+    }
+
+    @Test
+    void shouldPickEarliestSlotAmongEnabledTechnicians() {
+        when(userService.findAllTechnicians()).thenReturn(List.of(technician(1L, true), technician(2L, false),
+                technician(3L, true)));
+
+        VisitSlot slot = calendar.firstFreeSlot(DAY.atTime(9, 0)).orElseThrow();
+
+        assertEquals(3L, slot.technicianId());
+        assertEquals(DAY.atTime(9, 0), slot.start());
+    }
+
+    @Test
+    void shouldReleaseVisitWhenOrderLeavesScheduled() {
+        calendar.onStatusChanged(event(10L, RepairOrder.OrderStatus.CANCELLED, DAY.atTime(9, 0)));
+        calendar.onStatusChanged(event(11L, RepairOrder.OrderStatus.IN_PROGRESS, DAY.atTime(11, 0)));
+
+        assertTrue(calendar.visitsOn(1L, DAY).isEmpty());
+    }
+
+    @Test
+    void shouldRestoreVisitFromDatabaseOnRollback() {
+        calendar.book(11L, 1L, DAY.atTime(15, 0));
+        when(orderRepository.findLoadById(11L)).thenReturn(Optional.of(load(11L, 1L, DAY.atTime(11, 0))));
+
+        calendar.onRollback(event(11L, RepairOrder.OrderStatus.SCHEDULED, DAY.atTime(15, 0)));
+
+        assertFalse(calendar.isFree(1L, DAY.atTime(11, 0)));
+        assertTrue(calendar.isFree(1L, DAY.atTime(15, 0)));
+    }
+
+    @Test
+    void shouldKeepUncommittedBookingAcrossRebuild() {
+        calendar.book(20L, 1L, DAY.atTime(13, 0));
+
+        calendar.rebuild();
+
+        assertFalse(calendar.isFree(1L, DAY.atTime(13, 0)));
+    }
+
+    @Test
+    void shouldApplyChangesCommittedWhileRebuildReadsSnapshot() {
+        calendar.book(20L, 1L, DAY.atTime(13, 0));
+        // Снимок прочитан до коммита: в нём нет визита 20 и ещё есть отменённый визит 10
+        when(orderRepository.findLoads(List.of(RepairOrder.OrderStatus.SCHEDULED))).thenAnswer(invocation -> {
+            calendar.onStatusChanged(event(20L, RepairOrder.OrderStatus.SCHEDULED, DAY.atTime(13, 0)));
+            calendar.onStatusChanged(event(10L, RepairOrder.OrderStatus.CANCELLED, DAY.atTime(9, 0)));
+            return List.of(load(10L, 1L, DAY.atTime(9, 0)), load(11L, 1L, DAY.atTime(11, 0)));
+        });
+
+        calendar.rebuild();
+
+        assertThrows(IllegalStateException.class, () -> calendar.book(21L, 1L, DAY.atTime(13, 30)));
+        assertTrue(calendar.isFree(1L, DAY.atTime(9, 0)));
+
+        // Следующая перестройка видит оба изменения в снимке
+        when(orderRepository.findLoads(List.of(RepairOrder.OrderStatus.SCHEDULED))).thenReturn(List.of(
+                load(11L, 1L, DAY.atTime(11, 0)), load(20L, 1L, DAY.atTime(13, 0))));
+        calendar.rebuild();
+
+        assertEquals(List.of(DAY.atTime(11, 0), DAY.atTime(13, 0)),
+                calendar.visitsOn(1L, DAY).stream().map(VisitSlot::start).toList());
+    }
+
+    private OrderLoad load(Long orderId, Long technicianId, LocalDateTime scheduledAt) {
+        return new OrderLoad(orderId, technicianId, RepairOrder.OrderStatus.SCHEDULED, RepairOrder.Priority.NORMAL,
+                scheduledAt);
+    }
+
+    private User technician(Long id, boolean enabled) {
+        return User.builder().id(id).username("tech" + id).role(User.Role.TECHNICIAN).enabled(enabled).build();
+    }
+
+    private OrderStatusChangedEvent event(Long orderId, RepairOrder.OrderStatus status, LocalDateTime scheduledAt) {
+        return new OrderStatusChangedEvent(orderId, RepairOrder.OrderStatus.SCHEDULED, status, LocalDateTime.now(),
+                1L, RepairOrder.Priority.NORMAL,
+                new OrderStatusChangedEvent.Timeline(null, null, scheduledAt, null, null));
+    }
+}
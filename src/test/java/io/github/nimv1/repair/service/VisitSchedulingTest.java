@@ -0,0 +1,66 @@
+package io.github.nimv1.repair.service;
+
+import io.github.nimv1.repair.entity.RepairOrder;
+import io.github.nimv1.repair.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Планирование визитов на реальной БД: пересекающийся визит откатывает транзакцию,
+ * а календарь остаётся согласован с БД.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:visit-scheduling;DB_CLOSE_DELAY=-1")
+class VisitSchedulingTest {
+
+    private static final LocalDateTime VISIT = LocalDate.now().plusDays(7).atTime(10, 0);
+
+    @Autowired
+    private RepairOrderService orderService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private VisitCalendar visitCalendar;
+
+    @Test
+    void shouldRejectDoubleBookingAndKeepCalendarConsistent() {
+        User technician = userService.findByUsername("tech1").orElseThrow();
+        RepairOrder first = assignedOrder(technician);
+        RepairOrder second = assignedOrder(technician);
+
+        orderService.scheduleVisit(first.getId(), VISIT);
+
+        assertThrows(IllegalStateException.class, () -> orderService.scheduleVisit(second.getId(), VISIT.plusHours(1)));
+        assertEquals(RepairOrder.OrderStatus.ASSIGNED, orderService.findById(second.getId()).orElseThrow().getStatus());
+        assertEquals(1, visitCalendar.visitsOn(technician.getId(), VISIT.toLocalDate()).size());
+
+        // Перенос визита освобождает прежнее окно
+        orderService.scheduleVisit(first.getId(), VISIT.plusHours(4));
+        orderService.scheduleVisit(second.getId(), VISIT);
+
+        orderService.cancelOrder(first.getId());
+        assertTrue(visitCalendar.isFree(technician.getId(), VISIT.plusHours(4)));
+        assertFalse(visitCalendar.isFree(technician.getId(), VISIT));
+
+        visitCalendar.rebuild();
+        assertEquals(1, visitCalendar.visitsOn(technician.getId(), VISIT.toLocalDate()).size());
+    }
+
+    private RepairOrder assignedOrder(User technician) {
+        User manager = userService.findByUsername("manager").orElseThrow();
+        RepairOrder order = orderService.createOrder(RepairOrder.builder()
+                .clientName("Клиент визита")
+                .clientPhone("+7 900 500-00-00")
+                .applianceType("Посудомоечная машина")
+                .build());
+        orderService.acceptOrder(order.getId(), manager);
+        return orderService.assignTechnician(order.getId(), technician);
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.nimv1.repair.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Подсчёт SQL-выражений, выполненных Hibernate, на основе его статистики.
+ * Требует {@code spring.jpa.properties.hibernate.generate_statistics=true}.
+ */
+public class StatementCounter {
+
+    private final Statistics statistics;
+
+    public StatementCounter(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            throw new IllegalStateException("Статистика Hibernate отключена (hibernate.generate_statistics)");
+        }
+    }
+
+    public void reset() {
+        statistics.clear();
+    }
+
+    public long count() {
+        return statistics.getPrepareStatementCount();
+    }
+
+    /** Сколько сущностей Hibernate загрузил (гидрировал) с момента reset(). */
+    public long entitiesLoaded() {
+        return statistics.getEntityLoadCount();
+    }
+
+    public void assertAtMost(long expectedMax, String description) {
+        long actual = count();
+        assertTrue(actual <= expectedMax,
+                () -> description + ": выполнено " + actual + " SQL-выражений, допустимо не более " + expectedMax);
+    }
+}